@@ -0,0 +1,107 @@
+package com.qasmarts.framework;
+
+import org.openqa.selenium.NotFoundException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.support.ui.FluentWait;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Explicit wait that polls quickly at first and backs off towards a maximum interval,
+ * and records how long each calling page method spent waiting in {@link WaitStatistics}.
+ * Meant to be used with the implicit wait turned off.
+ *
+ * @author Abhinav Gupta
+ */
+public class AdaptiveWait extends WebDriverWait {
+    private static final double BACKOFF_FACTOR = 1.5;
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
+
+    private final WebDriver driver;
+    private final long initialPollMillis;
+    private final long maxPollMillis;
+    private Duration timeout;
+
+    /**
+     * Constructor
+     *
+     * @param driver WebDriver instance
+     * @param timeout Maximum time to wait
+     * @param initialPoll Delay before the second check
+     * @param maxPoll Upper bound for the delay between checks
+     */
+    public AdaptiveWait(WebDriver driver, Duration timeout, Duration initialPoll, Duration maxPoll) {
+        super(driver, timeout);
+        this.driver = driver;
+        this.timeout = timeout;
+        this.initialPollMillis = Math.max(1, initialPoll.toMillis());
+        this.maxPollMillis = Math.max(initialPollMillis, maxPoll.toMillis());
+    }
+
+    @Override
+    public FluentWait<WebDriver> withTimeout(Duration timeout) {
+        this.timeout = timeout;
+        return super.withTimeout(timeout);
+    }
+
+    @Override
+    public <V> V until(Function<? super WebDriver, V> condition) {
+        String caller = findCaller();
+        long start = System.nanoTime();
+        long deadline = start + timeout.toNanos();
+        long pollMillis = initialPollMillis;
+        Throwable lastException = null;
+
+        while (true) {
+            try {
+                V value = condition.apply(driver);
+                if (value != null && (Boolean.class != value.getClass() || Boolean.TRUE.equals(value))) {
+                    WaitStatistics.record(caller, System.nanoTime() - start, false);
+                    return value;
+                }
+                lastException = null;
+            } catch (NotFoundException | StaleElementReferenceException e) {
+                lastException = e;
+            }
+
+            long remainingMillis = (deadline - System.nanoTime()) / 1_000_000;
+            if (remainingMillis <= 0) {
+                WaitStatistics.record(caller, System.nanoTime() - start, true);
+                String message = String.format("Expected condition failed: waiting for %s (tried for %d ms with adaptive polling)",
+                        condition, timeout.toMillis());
+                throw timeoutException(message, lastException);
+            }
+
+            try {
+                Thread.sleep(Math.min(pollMillis, remainingMillis));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new WebDriverException(e);
+            }
+            pollMillis = Math.min(maxPollMillis, (long) (pollMillis * BACKOFF_FACTOR));
+        }
+    }
+
+    /**
+     * Finds the page object method that asked for the wait
+     *
+     * @return "PageClass.method", or "unknown" when not called from a page object
+     */
+    static String findCaller() {
+        Optional<StackWalker.StackFrame> frame = STACK_WALKER.walk(frames -> frames
+                .filter(f -> BasePage.class.isAssignableFrom(f.getDeclaringClass())
+                        && f.getDeclaringClass() != BasePage.class)
+                .findFirst());
+        if (!frame.isPresent()) {
+            frame = STACK_WALKER.walk(frames -> frames
+                    .filter(f -> f.getDeclaringClass() == BasePage.class)
+                    .findFirst());
+        }
+        return frame.map(f -> f.getDeclaringClass().getSimpleName() + "." + f.getMethodName()).orElse("unknown");
+    }
+}
@@ -1,7 +1,11 @@
 package com.qasmarts.framework;
 
+import com.qasmarts.framework.config.ConfigManager;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.openqa.selenium.By;
 import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.TimeoutException;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.PageFactory;
@@ -9,6 +13,7 @@ import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.WebDriverWait;
 
 import java.time.Duration;
+import java.util.function.Function;
 
 /**
  * Base Page class that all Page Objects extend.
@@ -17,9 +22,26 @@ import java.time.Duration;
  * @author Abhinav Gupta
  */
 public class BasePage {
+    
+    /**
+     * How the page waits for DOM conditions
+     */
+    public enum WaitMode {
+        /** Explicit WebDriver waits with adaptive polling */
+        POLLING,
+        /** A MutationObserver in the page, one async script call per wait */
+        DOM_EVENTS
+    }
+    
+    protected final Logger logger = LogManager.getLogger(getClass());
     protected WebDriver driver;
     protected WebDriverWait wait;
     protected JavascriptExecutor jsExecutor;
+    private final Duration initialPoll;
+    private final Duration maxPoll;
+    private final Duration negativeCheckTimeout;
+    private final Duration defaultTimeout;
+    private WaitMode waitMode;
     
     /**
      * Constructor to initialize the page objects
@@ -27,8 +49,16 @@ public class BasePage {
      * @param driver WebDriver instance
      */
     public BasePage(WebDriver driver) {
+        ConfigManager config = ConfigManager.getInstance();
         this.driver = driver;
-        this.wait = new WebDriverWait(driver, Duration.ofSeconds(30));
+        this.initialPoll = Duration.ofMillis(config.getIntProperty("wait.initialPollMillis", 50));
+        this.maxPoll = Duration.ofMillis(config.getIntProperty("wait.maxPollMillis", 500));
+        this.negativeCheckTimeout = Duration.ofMillis(config.getIntProperty("wait.negativeCheckMillis", 2000));
+        this.defaultTimeout = Duration.ofSeconds(config.getIntProperty("wait.timeoutSeconds", 30));
+        this.wait = new AdaptiveWait(driver, defaultTimeout, initialPoll, maxPoll);
+        // wait.mode.<PageClass> overrides wait.mode for a single page object
+        this.waitMode = WaitMode.valueOf(config.getProperty("wait.mode." + getClass().getSimpleName(),
+                config.getProperty("wait.mode", "polling")).trim().toUpperCase());
         this.jsExecutor = (JavascriptExecutor) driver;
         PageFactory.initElements(driver, this);
     }
@@ -67,7 +97,129 @@ public class BasePage {
     }
     
     /**
-     * Checks if element is displayed
+     * Waits for a condition using the page's default timeout
+     * 
+     * @param condition Condition to wait for
+     * @param <T> Type returned by the condition
+     * @return Value returned by the condition once it holds
+     */
+    protected <T> T waitFor(Function<? super WebDriver, T> condition) {
+        return wait.until(condition);
+    }
+    
+    /**
+     * Waits for a condition with a timeout for this call only
+     * 
+     * @param condition Condition to wait for
+     * @param timeout Maximum time to wait
+     * @param <T> Type returned by the condition
+     * @return Value returned by the condition once it holds
+     */
+    protected <T> T waitFor(Function<? super WebDriver, T> condition, Duration timeout) {
+        return new AdaptiveWait(driver, timeout, initialPoll, maxPoll).until(condition);
+    }
+    
+    /**
+     * Sets how this page object waits for DOM conditions
+     * 
+     * @param waitMode Wait mode to use
+     */
+    protected void setWaitMode(WaitMode waitMode) {
+        this.waitMode = waitMode;
+    }
+    
+    /**
+     * Gets how this page object waits for DOM conditions
+     * 
+     * @return Current wait mode
+     */
+    public WaitMode getWaitMode() {
+        return waitMode;
+    }
+    
+    /**
+     * Waits until the first element matching the selector is visible
+     * 
+     * @param cssSelector CSS selector
+     */
+    protected void waitUntilVisible(String cssSelector) {
+        if (waitMode == WaitMode.DOM_EVENTS) {
+            new DomEventWait(jsExecutor, defaultTimeout).untilVisible(cssSelector);
+        } else {
+            wait.until(ExpectedConditions.visibilityOfElementLocated(By.cssSelector(cssSelector)));
+        }
+    }
+    
+    /**
+     * Waits until no element matching the selector is visible
+     * 
+     * @param cssSelector CSS selector
+     */
+    protected void waitUntilInvisible(String cssSelector) {
+        if (waitMode == WaitMode.DOM_EVENTS) {
+            new DomEventWait(jsExecutor, defaultTimeout).untilInvisible(cssSelector);
+        } else {
+            wait.until(ExpectedConditions.invisibilityOfElementLocated(By.cssSelector(cssSelector)));
+        }
+    }
+    
+    /**
+     * Waits until the first element matching the selector contains the text
+     * 
+     * @param cssSelector CSS selector
+     * @param text Expected text
+     */
+    protected void waitUntilTextPresent(String cssSelector, String text) {
+        if (waitMode == WaitMode.DOM_EVENTS) {
+            new DomEventWait(jsExecutor, defaultTimeout).untilTextPresent(cssSelector, text);
+        } else {
+            wait.until(ExpectedConditions.textToBePresentInElementLocated(By.cssSelector(cssSelector), text));
+        }
+    }
+    
+    /**
+     * Waits until exactly the given number of elements match the selector
+     * 
+     * @param cssSelector CSS selector
+     * @param count Expected number of elements
+     */
+    protected void waitUntilElementCount(String cssSelector, int count) {
+        if (waitMode == WaitMode.DOM_EVENTS) {
+            new DomEventWait(jsExecutor, defaultTimeout).untilElementCount(cssSelector, count);
+        } else {
+            wait.until(ExpectedConditions.numberOfElementsToBe(By.cssSelector(cssSelector), count));
+        }
+    }
+    
+    /**
+     * Checks if element becomes visible within a short timeout.
+     * Meant for assertions that are expected to fail fast, uses wait.negativeCheckMillis.
+     * 
+     * @param element WebElement to check
+     * @return true if element is displayed within the timeout, false otherwise
+     */
+    protected boolean isDisplayedWithin(WebElement element) {
+        return isDisplayedWithin(element, negativeCheckTimeout);
+    }
+    
+    /**
+     * Checks if element becomes visible within the given timeout
+     * 
+     * @param element WebElement to check
+     * @param timeout Maximum time to wait
+     * @return true if element is displayed within the timeout, false otherwise
+     */
+    protected boolean isDisplayedWithin(WebElement element, Duration timeout) {
+        try {
+            waitFor(ExpectedConditions.visibilityOf(element), timeout);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        }
+    }
+    
+    /**
+     * Checks if element is displayed right now, without waiting
      * 
      * @param element WebElement to check
      * @return true if element is displayed, false otherwise
@@ -90,9 +242,50 @@ public class BasePage {
     }
     
     /**
-     * Waits for page to load completely
+     * Waits for page to load completely.
+     * On Chromium browsers with wait.networkIdle.enabled this also waits until no network
+     * request has been pending for wait.networkIdle.quietMillis; other browsers only wait
+     * for document.readyState. A network that does not go idle in time is logged, not failed.
      */
     protected void waitForPageLoad() {
-        wait.until(driver -> jsExecutor.executeScript("return document.readyState").equals("complete"));
+        long start = System.nanoTime();
+        if (waitMode == WaitMode.DOM_EVENTS) {
+            new DomEventWait(jsExecutor, defaultTimeout).untilPageLoaded();
+        } else {
+            wait.until(driver -> jsExecutor.executeScript("return document.readyState").equals("complete"));
+        }
+        
+        ConfigManager config = ConfigManager.getInstance();
+        if (!config.getBooleanProperty("wait.networkIdle.enabled", false)) {
+            return;
+        }
+        NetworkIdleTracker tracker = NetworkIdleTracker.attach(driver);
+        if (tracker == null) {
+            return;
+        }
+        Duration remaining = defaultTimeout.minusNanos(System.nanoTime() - start);
+        String caller = getClass().getSimpleName() + ".networkIdle";
+        try {
+            tracker.awaitIdle(Duration.ofMillis(config.getIntProperty("wait.networkIdle.quietMillis", 500)),
+                    Duration.ofMillis(config.getIntProperty("wait.networkIdle.maxRequestAgeMillis", 15000)),
+                    remaining.isNegative() ? Duration.ZERO : remaining);
+        } catch (TimeoutException e) {
+            // Pages that keep polling never go quiet; the page itself has loaded, so only report it
+            long totalNanos = System.nanoTime() - start;
+            WaitStatistics.record(caller, totalNanos, true);
+            logger.warn("Network not idle {} ms after navigation ({} requests pending), continuing",
+                    totalNanos / 1_000_000, tracker.getInFlightCount());
+            return;
+        }
+        long totalNanos = System.nanoTime() - start;
+        WaitStatistics.record(caller, totalNanos, false);
+        logger.info("Network idle {} ms after navigation", totalNanos / 1_000_000);
+    }
+    
+    /**
+     * Alias of {@link #waitForPageLoad()} used by some page objects
+     */
+    protected void waitForPageToLoad() {
+        waitForPageLoad();
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
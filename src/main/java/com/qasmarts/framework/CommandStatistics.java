@@ -0,0 +1,169 @@
+package com.qasmarts.framework;
+
+import com.qasmarts.framework.utils.LatencyHistogram;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Process-wide record of WebDriver command latency, filled by {@link CommandTimingListener}.
+ * <p>
+ * Every command is counted twice: under its name (findElement, click, executeScript, ...) and
+ * under the page object method that issued it. Totals are kept for the whole run and, between
+ * {@link #startTest()} and {@link #finishTest()}, for the test running on the calling thread.
+ *
+ * @author Abhinav Gupta
+ */
+public class CommandStatistics {
+    private static final Timings suite = new Timings();
+    private static final ThreadLocal<Timings> currentTest = new ThreadLocal<>();
+
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private CommandStatistics() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Records one completed command
+     *
+     * @param command Command name, e.g. "findElement"
+     * @param caller Page method that issued it, e.g. "LoginPage.login"
+     * @param nanos Time the command took
+     */
+    public static void record(String command, String caller, long nanos) {
+        suite.record(command, caller, nanos);
+        Timings test = currentTest.get();
+        if (test != null) {
+            test.record(command, caller, nanos);
+        }
+    }
+
+    /**
+     * Starts collecting timings for the test running on the calling thread
+     */
+    public static void startTest() {
+        currentTest.set(new Timings());
+    }
+
+    /**
+     * Stops collecting timings for the test running on the calling thread
+     *
+     * @return Timings of the test, empty if {@link #startTest()} was not called
+     */
+    public static Timings finishTest() {
+        Timings test = currentTest.get();
+        currentTest.remove();
+        return test != null ? test : new Timings();
+    }
+
+    /**
+     * Gets the timings of every command recorded so far
+     *
+     * @return Suite-wide timings
+     */
+    public static Timings getSuiteTimings() {
+        return suite;
+    }
+
+    /**
+     * Clears the suite-wide timings
+     */
+    public static void reset() {
+        suite.commands.clear();
+        suite.pageMethods.clear();
+    }
+
+    /**
+     * Latency histograms per command and per page method
+     */
+    public static class Timings {
+        private final Map<String, LatencyHistogram> commands = new ConcurrentHashMap<>();
+        private final Map<String, LatencyHistogram> pageMethods = new ConcurrentHashMap<>();
+
+        void record(String command, String caller, long nanos) {
+            commands.computeIfAbsent(command, k -> new LatencyHistogram()).record(nanos, TimeUnit.NANOSECONDS);
+            pageMethods.computeIfAbsent(caller, k -> new LatencyHistogram()).record(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * Gets the latency of one command
+         *
+         * @param command Command name, e.g. "click"
+         * @return Histogram in microseconds, or null if the command was never issued
+         */
+        public LatencyHistogram getCommand(String command) {
+            return commands.get(command);
+        }
+
+        /**
+         * Gets the latency of the commands issued by one page method
+         *
+         * @param caller Page method, e.g. "LoginPage.login"
+         * @return Histogram in microseconds, or null if the method issued no command
+         */
+        public LatencyHistogram getPageMethod(String caller) {
+            return pageMethods.get(caller);
+        }
+
+        /**
+         * Gets the page methods that spent the most time in WebDriver commands
+         *
+         * @param limit Maximum number of entries to return
+         * @return Page method names, largest total first
+         */
+        public List<String> getTopPageMethods(int limit) {
+            List<String> sorted = new ArrayList<>(pageMethods.keySet());
+            sorted.sort(Comparator.comparingDouble((String name) -> totalMicros(pageMethods.get(name))).reversed());
+            return sorted.subList(0, Math.min(limit, sorted.size()));
+        }
+
+        /**
+         * Checks whether any command was recorded
+         *
+         * @return true if nothing was recorded
+         */
+        public boolean isEmpty() {
+            return commands.isEmpty();
+        }
+
+        /**
+         * Converts the timings to JSON, with count, total and percentiles in milliseconds per entry
+         *
+         * @return JSON object with "commands" and "pageMethods"
+         */
+        public JSONObject toJson() {
+            return new JSONObject()
+                    .put("commands", toJson(commands))
+                    .put("pageMethods", toJson(pageMethods));
+        }
+
+        private static JSONObject toJson(Map<String, LatencyHistogram> histograms) {
+            JSONObject json = new JSONObject();
+            new TreeMap<>(histograms).forEach((name, histogram) -> json.put(name, new JSONObject()
+                    .put("count", histogram.getCount())
+                    .put("totalMillis", millis(totalMicros(histogram)))
+                    .put("meanMillis", millis(histogram.getMeanMicros()))
+                    .put("p50Millis", millis(histogram.getValueAtPercentile(50)))
+                    .put("p95Millis", millis(histogram.getValueAtPercentile(95)))
+                    .put("p99Millis", millis(histogram.getValueAtPercentile(99)))
+                    .put("maxMillis", millis(histogram.getMaxMicros()))));
+            return json;
+        }
+
+        private static double totalMicros(LatencyHistogram histogram) {
+            return histogram.getMeanMicros() * histogram.getCount();
+        }
+
+        private static double millis(double micros) {
+            return Math.round(micros / 10.0) / 100.0;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.qasmarts.framework;
+
+import org.openqa.selenium.support.events.WebDriverListener;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * WebDriver listener that times every command sent through a decorated driver, including
+ * calls on the elements, alerts and windows it returns, and hands the timings to
+ * {@link CommandStatistics}. Attached by {@link WebDriverFactory} when driver.instrument.enabled is true.
+ *
+ * @author Abhinav Gupta
+ */
+public class CommandTimingListener implements WebDriverListener {
+    private static final Set<String> IGNORED_METHODS = new HashSet<>(Arrays.asList(
+            "toString", "hashCode", "equals", "getWrappedDriver", "getWrappedElement"));
+
+    private final ThreadLocal<Deque<Long>> startTimes = ThreadLocal.withInitial(ArrayDeque::new);
+
+    @Override
+    public void beforeAnyCall(Object target, Method method, Object[] args) {
+        startTimes.get().push(System.nanoTime());
+    }
+
+    @Override
+    public void afterAnyCall(Object target, Method method, Object[] args, Object result) {
+        finish(method);
+    }
+
+    @Override
+    public void onError(Object target, Method method, Object[] args, InvocationTargetException e) {
+        finish(method);
+    }
+
+    private void finish(Method method) {
+        Long start = startTimes.get().poll();
+        if (start == null || IGNORED_METHODS.contains(method.getName())) {
+            return;
+        }
+        CommandStatistics.record(method.getName(), AdaptiveWait.findCaller(), System.nanoTime() - start);
+    }
+}
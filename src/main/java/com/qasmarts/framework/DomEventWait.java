@@ -0,0 +1,164 @@
+package com.qasmarts.framework;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.TimeoutException;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Waits for DOM conditions inside the browser instead of polling over WebDriver.
+ * A small helper is injected into the page once; each wait is then a single
+ * executeAsyncScript call that a MutationObserver resolves as soon as the condition holds.
+ *
+ * @author Abhinav Gupta
+ */
+public class DomEventWait {
+    private static final String HELPER = "__qasmartsWait";
+
+    /** Longest single async call, kept below the driver's script timeout */
+    private static final long MAX_CALL_MILLIS = 20_000;
+
+    private static final String INSTALL_SCRIPT =
+            "if (window." + HELPER + ") { return; }"
+            + "var isVisible = function(el) {"
+            + "  if (!el.isConnected) { return false; }"
+            + "  var style = window.getComputedStyle(el);"
+            + "  if (style.visibility === 'hidden' || style.display === 'none') { return false; }"
+            + "  return el.offsetWidth > 0 || el.offsetHeight > 0 || el.getClientRects().length > 0;"
+            + "};"
+            + "var check = function(c) {"
+            + "  var el;"
+            + "  switch (c.type) {"
+            + "    case 'visible': el = document.querySelector(c.selector); return !!el && isVisible(el);"
+            + "    case 'invisible': el = document.querySelector(c.selector); return !el || !isVisible(el);"
+            + "    case 'text': el = document.querySelector(c.selector);"
+            + "      return !!el && el.textContent.indexOf(c.text) >= 0;"
+            + "    case 'readyState': return document.readyState === 'complete';"
+            + "    case 'count': return document.querySelectorAll(c.selector).length === c.count;"
+            + "  }"
+            + "  return false;"
+            + "};"
+            + "window." + HELPER + " = function(c, timeoutMs, done) {"
+            + "  if (check(c)) { done(true); return; }"
+            + "  var finished = false, observer, timer, sweep;"
+            + "  var finish = function(result) {"
+            + "    if (finished) { return; }"
+            + "    finished = true;"
+            + "    observer.disconnect(); clearTimeout(timer); clearInterval(sweep);"
+            + "    document.removeEventListener('readystatechange', onChange);"
+            + "    done(result);"
+            + "  };"
+            + "  var onChange = function() { if (check(c)) { finish(true); } };"
+            + "  observer = new MutationObserver(onChange);"
+            + "  observer.observe(document.documentElement || document,"
+            + "      {childList: true, subtree: true, attributes: true, characterData: true});"
+            + "  document.addEventListener('readystatechange', onChange);"
+            // Style changes made by CSS alone do not mutate the DOM, so re-check now and then in the page
+            + "  sweep = setInterval(onChange, 250);"
+            + "  timer = setTimeout(function() { finish(check(c)); }, timeoutMs);"
+            + "};";
+
+    private static final String WAIT_SCRIPT =
+            "var done = arguments[arguments.length - 1];"
+            + "if (!window." + HELPER + ") { done('not-installed'); return; }"
+            + "window." + HELPER + "(arguments[0], arguments[1], done);";
+
+    private final JavascriptExecutor jsExecutor;
+    private final Duration timeout;
+
+    /**
+     * Constructor
+     *
+     * @param jsExecutor Driver to run the scripts on
+     * @param timeout Maximum time to wait
+     */
+    public DomEventWait(JavascriptExecutor jsExecutor, Duration timeout) {
+        this.jsExecutor = jsExecutor;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Waits until the first element matching the selector is visible
+     *
+     * @param cssSelector CSS selector
+     */
+    public void untilVisible(String cssSelector) {
+        until(condition("visible", cssSelector), "visibility of " + cssSelector);
+    }
+
+    /**
+     * Waits until no element matching the selector is visible
+     *
+     * @param cssSelector CSS selector
+     */
+    public void untilInvisible(String cssSelector) {
+        until(condition("invisible", cssSelector), "invisibility of " + cssSelector);
+    }
+
+    /**
+     * Waits until the first element matching the selector contains the text
+     *
+     * @param cssSelector CSS selector
+     * @param text Expected text
+     */
+    public void untilTextPresent(String cssSelector, String text) {
+        Map<String, Object> condition = condition("text", cssSelector);
+        condition.put("text", text);
+        until(condition, "text '" + text + "' in " + cssSelector);
+    }
+
+    /**
+     * Waits until exactly the given number of elements match the selector
+     *
+     * @param cssSelector CSS selector
+     * @param count Expected number of elements
+     */
+    public void untilElementCount(String cssSelector, int count) {
+        Map<String, Object> condition = condition("count", cssSelector);
+        condition.put("count", count);
+        until(condition, count + " elements matching " + cssSelector);
+    }
+
+    /**
+     * Waits until document.readyState is complete
+     */
+    public void untilPageLoaded() {
+        until(condition("readyState", null), "document.readyState to be complete");
+    }
+
+    private Map<String, Object> condition(String type, String cssSelector) {
+        Map<String, Object> condition = new HashMap<>();
+        condition.put("type", type);
+        condition.put("selector", cssSelector);
+        return condition;
+    }
+
+    private void until(Map<String, Object> condition, String description) {
+        String caller = AdaptiveWait.findCaller();
+        long start = System.nanoTime();
+        long deadline = start + timeout.toNanos();
+
+        while (true) {
+            long remainingMillis = Math.max(0, (deadline - System.nanoTime()) / 1_000_000);
+            Object result = jsExecutor.executeAsyncScript(WAIT_SCRIPT, condition,
+                    Math.min(remainingMillis, MAX_CALL_MILLIS));
+            if ("not-installed".equals(result)) {
+                // First wait on this page, or the page navigated since the last one
+                jsExecutor.executeScript(INSTALL_SCRIPT);
+                continue;
+            }
+            if (Boolean.TRUE.equals(result)) {
+                WaitStatistics.record(caller, System.nanoTime() - start, false);
+                return;
+            }
+            if (System.nanoTime() >= deadline) {
+                WaitStatistics.record(caller, System.nanoTime() - start, true);
+                throw new TimeoutException(String.format(
+                        "Expected condition failed: waiting for %s (tried for %d ms with DOM events)",
+                        description, timeout.toMillis()));
+            }
+        }
+    }
+}
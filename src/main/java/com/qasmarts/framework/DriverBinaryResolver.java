@@ -0,0 +1,253 @@
+package com.qasmarts.framework;
+
+import com.qasmarts.framework.config.ConfigManager;
+import io.github.bonigarcia.wdm.WebDriverManager;
+import io.github.bonigarcia.wdm.config.Config;
+import io.github.bonigarcia.wdm.versions.VersionDetector;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves driver binaries once per JVM and remembers them in a local manifest,
+ * so later runs can start without WebDriverManager lookups or network access.
+ * <p>
+ * Resolution order: in-memory cache, manifest entry for the installed (or else last seen) browser version,
+ * WebDriverManager (skipped when webdriver.offline=true), configured webdriver.&lt;browser&gt;.driverPath.
+ *
+ * @author Abhinav Gupta
+ */
+public class DriverBinaryResolver {
+    private static final Logger logger = LogManager.getLogger(DriverBinaryResolver.class);
+    private static final Map<String, String> resolvedPaths = new ConcurrentHashMap<>();
+    private static final Map<String, Long> resolveNanos = new ConcurrentHashMap<>();
+    private static Properties manifest;
+
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private DriverBinaryResolver() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Makes sure the driver binary for the browser is resolved and registered with Selenium.
+     * Only the first call per browser does any work.
+     *
+     * @param browser Browser name (chrome, firefox, edge)
+     * @return Path to the driver binary
+     * @throws IllegalStateException if the binary cannot be found by any means
+     */
+    public static String resolve(String browser) {
+        String key = browser.toLowerCase();
+        String cached = resolvedPaths.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        // Looked up outside the map, a WebDriverManager download must not block other browsers' entries
+        long start = System.nanoTime();
+        String path = lookup(key);
+        String existing = resolvedPaths.putIfAbsent(key, path);
+        if (existing != null) {
+            return existing;
+        }
+        System.setProperty(getDriverSystemProperty(key), path);
+        long elapsed = System.nanoTime() - start;
+        resolveNanos.put(key, elapsed);
+        logger.info("Resolved {} driver to {} in {} ms", key, path, elapsed / 1_000_000);
+        return path;
+    }
+
+    /**
+     * Records the browser version a session actually reported, keying the manifest entry by it
+     *
+     * @param browser Browser name
+     * @param browserVersion Version reported in the session capabilities
+     */
+    public static void recordBrowserVersion(String browser, String browserVersion) {
+        String key = browser.toLowerCase();
+        String driverPath = resolvedPaths.get(key);
+        if (driverPath == null || browserVersion == null || browserVersion.isEmpty()) {
+            return;
+        }
+        String majorVersion = browserVersion.split("\\.")[0];
+        synchronized (DriverBinaryResolver.class) {
+            Properties props = getManifest();
+            if (majorVersion.equals(props.getProperty(key + ".current"))
+                    && driverPath.equals(props.getProperty(key + "." + majorVersion + ".driverPath"))) {
+                return;
+            }
+            props.setProperty(key + ".current", majorVersion);
+            props.setProperty(key + "." + majorVersion + ".driverPath", driverPath);
+            saveManifest();
+        }
+    }
+
+    /**
+     * Forgets the resolved binary for the browser, e.g. after the browser was upgraded
+     * and the cached driver no longer starts it
+     *
+     * @param browser Browser name
+     */
+    public static void invalidate(String browser) {
+        String key = browser.toLowerCase();
+        resolvedPaths.remove(key);
+        synchronized (DriverBinaryResolver.class) {
+            Properties props = getManifest();
+            String current = props.getProperty(key + ".current");
+            if (current != null) {
+                props.remove(key + "." + current + ".driverPath");
+                props.remove(key + ".current");
+                saveManifest();
+            }
+        }
+        logger.info("Invalidated cached {} driver", key);
+    }
+
+    /**
+     * Gets how long resolving the browser's driver took in this JVM
+     *
+     * @param browser Browser name
+     * @return Resolution time in milliseconds, or -1 if not resolved yet
+     */
+    public static long getResolveMillis(String browser) {
+        Long nanos = resolveNanos.get(browser.toLowerCase());
+        return nanos == null ? -1 : nanos / 1_000_000;
+    }
+
+    private static String lookup(String browser) {
+        String fromManifest = getManifestPath(browser);
+        if (fromManifest != null) {
+            logger.debug("Using {} driver from manifest", browser);
+            return fromManifest;
+        }
+
+        ConfigManager config = ConfigManager.getInstance();
+        if (!config.getBooleanProperty("webdriver.offline", false)) {
+            try {
+                WebDriverManager manager = getWebDriverManager(browser);
+                manager.setup();
+                return manager.getDownloadedDriverPath();
+            } catch (RuntimeException e) {
+                logger.warn("WebDriverManager could not resolve {} driver: {}", browser, e.getMessage());
+            }
+        }
+
+        String configuredPath = config.getProperty("webdriver." + browser + ".driverPath");
+        if (configuredPath != null && Files.isExecutable(Paths.get(configuredPath))) {
+            logger.info("Falling back to configured {} driver path", browser);
+            return configuredPath;
+        }
+        throw new IllegalStateException("Could not resolve a driver binary for " + browser
+                + "; set webdriver." + browser + ".driverPath in config.properties");
+    }
+
+    private static synchronized String getManifestPath(String browser) {
+        Properties props = getManifest();
+        String current = props.getProperty(browser + ".current");
+        if (current == null) {
+            return null;
+        }
+        String installed = detectBrowserMajorVersion(browser);
+        if (installed != null && !installed.equals(current)) {
+            logger.info("Installed {} is version {}, manifest was recorded for {}", browser, installed, current);
+            current = installed;
+        }
+        String path = props.getProperty(browser + "." + current + ".driverPath");
+        return path != null && Files.isExecutable(Paths.get(path)) ? path : null;
+    }
+
+    /**
+     * Asks the installed browser for its version, without going online for the detection commands
+     *
+     * @param browser Browser name
+     * @return Major version, or null if it could not be detected
+     */
+    private static String detectBrowserMajorVersion(String browser) {
+        try {
+            Config wdmConfig = new Config().setCommandsPropertiesOnlineFirst(false);
+            return new VersionDetector(wdmConfig, null).getBrowserVersionFromTheShell(browser)
+                    .map(VersionDetector::getMajorVersion)
+                    .orElse(null);
+        } catch (RuntimeException e) {
+            logger.debug("Could not detect installed {} version: {}", browser, e.getMessage());
+            return null;
+        }
+    }
+
+    private static WebDriverManager getWebDriverManager(String browser) {
+        switch (browser) {
+            case "chrome":
+                return WebDriverManager.chromedriver();
+            case "firefox":
+                return WebDriverManager.firefoxdriver();
+            case "edge":
+                return WebDriverManager.edgedriver();
+            default:
+                throw new IllegalArgumentException("Browser " + browser + " is not supported");
+        }
+    }
+
+    private static String getDriverSystemProperty(String browser) {
+        switch (browser) {
+            case "chrome":
+                return "webdriver.chrome.driver";
+            case "firefox":
+                return "webdriver.gecko.driver";
+            case "edge":
+                return "webdriver.edge.driver";
+            default:
+                throw new IllegalArgumentException("Browser " + browser + " is not supported");
+        }
+    }
+
+    private static Path getManifestFile() {
+        String configured = ConfigManager.getInstance().getProperty("webdriver.manifestPath");
+        if (configured != null && !configured.isEmpty()) {
+            return Paths.get(configured);
+        }
+        return Paths.get(System.getProperty("user.home"), ".cache", "qasmarts", "driver-manifest.properties");
+    }
+
+    private static Properties getManifest() {
+        if (manifest == null) {
+            manifest = new Properties();
+            Path file = getManifestFile();
+            if (Files.exists(file)) {
+                try (InputStream in = Files.newInputStream(file)) {
+                    manifest.load(in);
+                } catch (IOException e) {
+                    logger.warn("Failed to read driver manifest {}: {}", file, e.getMessage());
+                }
+            }
+        }
+        return manifest;
+    }
+
+    private static void saveManifest() {
+        Path file = getManifestFile();
+        try {
+            Path dir = file.toAbsolutePath().getParent();
+            Files.createDirectories(dir);
+            // Write to a temp file first so a concurrent JVM never reads a half-written manifest
+            Path tmp = Files.createTempFile(dir, "driver-manifest", ".tmp");
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                manifest.store(out, "Resolved WebDriver binaries keyed by browser major version");
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("Failed to write driver manifest {}: {}", file, e.getMessage());
+        }
+    }
+}
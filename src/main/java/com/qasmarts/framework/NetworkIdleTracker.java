@@ -0,0 +1,166 @@
+package com.qasmarts.framework;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.chromium.ChromiumDriver;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.Event;
+import org.openqa.selenium.json.JsonInput;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks in-flight network requests of a Chromium browser over the DevTools Protocol,
+ * so a page can be considered loaded once the network has been quiet for a while
+ * rather than as soon as document.readyState is complete.
+ * Uses raw CDP method names so it does not depend on a specific DevTools version.
+ *
+ * @author Abhinav Gupta
+ */
+public class NetworkIdleTracker {
+    private static final Logger logger = LogManager.getLogger(NetworkIdleTracker.class);
+    private static final Map<WebDriver, NetworkIdleTracker> trackers = Collections.synchronizedMap(new WeakHashMap<>());
+    private static final long CHECK_INTERVAL_MILLIS = 25;
+
+    private final Map<String, Long> inFlight = new ConcurrentHashMap<>();
+    private volatile long lastActivityNanos = System.nanoTime();
+
+    private NetworkIdleTracker() {
+    }
+
+    /**
+     * Starts tracking network activity for the driver.
+     * Does nothing for browsers without DevTools support.
+     *
+     * @param webDriver WebDriver instance, possibly decorated
+     * @return Tracker, or null if the browser does not support CDP
+     */
+    public static NetworkIdleTracker attach(WebDriver webDriver) {
+        WebDriver driver = WebDriverFactory.unwrap(webDriver);
+        if (!(driver instanceof ChromiumDriver)) {
+            return null;
+        }
+        synchronized (trackers) {
+            NetworkIdleTracker existing = trackers.get(driver);
+            if (existing != null) {
+                return existing;
+            }
+            try {
+                NetworkIdleTracker tracker = new NetworkIdleTracker();
+                DevTools devTools = ((ChromiumDriver) driver).getDevTools();
+                devTools.createSessionIfThereIsNotOne();
+                devTools.addListener(new Event<>("Network.requestWillBeSent", NetworkIdleTracker::readRequestId),
+                        tracker::requestStarted);
+                devTools.addListener(new Event<>("Network.loadingFinished", NetworkIdleTracker::readRequestId),
+                        tracker::requestEnded);
+                devTools.addListener(new Event<>("Network.loadingFailed", NetworkIdleTracker::readRequestId),
+                        tracker::requestEnded);
+                devTools.send(new Command<>("Network.enable", Collections.emptyMap()));
+                trackers.put(driver, tracker);
+                return tracker;
+            } catch (WebDriverException e) {
+                logger.warn("Network idle tracking unavailable: {}", e.getMessage());
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Gets the tracker already attached to the driver
+     *
+     * @param driver WebDriver instance
+     * @return Tracker, or null if none is attached
+     */
+    public static NetworkIdleTracker get(WebDriver driver) {
+        return trackers.get(WebDriverFactory.unwrap(driver));
+    }
+
+    /**
+     * Stops tracking the driver, e.g. before it is quit
+     *
+     * @param driver WebDriver instance
+     */
+    public static void detach(WebDriver driver) {
+        trackers.remove(WebDriverFactory.unwrap(driver));
+    }
+
+    /**
+     * Blocks until no request has been pending for the quiet window.
+     * Requests older than maxRequestAge (long polling, streaming) are ignored.
+     * Only in-JVM state is checked, no driver commands are sent.
+     *
+     * @param quietWindow How long the network must stay idle
+     * @param maxRequestAge Age after which a pending request no longer counts
+     * @param timeout Maximum time to wait
+     * @return Time it took for the network to become idle, in milliseconds
+     * @throws TimeoutException if the network does not become idle in time
+     */
+    public long awaitIdle(Duration quietWindow, Duration maxRequestAge, Duration timeout) {
+        long start = System.nanoTime();
+        long deadline = start + timeout.toNanos();
+        while (true) {
+            long now = System.nanoTime();
+            long oldestCounted = now - maxRequestAge.toNanos();
+            inFlight.values().removeIf(startedAt -> startedAt < oldestCounted);
+            if (inFlight.isEmpty() && now - lastActivityNanos >= quietWindow.toNanos()) {
+                return (now - start) / 1_000_000;
+            }
+            if (now >= deadline) {
+                throw new TimeoutException(String.format(
+                        "Network did not become idle within %d ms (%d requests pending)",
+                        timeout.toMillis(), inFlight.size()));
+            }
+            try {
+                Thread.sleep(CHECK_INTERVAL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new WebDriverException(e);
+            }
+        }
+    }
+
+    /**
+     * Gets the number of requests currently pending
+     *
+     * @return Pending request count
+     */
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    private void requestStarted(String requestId) {
+        if (requestId != null) {
+            lastActivityNanos = System.nanoTime();
+            inFlight.put(requestId, lastActivityNanos);
+        }
+    }
+
+    private void requestEnded(String requestId) {
+        if (requestId != null) {
+            lastActivityNanos = System.nanoTime();
+            inFlight.remove(requestId);
+        }
+    }
+
+    private static String readRequestId(JsonInput input) {
+        String requestId = null;
+        input.beginObject();
+        while (input.hasNext()) {
+            if ("requestId".equals(input.nextName())) {
+                requestId = input.nextString();
+            } else {
+                input.skipValue();
+            }
+        }
+        input.endObject();
+        return requestId;
+    }
+}
@@ -0,0 +1,62 @@
+package com.qasmarts.framework;
+
+/**
+ * Records where the boot time of a single browser session went
+ *
+ * @author Abhinav Gupta
+ */
+public class SessionStartupTimeline {
+    private final String browser;
+    private final String threadName;
+    private final long resolveNanos;
+    private final long spawnNanos;
+    private final long firstCommandNanos;
+
+    /**
+     * Constructor
+     *
+     * @param browser Browser name
+     * @param threadName Thread that started the session
+     * @param resolveNanos Time spent resolving the driver binary
+     * @param spawnNanos Time spent launching the driver and browser
+     * @param firstCommandNanos Time until the session answered its first commands
+     */
+    public SessionStartupTimeline(String browser, String threadName, long resolveNanos,
+                                  long spawnNanos, long firstCommandNanos) {
+        this.browser = browser;
+        this.threadName = threadName;
+        this.resolveNanos = resolveNanos;
+        this.spawnNanos = spawnNanos;
+        this.firstCommandNanos = firstCommandNanos;
+    }
+
+    public String getBrowser() {
+        return browser;
+    }
+
+    public String getThreadName() {
+        return threadName;
+    }
+
+    public long getResolveMillis() {
+        return resolveNanos / 1_000_000;
+    }
+
+    public long getSpawnMillis() {
+        return spawnNanos / 1_000_000;
+    }
+
+    public long getFirstCommandMillis() {
+        return firstCommandNanos / 1_000_000;
+    }
+
+    public long getTotalMillis() {
+        return (resolveNanos + spawnNanos + firstCommandNanos) / 1_000_000;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s [%s] resolve=%dms, spawn=%dms, firstCommandReady=%dms, total=%dms",
+                browser, threadName, getResolveMillis(), getSpawnMillis(), getFirstCommandMillis(), getTotalMillis());
+    }
+}
@@ -0,0 +1,102 @@
+package com.qasmarts.framework;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process-wide record of explicit wait time, keyed by the page method that waited
+ *
+ * @author Abhinav Gupta
+ */
+public class WaitStatistics {
+    private static final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private WaitStatistics() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Records one completed wait
+     *
+     * @param caller Page method that waited, e.g. "LoginPage.login"
+     * @param nanos Time spent waiting
+     * @param timedOut true if the condition never became true
+     */
+    public static void record(String caller, long nanos, boolean timedOut) {
+        Entry entry = entries.computeIfAbsent(caller, Entry::new);
+        entry.count.increment();
+        entry.totalNanos.add(nanos);
+        entry.maxNanos.accumulateAndGet(nanos, Math::max);
+        if (timedOut) {
+            entry.timeouts.increment();
+        }
+    }
+
+    /**
+     * Gets the callers that spent the most total time waiting
+     *
+     * @param limit Maximum number of entries to return
+     * @return Entries ordered by total wait time, largest first
+     */
+    public static List<Entry> getTopByTotalTime(int limit) {
+        List<Entry> sorted = new ArrayList<>(entries.values());
+        sorted.sort(Comparator.comparingLong(Entry::getTotalMillis).reversed());
+        return sorted.subList(0, Math.min(limit, sorted.size()));
+    }
+
+    /**
+     * Clears all recorded waits
+     */
+    public static void reset() {
+        entries.clear();
+    }
+
+    /**
+     * Wait totals for a single page method
+     */
+    public static class Entry {
+        private final String caller;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAdder timeouts = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        Entry(String caller) {
+            this.caller = caller;
+        }
+
+        public String getCaller() {
+            return caller;
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public long getTimeouts() {
+            return timeouts.sum();
+        }
+
+        public long getTotalMillis() {
+            return totalNanos.sum() / 1_000_000;
+        }
+
+        public long getMaxMillis() {
+            return maxNanos.get() / 1_000_000;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s waits=%d, timeouts=%d, total=%dms, max=%dms",
+                    caller, getCount(), getTimeouts(), getTotalMillis(), getMaxMillis());
+        }
+    }
+}
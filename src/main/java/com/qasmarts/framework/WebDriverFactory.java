@@ -1,16 +1,32 @@
 package com.qasmarts.framework;
 
-import io.github.bonigarcia.wdm.WebDriverManager;
+import com.qasmarts.framework.config.ConfigManager;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.HasCapabilities;
+import org.openqa.selenium.PageLoadStrategy;
+import org.openqa.selenium.SessionNotCreatedException;
 import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WrapsDriver;
 import org.openqa.selenium.chrome.ChromeDriver;
 import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.chromium.ChromiumDriver;
+import org.openqa.selenium.chromium.ChromiumOptions;
 import org.openqa.selenium.edge.EdgeDriver;
 import org.openqa.selenium.edge.EdgeOptions;
 import org.openqa.selenium.firefox.FirefoxDriver;
 import org.openqa.selenium.firefox.FirefoxOptions;
 import org.openqa.selenium.safari.SafariDriver;
+import org.openqa.selenium.safari.SafariOptions;
+import org.openqa.selenium.support.events.EventFiringDecorator;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
  * Factory class to create and manage WebDriver instances
@@ -18,61 +34,321 @@ import java.time.Duration;
  * @author Abhinav Gupta
  */
 public class WebDriverFactory {
+    private static final Logger logger = LogManager.getLogger(WebDriverFactory.class);
+    private static final List<String> BLOCKED_FONT_URLS = Arrays.asList("*.woff", "*.woff2", "*.ttf", "*.otf");
+    private static final Queue<SessionStartupTimeline> startupTimelines = new ConcurrentLinkedQueue<>();
+    private static WebDriverPool pool;
     
     /**
-     * Creates a WebDriver instance based on the browser name
+     * Creates a WebDriver instance based on the browser name, using the default profile
      * 
      * @param browser Browser name (chrome, firefox, edge, safari)
      * @return WebDriver instance
      * @throws IllegalArgumentException if browser is not supported
      */
     public static WebDriver createDriver(String browser) {
+        return createDriver(browser, null);
+    }
+    
+    /**
+     * Creates a WebDriver instance based on the browser name and a named profile.
+     * Profile settings are read from config.properties as profile.&lt;name&gt;.&lt;key&gt;,
+     * falling back to the plain &lt;key&gt; (e.g. profile.lean.browser.headless, then browser.headless).
+     * 
+     * @param browser Browser name (chrome, firefox, edge, safari)
+     * @param profile Profile name, or null for the configured default
+     * @return WebDriver instance
+     * @throws IllegalArgumentException if browser is not supported
+     */
+    public static WebDriver createDriver(String browser, String profile) {
+        String profileName = resolveProfile(profile);
+        long startNanos = System.nanoTime();
+        resolveDriverBinary(browser);
+        long resolvedNanos = System.nanoTime();
+        
+        WebDriver driver;
+        try {
+            driver = startBrowser(browser, profileName);
+        } catch (SessionNotCreatedException e) {
+            // A cached driver binary may no longer match an upgraded browser, resolve it again once
+            logger.warn("Session not created for {}, re-resolving driver binary: {}", browser, e.getMessage());
+            DriverBinaryResolver.invalidate(browser);
+            resolveDriverBinary(browser);
+            driver = startBrowser(browser, profileName);
+        }
+        long spawnedNanos = System.nanoTime();
+        
+        // Common settings for all browsers
+        driver.manage().timeouts().implicitlyWait(
+                Duration.ofSeconds(getProfileInt(profileName, "browser.implicitWait", 0)));
+        driver.manage().timeouts().pageLoadTimeout(
+                Duration.ofSeconds(getProfileInt(profileName, "browser.pageLoadTimeout", 30)));
+        if (!isHeadless(profileName)) {
+            driver.manage().window().maximize();
+        }
+        if (driver instanceof ChromiumDriver && getProfileBoolean(profileName, "browser.blockFonts", false)) {
+            // Chromium has no font preference, so web fonts are blocked at the network layer
+            ChromiumDriver chromiumDriver = (ChromiumDriver) driver;
+            chromiumDriver.executeCdpCommand("Network.enable", Collections.emptyMap());
+            chromiumDriver.executeCdpCommand("Network.setBlockedURLs",
+                    Collections.singletonMap("urls", BLOCKED_FONT_URLS));
+        }
+        if (ConfigManager.getInstance().getBooleanProperty("wait.networkIdle.enabled", false)) {
+            // Attach before the first navigation so no request is missed
+            NetworkIdleTracker.attach(driver);
+        }
+        long readyNanos = System.nanoTime();
+        
+        if (driver instanceof HasCapabilities) {
+            DriverBinaryResolver.recordBrowserVersion(browser,
+                    ((HasCapabilities) driver).getCapabilities().getBrowserVersion());
+        }
+        
+        SessionStartupTimeline timeline = new SessionStartupTimeline(browser.toLowerCase() + ":" + profileName,
+                Thread.currentThread().getName(), resolvedNanos - startNanos,
+                spawnedNanos - resolvedNanos, readyNanos - spawnedNanos);
+        startupTimelines.add(timeline);
+        logger.info("Started session: {}", timeline);
+        
+        if (ConfigManager.getInstance().getBooleanProperty("driver.instrument.enabled", false)) {
+            // Decorated last, so the setup above still sees the concrete driver class
+            driver = new EventFiringDecorator<>(new CommandTimingListener()).decorate(driver);
+        }
+        return driver;
+    }
+    
+    /**
+     * Launches the browser with its driver
+     * 
+     * @param browser Browser name (chrome, firefox, edge, safari)
+     * @param profile Resolved profile name
+     * @return WebDriver instance
+     * @throws IllegalArgumentException if browser is not supported
+     */
+    private static WebDriver startBrowser(String browser, String profile) {
         WebDriver driver;
         
         switch (browser.toLowerCase()) {
             case "chrome":
-                WebDriverManager.chromedriver().setup();
                 ChromeOptions chromeOptions = new ChromeOptions();
-                // Add Chrome-specific options
-                chromeOptions.addArguments("--start-maximized");
-                chromeOptions.addArguments("--disable-notifications");
-                chromeOptions.addArguments("--remote-allow-origins=*");
+                configureChromium(chromeOptions, "chrome", profile);
                 driver = new ChromeDriver(chromeOptions);
                 break;
                 
             case "firefox":
-                WebDriverManager.firefoxdriver().setup();
                 FirefoxOptions firefoxOptions = new FirefoxOptions();
-                // Add Firefox-specific options
-                firefoxOptions.addArguments("--start-maximized");
+                firefoxOptions.addArguments(getBrowserArguments("firefox", profile));
+                firefoxOptions.setPageLoadStrategy(getPageLoadStrategy(profile));
+                if (isHeadless(profile)) {
+                    firefoxOptions.addArguments("-headless", "--width=1920", "--height=1080");
+                }
+                if (getProfileBoolean(profile, "browser.blockImages", false)) {
+                    firefoxOptions.addPreference("permissions.default.image", 2);
+                }
+                if (getProfileBoolean(profile, "browser.blockFonts", false)) {
+                    firefoxOptions.addPreference("gfx.downloadable_fonts.enabled", false);
+                    firefoxOptions.addPreference("browser.display.use_document_fonts", 0);
+                }
                 driver = new FirefoxDriver(firefoxOptions);
                 break;
                 
             case "edge":
-                WebDriverManager.edgedriver().setup();
                 EdgeOptions edgeOptions = new EdgeOptions();
-                // Add Edge-specific options
-                edgeOptions.addArguments("--start-maximized");
+                configureChromium(edgeOptions, "edge", profile);
                 driver = new EdgeDriver(edgeOptions);
                 break;
                 
             case "safari":
-                // Safari doesn't need WebDriverManager
-                driver = new SafariDriver();
+                SafariOptions safariOptions = new SafariOptions();
+                safariOptions.setPageLoadStrategy(getPageLoadStrategy(profile));
+                driver = new SafariDriver(safariOptions);
                 break;
                 
             default:
                 throw new IllegalArgumentException("Browser " + browser + " is not supported");
         }
-        
-        // Common settings for all browsers
-        driver.manage().timeouts().implicitlyWait(Duration.ofSeconds(10));
-        driver.manage().timeouts().pageLoadTimeout(Duration.ofSeconds(30));
-        driver.manage().window().maximize();
-        
         return driver;
     }
     
+    /**
+     * Applies profile settings shared by Chrome and Edge
+     * 
+     * @param options Chrome or Edge options
+     * @param browser Browser name used to look up webdriver.&lt;browser&gt;.options
+     * @param profile Resolved profile name
+     */
+    private static void configureChromium(ChromiumOptions<?> options, String browser, String profile) {
+        options.addArguments(getBrowserArguments(browser, profile));
+        options.setPageLoadStrategy(getPageLoadStrategy(profile));
+        if (isHeadless(profile)) {
+            options.addArguments("--headless=new", "--window-size=1920,1080");
+        }
+        if (getProfileBoolean(profile, "browser.blockImages", false)) {
+            options.setExperimentalOption("prefs",
+                    Collections.singletonMap("profile.managed_default_content_settings.images", 2));
+        }
+    }
+    
+    /**
+     * Gets the profile name to use, falling back to browser.profile from config.properties
+     * 
+     * @param profile Requested profile name, may be null or empty
+     * @return Profile name
+     */
+    public static String resolveProfile(String profile) {
+        if (profile == null || profile.trim().isEmpty()) {
+            return ConfigManager.getInstance().getProperty("browser.profile", "default");
+        }
+        return profile.trim();
+    }
+    
+    private static List<String> getBrowserArguments(String browser, String profile) {
+        List<String> arguments = new ArrayList<>();
+        String value = getProfileProperty(profile, "webdriver." + browser + ".options", "");
+        for (String argument : value.split(",")) {
+            if (!argument.trim().isEmpty()) {
+                arguments.add(argument.trim());
+            }
+        }
+        return arguments;
+    }
+    
+    private static PageLoadStrategy getPageLoadStrategy(String profile) {
+        String value = getProfileProperty(profile, "browser.pageLoadStrategy", "normal");
+        return PageLoadStrategy.valueOf(value.trim().toUpperCase());
+    }
+    
+    private static boolean isHeadless(String profile) {
+        return getProfileBoolean(profile, "browser.headless", false);
+    }
+    
+    private static String getProfileProperty(String profile, String key, String defaultValue) {
+        ConfigManager config = ConfigManager.getInstance();
+        String value = config.getProperty("profile." + profile + "." + key);
+        return value != null ? value : config.getProperty(key, defaultValue);
+    }
+    
+    private static boolean getProfileBoolean(String profile, String key, boolean defaultValue) {
+        return Boolean.parseBoolean(getProfileProperty(profile, key, String.valueOf(defaultValue)).trim());
+    }
+    
+    private static int getProfileInt(String profile, String key, int defaultValue) {
+        String value = getProfileProperty(profile, key, String.valueOf(defaultValue));
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            logger.warn("Property {} is not a valid integer: {}", key, value);
+            return defaultValue;
+        }
+    }
+    
+    /**
+     * Makes sure the driver binary for the browser is available
+     * 
+     * @param browser Browser name (chrome, firefox, edge, safari)
+     * @throws IllegalArgumentException if browser is not supported
+     */
+    private static void resolveDriverBinary(String browser) {
+        // Safari ships its own driver
+        if (!"safari".equalsIgnoreCase(browser)) {
+            DriverBinaryResolver.resolve(browser);
+        }
+    }
+    
+    /**
+     * Gets the browser driver behind a decorated driver, e.g. to check for DevTools support
+     * 
+     * @param driver WebDriver instance, decorated or not
+     * @return Undecorated WebDriver instance
+     */
+    public static WebDriver unwrap(WebDriver driver) {
+        WebDriver unwrapped = driver;
+        while (unwrapped instanceof WrapsDriver) {
+            unwrapped = ((WrapsDriver) unwrapped).getWrappedDriver();
+        }
+        return unwrapped;
+    }
+    
+    /**
+     * Gets the startup timeline of every session created so far
+     * 
+     * @return List of startup timelines in creation order
+     */
+    public static List<SessionStartupTimeline> getStartupTimelines() {
+        return new ArrayList<>(startupTimelines);
+    }
+    
+    /**
+     * Gets a WebDriver instance for a test.
+     * Returns a warm session from the pool when driver.pool.enabled is true,
+     * otherwise starts a new browser.
+     * 
+     * @param browser Browser name (chrome, firefox, edge, safari)
+     * @return WebDriver instance
+     */
+    public static WebDriver acquireDriver(String browser) {
+        return acquireDriver(browser, null);
+    }
+    
+    /**
+     * Gets a WebDriver instance for a test using a named browser profile
+     * 
+     * @param browser Browser name (chrome, firefox, edge, safari)
+     * @param profile Profile name, or null for the configured default
+     * @return WebDriver instance
+     */
+    public static WebDriver acquireDriver(String browser, String profile) {
+        if (isPoolEnabled()) {
+            return getPool().acquire(browser, profile);
+        }
+        return createDriver(browser, profile);
+    }
+    
+    /**
+     * Hands a WebDriver instance back after a test.
+     * Pooled sessions are reset and kept warm, all others are quit.
+     * 
+     * @param driver WebDriver instance to release
+     */
+    public static void releaseDriver(WebDriver driver) {
+        if (isPoolEnabled()) {
+            getPool().release(driver);
+        } else {
+            quitDriver(driver);
+        }
+    }
+    
+    /**
+     * Quits all pooled sessions. Should be called once the suite has finished.
+     */
+    public static synchronized void shutdownPool() {
+        if (pool != null) {
+            pool.shutdown();
+            pool = null;
+        }
+    }
+    
+    /**
+     * Gets the shared session pool, creating it on first use
+     * 
+     * @return WebDriverPool instance
+     */
+    public static synchronized WebDriverPool getPool() {
+        if (pool == null) {
+            pool = new WebDriverPool();
+        }
+        return pool;
+    }
+    
+    /**
+     * Checks whether pooled mode is enabled in config.properties
+     * 
+     * @return true if sessions should be pooled
+     */
+    public static boolean isPoolEnabled() {
+        return ConfigManager.getInstance().getBooleanProperty("driver.pool.enabled", false);
+    }
+    
     /**
      * Quits the WebDriver instance
      * 
@@ -80,6 +356,7 @@ public class WebDriverFactory {
      */
     public static void quitDriver(WebDriver driver) {
         if (driver != null) {
+            NetworkIdleTracker.detach(driver);
             driver.quit();
         }
     }
@@ -0,0 +1,350 @@
+package com.qasmarts.framework;
+
+import com.qasmarts.framework.config.ConfigManager;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoAlertPresentException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.chromium.ChromiumDriver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool of warm browser sessions, bounded per browser type and profile.
+ * A session is leased to one worker thread at a time, reset between tests
+ * and only quit when the suite ends, its reuse budget is spent or it fails a health check.
+ *
+ * @author Abhinav Gupta
+ */
+public class WebDriverPool {
+    private static final Logger logger = LogManager.getLogger(WebDriverPool.class);
+
+    /**
+     * How a session is cleaned up before it goes back to the pool
+     */
+    public enum ResetStrategy {
+        /** Close extra windows, dismiss alerts, clear cookies and web storage */
+        FULL,
+        /** Only clear cookies */
+        COOKIES,
+        /** Leave the session untouched */
+        NONE
+    }
+
+    private final int poolSize;
+    private final int maxReuse;
+    private final long acquireTimeoutSeconds;
+    private final ResetStrategy resetStrategy;
+
+    private final Map<String, BlockingDeque<PooledSession>> idleSessions = new ConcurrentHashMap<>();
+    private final Map<String, Semaphore> permits = new ConcurrentHashMap<>();
+    private final Map<WebDriver, PooledSession> leasedSessions = Collections.synchronizedMap(new IdentityHashMap<>());
+
+    private volatile boolean closed;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong acquireCount = new AtomicLong();
+    private final AtomicLong acquireNanosTotal = new AtomicLong();
+    private final AtomicLong acquireNanosMax = new AtomicLong();
+
+    /**
+     * Creates a pool configured from config.properties
+     */
+    public WebDriverPool() {
+        ConfigManager config = ConfigManager.getInstance();
+        this.poolSize = Math.max(1, config.getIntProperty("driver.pool.size", 3));
+        this.maxReuse = Math.max(1, config.getIntProperty("driver.pool.maxReuse", 50));
+        this.acquireTimeoutSeconds = config.getIntProperty("driver.pool.acquireTimeoutSeconds", 300);
+        this.resetStrategy = ResetStrategy.valueOf(
+                config.getProperty("driver.pool.resetStrategy", "full").trim().toUpperCase());
+        logger.info("Initialized WebDriverPool (size per browser: {}, max reuse: {}, reset: {})",
+                poolSize, maxReuse, resetStrategy);
+    }
+
+    /**
+     * Leases a session for the given browser and profile, reusing an idle one when possible
+     *
+     * @param browser Browser name (chrome, firefox, edge, safari)
+     * @param profile Browser profile name from config.properties
+     * @return WebDriver instance leased to the calling thread
+     * @throws IllegalStateException if no session becomes available within the acquire timeout
+     */
+    public WebDriver acquire(String browser, String profile) {
+        String key = getKey(browser, profile);
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(acquireTimeoutSeconds);
+        try {
+            while (true) {
+                PooledSession session = idleQueue(key).pollFirst();
+                if (session != null) {
+                    if (isHealthy(session.driver)) {
+                        hits.incrementAndGet();
+                        return lease(session);
+                    }
+                    logger.warn("Discarding unhealthy {} session", key);
+                    discard(session);
+                    continue;
+                }
+
+                // Each permit stands for one live session, idle or leased
+                if (permits(key).tryAcquire()) {
+                    misses.incrementAndGet();
+                    try {
+                        return lease(new PooledSession(key, WebDriverFactory.createDriver(browser, profile)));
+                    } catch (RuntimeException e) {
+                        permits(key).release();
+                        throw e;
+                    }
+                }
+
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new IllegalStateException("Timed out waiting for a " + key + " session from the pool");
+                }
+                session = idleQueue(key).pollFirst(Math.min(remaining, TimeUnit.SECONDS.toNanos(1)), TimeUnit.NANOSECONDS);
+                if (session != null) {
+                    idleQueue(key).offerFirst(session);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a " + key + " session", e);
+        } finally {
+            recordAcquireLatency(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Launches sessions concurrently in the background and parks them in the idle pool.
+     * Pool capacity is reserved up front, so a test asking for a session while one is
+     * still booting waits for it instead of launching yet another browser.
+     *
+     * @param browser Browser name
+     * @param profile Browser profile name from config.properties
+     * @param count Number of sessions to start (capped at the free pool capacity)
+     * @param executor Executor that runs the launches
+     * @return Number of sessions actually scheduled
+     */
+    public int prewarm(String browser, String profile, int count, Executor executor) {
+        String key = getKey(browser, profile);
+        int scheduled = 0;
+        while (scheduled < count && permits(key).tryAcquire()) {
+            executor.execute(() -> {
+                try {
+                    WebDriver driver = WebDriverFactory.createDriver(browser, profile);
+                    PooledSession session = new PooledSession(key, driver);
+                    idleQueue(key).offerLast(session);
+                    // shutdown() may have drained the queue between creating and offering the session
+                    if (closed && idleQueue(key).remove(session)) {
+                        WebDriverFactory.quitDriver(driver);
+                        permits(key).release();
+                    }
+                } catch (RuntimeException e) {
+                    logger.warn("Failed to pre-warm {} session: {}", key, e.getMessage());
+                    permits(key).release();
+                }
+            });
+            scheduled++;
+        }
+        return scheduled;
+    }
+
+    /**
+     * Returns a leased session to the pool after resetting it.
+     * Drivers that were not leased from this pool are simply quit.
+     *
+     * @param driver WebDriver instance to release
+     */
+    public void release(WebDriver driver) {
+        if (driver == null) {
+            return;
+        }
+        PooledSession session = leasedSessions.remove(driver);
+        if (session == null) {
+            WebDriverFactory.quitDriver(driver);
+            return;
+        }
+
+        session.uses++;
+        if (closed) {
+            discard(session);
+            return;
+        }
+        if (session.uses >= maxReuse) {
+            logger.info("Retiring {} session after {} uses", session.key, session.uses);
+            discard(session);
+            return;
+        }
+        if (!reset(driver) || !isHealthy(driver)) {
+            logger.warn("Discarding {} session that failed reset", session.key);
+            discard(session);
+            return;
+        }
+        // Most recently used sessions are handed out first so the warmest browser is reused
+        idleQueue(session.key).offerFirst(session);
+    }
+
+    /**
+     * Quits every idle session and logs pool statistics.
+     * Sessions still leased are quit when they are released.
+     */
+    public void shutdown() {
+        closed = true;
+        for (BlockingDeque<PooledSession> queue : idleSessions.values()) {
+            PooledSession session;
+            while ((session = queue.pollFirst()) != null) {
+                WebDriverFactory.quitDriver(session.driver);
+            }
+        }
+        logger.info("WebDriverPool shut down - {}", getStats());
+    }
+
+    /**
+     * Gets pool statistics
+     *
+     * @return Hit/miss counts and acquire latency summary
+     */
+    public String getStats() {
+        long count = acquireCount.get();
+        double avgMillis = count == 0 ? 0 : acquireNanosTotal.get() / (double) count / 1_000_000;
+        return String.format("acquires=%d, hits=%d, misses=%d, evictions=%d, avgAcquireMs=%.1f, maxAcquireMs=%.1f",
+                count, hits.get(), misses.get(), evictions.get(), avgMillis, acquireNanosMax.get() / 1_000_000.0);
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Resets browser state according to the configured strategy
+     *
+     * @param driver WebDriver instance to reset
+     * @return true if the session is clean, false otherwise
+     */
+    private boolean reset(WebDriver driver) {
+        if (resetStrategy == ResetStrategy.NONE) {
+            return true;
+        }
+        try {
+            if (resetStrategy == ResetStrategy.FULL) {
+                dismissAlert(driver);
+                closeExtraWindows(driver);
+                try {
+                    ((JavascriptExecutor) driver)
+                            .executeScript("window.localStorage.clear(); window.sessionStorage.clear();");
+                } catch (WebDriverException e) {
+                    // about:blank and data: pages have no storage
+                }
+            }
+            WebDriver browserDriver = WebDriverFactory.unwrap(driver);
+            if (browserDriver instanceof ChromiumDriver) {
+                // deleteAllCookies only clears the current domain, CDP clears the whole profile
+                ((ChromiumDriver) browserDriver).executeCdpCommand("Network.clearBrowserCookies", Collections.emptyMap());
+            } else {
+                driver.manage().deleteAllCookies();
+            }
+            if (resetStrategy == ResetStrategy.FULL) {
+                driver.get("about:blank");
+            }
+            return true;
+        } catch (WebDriverException e) {
+            logger.debug("Session reset failed: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private void dismissAlert(WebDriver driver) {
+        try {
+            driver.switchTo().alert().dismiss();
+        } catch (NoAlertPresentException e) {
+            // Nothing to dismiss
+        }
+    }
+
+    private void closeExtraWindows(WebDriver driver) {
+        List<String> handles = new ArrayList<>(driver.getWindowHandles());
+        if (handles.isEmpty()) {
+            return;
+        }
+        for (int i = 1; i < handles.size(); i++) {
+            driver.switchTo().window(handles.get(i));
+            driver.close();
+        }
+        driver.switchTo().window(handles.get(0));
+    }
+
+    private boolean isHealthy(WebDriver driver) {
+        try {
+            driver.getWindowHandle();
+            return true;
+        } catch (WebDriverException e) {
+            return false;
+        }
+    }
+
+    private WebDriver lease(PooledSession session) {
+        leasedSessions.put(session.driver, session);
+        return session.driver;
+    }
+
+    private void discard(PooledSession session) {
+        evictions.incrementAndGet();
+        try {
+            WebDriverFactory.quitDriver(session.driver);
+        } catch (WebDriverException e) {
+            logger.debug("Ignoring error while quitting discarded session: {}", e.getMessage());
+        }
+        permits(session.key).release();
+    }
+
+    private void recordAcquireLatency(long nanos) {
+        acquireCount.incrementAndGet();
+        acquireNanosTotal.addAndGet(nanos);
+        acquireNanosMax.accumulateAndGet(nanos, Math::max);
+    }
+
+    private String getKey(String browser, String profile) {
+        return browser.toLowerCase() + ":" + WebDriverFactory.resolveProfile(profile);
+    }
+
+    private BlockingDeque<PooledSession> idleQueue(String key) {
+        return idleSessions.computeIfAbsent(key, k -> new LinkedBlockingDeque<>());
+    }
+
+    private Semaphore permits(String key) {
+        return permits.computeIfAbsent(key, k -> new Semaphore(poolSize));
+    }
+
+    /**
+     * A browser session together with its reuse count
+     */
+    private static class PooledSession {
+        private final String key;
+        private final WebDriver driver;
+        private int uses;
+
+        PooledSession(String key, WebDriver driver) {
+            this.key = key;
+            this.driver = driver;
+        }
+    }
+}
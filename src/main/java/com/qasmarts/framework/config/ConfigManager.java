@@ -81,6 +81,26 @@ public class ConfigManager {
         }
     }
     
+    /**
+     * Gets a property as a decimal number
+     * 
+     * @param key Property key
+     * @param defaultValue Default value if property not found or not a number
+     * @return Property value as double or default value
+     */
+    public double getDoubleProperty(String key, double defaultValue) {
+        String value = getProperty(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            logger.warn("Property {} is not a valid number: {}", key, value);
+            return defaultValue;
+        }
+    }
+    
     /**
      * Gets a property as a boolean
      * 
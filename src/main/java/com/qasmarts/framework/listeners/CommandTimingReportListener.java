@@ -0,0 +1,107 @@
+package com.qasmarts.framework.listeners;
+
+import com.qasmarts.framework.CommandStatistics;
+import com.qasmarts.framework.config.ConfigManager;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * TestNG listener that collects WebDriver command timings per test and writes them, with the
+ * totals for the suite, to a JSON file (driver.instrument.reportFile) when the suite finishes.
+ * Timings are only recorded for drivers instrumented by WebDriverFactory (driver.instrument.enabled).
+ * The timings of each test are also attached to its result as {@link #RESULT_ATTRIBUTE}.
+ *
+ * @author Abhinav Gupta
+ */
+public class CommandTimingReportListener implements ITestListener, ISuiteListener {
+    /** Result attribute holding the test's command timings as a JSONObject */
+    public static final String RESULT_ATTRIBUTE = "commandTimings";
+
+    private static final Logger logger = LogManager.getLogger(CommandTimingReportListener.class);
+    private final Queue<JSONObject> tests = new ConcurrentLinkedQueue<>();
+
+    @Override
+    public void onStart(ISuite suite) {
+        CommandStatistics.reset();
+        tests.clear();
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        CommandStatistics.Timings timings = CommandStatistics.getSuiteTimings();
+        if (timings.isEmpty()) {
+            return;
+        }
+        for (String pageMethod : timings.getTopPageMethods(10)) {
+            logger.info("WebDriver time: {} {}", pageMethod, timings.getPageMethod(pageMethod));
+        }
+        Path file = Paths.get(ConfigManager.getInstance()
+                .getProperty("driver.instrument.reportFile", "target/command-timings.json"));
+        JSONObject report = timings.toJson()
+                .put("suite", suite.getName())
+                .put("tests", new JSONArray(tests));
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            Files.write(file, report.toString(2).getBytes(StandardCharsets.UTF_8));
+            logger.info("WebDriver command timings written to: {}", file);
+        } catch (IOException e) {
+            logger.error("Failed to write command timings: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void onTestStart(ITestResult result) {
+        CommandStatistics.startTest();
+    }
+
+    @Override
+    public void onTestSuccess(ITestResult result) {
+        testFinished(result, "PASS");
+    }
+
+    @Override
+    public void onTestFailure(ITestResult result) {
+        testFinished(result, "FAIL");
+    }
+
+    @Override
+    public void onTestFailedButWithinSuccessPercentage(ITestResult result) {
+        testFinished(result, "FAIL");
+    }
+
+    @Override
+    public void onTestSkipped(ITestResult result) {
+        testFinished(result, "SKIP");
+    }
+
+    private void testFinished(ITestResult result, String status) {
+        CommandStatistics.Timings timings = CommandStatistics.finishTest();
+        if (timings.isEmpty()) {
+            return;
+        }
+        JSONObject json = timings.toJson();
+        result.setAttribute(RESULT_ATTRIBUTE, json);
+        tests.add(new JSONObject()
+                .put("context", result.getTestContext().getName())
+                .put("test", result.getTestClass().getName() + "." + result.getMethod().getMethodName())
+                .put("status", status)
+                .put("commands", json.get("commands"))
+                .put("pageMethods", json.get("pageMethods")));
+    }
+}
@@ -0,0 +1,93 @@
+package com.qasmarts.framework.listeners;
+
+import com.qasmarts.framework.SessionStartupTimeline;
+import com.qasmarts.framework.WebDriverFactory;
+import com.qasmarts.framework.config.ConfigManager;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * TestNG suite listener that starts browser sessions in the background as soon
+ * as the suite is parsed, so the first test of each &lt;test&gt; block finds a warm session
+ *
+ * @author Abhinav Gupta
+ */
+public class DriverPrewarmListener implements ISuiteListener {
+    private static final Logger logger = LogManager.getLogger(DriverPrewarmListener.class);
+    private ExecutorService executor;
+
+    @Override
+    public void onStart(ISuite suite) {
+        if (!WebDriverFactory.isPoolEnabled()
+                || !ConfigManager.getInstance().getBooleanProperty("driver.pool.prewarm", true)) {
+            logger.info("Session pre-warming disabled");
+            return;
+        }
+
+        Map<String, Integer> expectedSessions = getExpectedSessions(suite.getXmlSuite());
+        int total = expectedSessions.values().stream().mapToInt(Integer::intValue).sum();
+        if (total == 0) {
+            return;
+        }
+
+        AtomicInteger threadCounter = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(total, runnable -> {
+            Thread thread = new Thread(runnable, "driver-prewarm-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        for (Map.Entry<String, Integer> entry : expectedSessions.entrySet()) {
+            String[] browserAndProfile = entry.getKey().split(":", 2);
+            int scheduled = WebDriverFactory.getPool()
+                    .prewarm(browserAndProfile[0], browserAndProfile[1], entry.getValue(), executor);
+            logger.info("Pre-warming {} {} session(s)", scheduled, entry.getKey());
+        }
+        // Lets the launches already submitted finish, then releases the threads
+        executor.shutdown();
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        for (SessionStartupTimeline timeline : WebDriverFactory.getStartupTimelines()) {
+            logger.info("Session startup: {}", timeline);
+        }
+    }
+
+    /**
+     * Works out how many sessions of each browser and profile the suite will want at once.
+     * Each &lt;test&gt; block with a browser parameter needs one session, limited by
+     * the number of blocks TestNG actually runs in parallel.
+     *
+     * @param xmlSuite Parsed suite
+     * @return Number of sessions per "browser:profile" key
+     */
+    private Map<String, Integer> getExpectedSessions(XmlSuite xmlSuite) {
+        int concurrency = xmlSuite.getParallel() == XmlSuite.ParallelMode.NONE ? 1 : xmlSuite.getThreadCount();
+        int poolSize = ConfigManager.getInstance().getIntProperty("driver.pool.size", 3);
+
+        Map<String, Integer> expected = new LinkedHashMap<>();
+        for (XmlTest test : xmlSuite.getTests()) {
+            String browser = test.getParameter("browser");
+            if (browser != null) {
+                String profile = WebDriverFactory.resolveProfile(test.getParameter("profile"));
+                expected.merge(browser.toLowerCase() + ":" + profile, 1, Integer::sum);
+            }
+        }
+        expected.replaceAll((key, count) -> Math.min(count, Math.min(concurrency, poolSize)));
+        return expected;
+    }
+}
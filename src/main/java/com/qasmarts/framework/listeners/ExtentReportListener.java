@@ -1,5 +1,7 @@
 package com.qasmarts.framework.listeners;
 
+import com.qasmarts.framework.config.ConfigManager;
+import com.qasmarts.framework.utils.ScreenshotUtils;
 import com.aventstack.extentreports.ExtentReports;
 import com.aventstack.extentreports.ExtentTest;
 import com.aventstack.extentreports.Status;
@@ -12,10 +14,13 @@ import org.testng.ITestListener;
 import org.testng.ITestResult;
 
 import java.io.File;
+import java.nio.file.Path;
 import java.text.SimpleDateFormat;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * TestNG listener that generates Extent Reports after test execution
@@ -24,13 +29,27 @@ import java.util.Map;
  */
 public class ExtentReportListener implements ITestListener {
     private static final Logger logger = LogManager.getLogger(ExtentReportListener.class);
-    private static ExtentReports extent;
-    private static final Map<String, ExtentTest> testMap = new HashMap<>();
+    private static volatile ExtentReports extent;
+    
+    /** Result attribute holding the invocation id given to a test in onTestStart */
+    private static final String INVOCATION_ID_ATTRIBUTE = "extentInvocationId";
+    private static final AtomicLong invocationIds = new AtomicLong();
+    
+    /** Tests that have started but not finished, keyed by invocation id. Entries are removed when the result is final. */
+    private static final Map<String, ExtentTest> testMap = new ConcurrentHashMap<>();
     
     /**
      * Initializes the ExtentReports instance
      */
-    private static synchronized ExtentReports getExtentInstance() {
+    private static ExtentReports getExtentInstance() {
+        ExtentReports instance = extent;
+        if (instance != null) {
+            return instance;
+        }
+        return createExtentInstance();
+    }
+    
+    private static synchronized ExtentReports createExtentInstance() {
         if (extent == null) {
             String timestamp = new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date());
             String reportDir = "target/extent-reports";
@@ -43,24 +62,44 @@ public class ExtentReportListener implements ITestListener {
             sparkReporter.config().setTheme(Theme.STANDARD);
             sparkReporter.config().setEncoding("utf-8");
             
-            extent = new ExtentReports();
-            extent.attachReporter(sparkReporter);
-            extent.setSystemInfo("OS", System.getProperty("os.name"));
-            extent.setSystemInfo("Java Version", System.getProperty("java.version"));
-            extent.setSystemInfo("User", System.getProperty("user.name"));
+            ExtentReports instance = new ExtentReports();
+            instance.attachReporter(sparkReporter);
+            instance.setSystemInfo("OS", System.getProperty("os.name"));
+            instance.setSystemInfo("Java Version", System.getProperty("java.version"));
+            instance.setSystemInfo("User", System.getProperty("user.name"));
+            extent = instance;
         }
         return extent;
     }
     
+    /**
+     * Checks if the Extent report is enabled (report.mode extent or both)
+     * 
+     * @return true if enabled
+     */
+    public static boolean isEnabled() {
+        String mode = ConfigManager.getInstance().getProperty("report.mode", "extent").trim().toLowerCase();
+        return "extent".equals(mode) || "both".equals(mode);
+    }
+    
     @Override
     public void onStart(ITestContext context) {
+        if (!isEnabled()) {
+            return;
+        }
         logger.info("Initializing ExtentReports");
         getExtentInstance();
     }
     
     @Override
     public void onFinish(ITestContext context) {
+        if (!isEnabled()) {
+            return;
+        }
         logger.info("Flushing ExtentReports");
+        if (!testMap.isEmpty()) {
+            logger.warn("{} started tests have not reported a result yet", testMap.size());
+        }
         if (extent != null) {
             extent.flush();
         }
@@ -68,19 +107,17 @@ public class ExtentReportListener implements ITestListener {
     
     @Override
     public void onTestStart(ITestResult result) {
-        String testName = result.getMethod().getMethodName();
-        String className = result.getInstanceName();
-        String description = result.getMethod().getDescription();
-        description = (description == null || description.isEmpty()) ? testName : description;
-        
-        ExtentTest test = getExtentInstance().createTest(testName, description);
-        test.assignCategory(className);
-        testMap.put(getTestUniqueId(result), test);
+        if (!isEnabled()) {
+            return;
+        }
+        String invocationId = result.getMethod().getQualifiedName() + "#" + invocationIds.incrementAndGet();
+        result.setAttribute(INVOCATION_ID_ATTRIBUTE, invocationId);
+        testMap.put(invocationId, createTest(result));
     }
     
     @Override
     public void onTestSuccess(ITestResult result) {
-        ExtentTest test = getTest(result);
+        ExtentTest test = removeTest(result);
         if (test != null) {
             test.log(Status.PASS, "Test passed");
         }
@@ -88,18 +125,31 @@ public class ExtentReportListener implements ITestListener {
     
     @Override
     public void onTestFailure(ITestResult result) {
-        ExtentTest test = getTest(result);
+        ExtentTest test = removeTest(result);
         if (test != null) {
             test.log(Status.FAIL, "Test failed");
             test.log(Status.FAIL, result.getThrowable());
+            attachScreenshot(test, result);
         }
     }
     
+    @Override
+    public void onTestFailedButWithinSuccessPercentage(ITestResult result) {
+        onTestFailure(result);
+    }
+    
     @Override
     public void onTestSkipped(ITestResult result) {
-        ExtentTest test = getTest(result);
+        if (!isEnabled()) {
+            return;
+        }
+        ExtentTest test = removeTest(result);
+        if (test == null) {
+            // Skipped before it started, e.g. because a configuration method failed
+            test = createTest(result);
+        }
         if (test != null) {
-            test.log(Status.SKIP, "Test skipped");
+            test.log(Status.SKIP, result.wasRetried() ? "Test failed and was retried" : "Test skipped");
             if (result.getThrowable() != null) {
                 test.log(Status.SKIP, result.getThrowable());
             }
@@ -107,22 +157,48 @@ public class ExtentReportListener implements ITestListener {
     }
     
     /**
-     * Gets the ExtentTest object for the current test
+     * Attaches the failure screenshot taken by TestListener once it has been written.
+     * The image path is the stored file, so deduplicated screenshots resolve transparently.
+     * 
+     * @param test ExtentTest instance
+     * @param result ITestResult instance
+     */
+    private void attachScreenshot(ExtentTest test, ITestResult result) {
+        Object saved = result.getAttribute(ScreenshotUtils.RESULT_ATTRIBUTE);
+        if (saved instanceof CompletableFuture) {
+            ((CompletableFuture<?>) saved).thenAccept(image -> {
+                synchronized (test) {
+                    test.addScreenCaptureFromPath(((Path) image).toAbsolutePath().toString());
+                }
+            });
+        }
+    }
+    
+    /**
+     * Creates the ExtentTest object for a test invocation
      * 
      * @param result ITestResult instance
      * @return ExtentTest instance
      */
-    private ExtentTest getTest(ITestResult result) {
-        return testMap.get(getTestUniqueId(result));
+    private ExtentTest createTest(ITestResult result) {
+        String testName = result.getMethod().getMethodName();
+        String className = result.getInstanceName();
+        String description = result.getMethod().getDescription();
+        description = (description == null || description.isEmpty()) ? testName : description;
+        
+        ExtentTest test = getExtentInstance().createTest(testName, description);
+        test.assignCategory(className);
+        return test;
     }
     
     /**
-     * Generates a unique ID for the test
+     * Gets and forgets the ExtentTest object of a finished test
      * 
      * @param result ITestResult instance
-     * @return Unique test ID
+     * @return ExtentTest instance, or null if the test never started
      */
-    private String getTestUniqueId(ITestResult result) {
-        return result.getInstanceName() + "_" + result.getMethod().getMethodName();
+    private ExtentTest removeTest(ITestResult result) {
+        Object invocationId = result.getAttribute(INVOCATION_ID_ATTRIBUTE);
+        return invocationId == null ? null : testMap.remove(invocationId.toString());
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,263 @@
+package com.qasmarts.framework.listeners;
+
+import com.qasmarts.framework.config.ConfigManager;
+import com.qasmarts.framework.utils.TestDurationStore;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.testng.IAlterSuiteListener;
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ITestContext;
+import org.testng.xml.XmlClass;
+import org.testng.xml.XmlInclude;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Orders the suite longest-first from the durations in {@link TestDurationStore}, so a fixed
+ * number of threads finishes as early as possible.
+ * <p>
+ * With parallel="tests" every &lt;test&gt; block is one job for the thread pool. Blocks longer
+ * than their fair share (total / thread-count) are split into several blocks with the same
+ * parameters by spreading their classes longest-first over the parts, and all blocks are then
+ * queued longest-first (LPT scheduling). Within a block, classes and the methods of each class
+ * are run longest-first too, keeping each class together and respecting priorities. Work that
+ * was never timed is assumed to take the average of what was. Without history nothing changes.
+ * Configured by schedule.longestFirst and schedule.splitBlocks.
+ *
+ * @author Abhinav Gupta
+ */
+public class LongestFirstScheduler implements IAlterSuiteListener, IMethodInterceptor {
+    private static final Logger logger = LogManager.getLogger(LongestFirstScheduler.class);
+
+    @Override
+    public void alter(List<XmlSuite> suites) {
+        if (!isEnabled() || TestDurationStore.getDefault().isEmpty()) {
+            return;
+        }
+        boolean split = ConfigManager.getInstance().getBooleanProperty("schedule.splitBlocks", true);
+        for (XmlSuite suite : suites) {
+            schedule(suite, TestDurationStore.getDefault(), split);
+        }
+    }
+
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+        TestDurationStore store = TestDurationStore.getDefault();
+        if (!isEnabled() || store.isEmpty()) {
+            return methods;
+        }
+        long fallback = store.getAverageDuration();
+        String block = getBlockName(context.getName());
+        Map<String, List<IMethodInstance>> byClass = new LinkedHashMap<>();
+        Map<String, Long> classDurations = new LinkedHashMap<>();
+        for (IMethodInstance method : methods) {
+            String className = method.getMethod().getRealClass().getName();
+            byClass.computeIfAbsent(className, k -> new ArrayList<>()).add(method);
+            classDurations.merge(className, methodDuration(store, block, method, fallback), Long::sum);
+        }
+        List<String> classes = new ArrayList<>(byClass.keySet());
+        classes.sort(Comparator.comparingLong(classDurations::get).reversed());
+
+        List<IMethodInstance> ordered = new ArrayList<>(methods.size());
+        for (String className : classes) {
+            List<IMethodInstance> classMethods = byClass.get(className);
+            classMethods.sort(Comparator.comparingInt((IMethodInstance m) -> m.getMethod().getPriority())
+                    .thenComparing(Comparator.comparingLong((IMethodInstance m) ->
+                            methodDuration(store, block, m, fallback)).reversed()));
+            ordered.addAll(classMethods);
+        }
+        return ordered;
+    }
+
+    /**
+     * Splits and reorders the &lt;test&gt; blocks of a suite longest-first. Only suites running
+     * with parallel="tests" are changed.
+     *
+     * @param suite Suite to reorder in place
+     * @param store Remembered durations
+     * @param split true to split blocks longer than their fair share of the threads
+     */
+    public static void schedule(XmlSuite suite, TestDurationStore store, boolean split) {
+        if (suite.getParallel() != XmlSuite.ParallelMode.TESTS) {
+            return;
+        }
+        int threads = Math.max(1, suite.getThreadCount());
+        List<XmlTest> original = new ArrayList<>(suite.getTests());
+        Map<XmlClass, Long> classDurations = estimateClasses(original, store);
+        Map<XmlTest, Long> blockDurations = new IdentityHashMap<>();
+        long total = 0;
+        for (XmlTest test : original) {
+            long duration = sum(test.getXmlClasses(), classDurations);
+            blockDurations.put(test, duration);
+            total += duration;
+        }
+        long before = makespan(durationsOf(original, blockDurations), threads);
+
+        List<XmlTest> blocks = new ArrayList<>();
+        long fairShare = (total + threads - 1) / threads;
+        for (XmlTest test : original) {
+            long duration = blockDurations.get(test);
+            int parts = (int) Math.min(Math.min(test.getXmlClasses().size(), threads),
+                    fairShare == 0 ? 1 : (duration + fairShare - 1) / fairShare);
+            if (!split || parts < 2) {
+                blocks.add(test);
+                continue;
+            }
+            List<XmlTest> partBlocks = splitBlock(test, parts, classDurations);
+            for (XmlTest part : partBlocks) {
+                blockDurations.put(part, sum(part.getXmlClasses(), classDurations));
+            }
+            blocks.addAll(partBlocks);
+        }
+        // Stable, so blocks without history keep their order among equals
+        blocks.sort(Comparator.comparingLong((XmlTest test) -> blockDurations.get(test)).reversed());
+        suite.setTests(blocks);
+
+        long after = makespan(durationsOf(blocks, blockDurations), threads);
+        logger.info("Scheduled {} <test> blocks longest first on {} threads, expected makespan {} s (was {} s)",
+                blocks.size(), threads, after / 1000, before / 1000);
+        for (XmlTest test : blocks) {
+            logger.debug("  {}: ~{} s", test.getName(), blockDurations.get(test) / 1000);
+        }
+    }
+
+    /**
+     * Computes how long a list of jobs takes when each goes to the first free thread, in order
+     *
+     * @param durations Job durations in queue order
+     * @param threads Number of threads
+     * @return Time until the last job finishes
+     */
+    public static long makespan(List<Long> durations, int threads) {
+        PriorityQueue<Long> finishTimes = new PriorityQueue<>(Collections.nCopies(Math.max(1, threads), 0L));
+        long makespan = 0;
+        for (long duration : durations) {
+            long finish = finishTimes.poll() + duration;
+            finishTimes.add(finish);
+            makespan = Math.max(makespan, finish);
+        }
+        return makespan;
+    }
+
+    /**
+     * Gets the name a &lt;test&gt; block was declared with, for a part of a block split by
+     * {@link #schedule} as well, so all parts share the block's durations
+     *
+     * @param testName Name of a &lt;test&gt; block, e.g. "Chrome Tests [2/3]"
+     * @return Declared name, e.g. "Chrome Tests"
+     */
+    public static String getBlockName(String testName) {
+        return testName.replaceFirst(" \\[\\d+/\\d+]$", "");
+    }
+
+    private static boolean isEnabled() {
+        return ConfigManager.getInstance().getBooleanProperty("schedule.longestFirst", true);
+    }
+
+    /**
+     * Spreads the classes of a block over parts, each longest class going to the lightest part
+     */
+    private static List<XmlTest> splitBlock(XmlTest test, int parts, Map<XmlClass, Long> classDurations) {
+        List<XmlClass> declared = new ArrayList<>(test.getXmlClasses());
+        List<XmlClass> classes = new ArrayList<>(declared);
+        classes.sort(Comparator.comparingLong((XmlClass c) -> classDurations.get(c)).reversed());
+        List<List<XmlClass>> bins = new ArrayList<>();
+        long[] loads = new long[parts];
+        for (int i = 0; i < parts; i++) {
+            bins.add(new ArrayList<>());
+        }
+        for (XmlClass xmlClass : classes) {
+            int lightest = 0;
+            for (int i = 1; i < parts; i++) {
+                if (loads[i] < loads[lightest]) {
+                    lightest = i;
+                }
+            }
+            bins.get(lightest).add(xmlClass);
+            loads[lightest] += classDurations.get(xmlClass);
+        }
+
+        String name = test.getName();
+        List<XmlTest> blocks = new ArrayList<>();
+        for (int i = 0; i < parts; i++) {
+            // Cloning registers the copy with the suite; the caller replaces the suite's list
+            XmlTest block = i == 0 ? test : (XmlTest) test.clone();
+            block.setName(name + " [" + (i + 1) + "/" + parts + "]");
+            List<XmlClass> bin = bins.get(i);
+            // Keep the declared class order within a part
+            bin.sort(Comparator.comparingInt(declared::indexOf));
+            for (int index = 0; index < bin.size(); index++) {
+                bin.get(index).setXmlTest(block);
+                bin.get(index).setIndex(index);
+            }
+            block.setXmlClasses(bin);
+            blocks.add(block);
+        }
+        logger.info("Split <test> \"{}\" into {} parts", name, parts);
+        return blocks;
+    }
+
+    private static Map<XmlClass, Long> estimateClasses(List<XmlTest> tests, TestDurationStore store) {
+        Map<XmlClass, Long> durations = new IdentityHashMap<>();
+        long known = 0;
+        int knownCount = 0;
+        for (XmlTest test : tests) {
+            for (XmlClass xmlClass : test.getXmlClasses()) {
+                Map<String, Long> methods = store.getDurations(getBlockName(test.getName()), xmlClass.getName());
+                List<XmlInclude> includes = xmlClass.getIncludedMethods();
+                if (!includes.isEmpty()) {
+                    Map<String, Long> included = new LinkedHashMap<>();
+                    for (XmlInclude include : includes) {
+                        if (methods.containsKey(include.getName())) {
+                            included.put(include.getName(), methods.get(include.getName()));
+                        }
+                    }
+                    methods = included;
+                }
+                if (methods.isEmpty()) {
+                    durations.put(xmlClass, -1L);
+                } else {
+                    long duration = methods.values().stream().mapToLong(Long::longValue).sum();
+                    durations.put(xmlClass, duration);
+                    known += duration;
+                    knownCount++;
+                }
+            }
+        }
+        long fallback = knownCount == 0 ? 0 : known / knownCount;
+        durations.replaceAll((xmlClass, duration) -> duration < 0 ? fallback : duration);
+        return durations;
+    }
+
+    private static long methodDuration(TestDurationStore store, String block, IMethodInstance method, long fallback) {
+        long duration = store.getDuration(block, method.getMethod().getRealClass().getName(),
+                method.getMethod().getMethodName());
+        return duration < 0 ? fallback : duration;
+    }
+
+    private static long sum(List<XmlClass> classes, Map<XmlClass, Long> durations) {
+        long total = 0;
+        for (XmlClass xmlClass : classes) {
+            total += durations.getOrDefault(xmlClass, 0L);
+        }
+        return total;
+    }
+
+    private static List<Long> durationsOf(List<XmlTest> tests, Map<XmlTest, Long> durations) {
+        List<Long> values = new ArrayList<>();
+        for (XmlTest test : tests) {
+            values.add(durations.get(test));
+        }
+        return values;
+    }
+}
@@ -0,0 +1,53 @@
+package com.qasmarts.framework.listeners;
+
+import com.qasmarts.framework.config.ConfigManager;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.testng.IRetryAnalyzer;
+import org.testng.ITestResult;
+
+/**
+ * Retries a failed test in place up to test.retryCount times, so a transient failure costs one
+ * more run of the method instead of a re-run of the suite. TestNG keeps one instance per test
+ * method and parameter set, so the count is per data row. Attached to every test by
+ * {@link RetryTransformer}.
+ *
+ * @author Abhinav Gupta
+ */
+public class RetryAnalyzer implements IRetryAnalyzer {
+    private static final Logger logger = LogManager.getLogger(RetryAnalyzer.class);
+
+    private final int maxRetries = Math.max(0, ConfigManager.getInstance().getIntProperty("test.retryCount", 0));
+    private int retries;
+
+    @Override
+    public boolean retry(ITestResult result) {
+        if (retries >= maxRetries) {
+            return false;
+        }
+        retries++;
+        logger.warn("Retrying test {} (retry {} of {}): {}", result.getName(), retries, maxRetries,
+                result.getThrowable() != null ? result.getThrowable().getMessage() : "failed");
+        return true;
+    }
+
+    /**
+     * Gets how often the test has been retried so far
+     *
+     * @return Retries
+     */
+    public int getRetries() {
+        return retries;
+    }
+
+    /**
+     * Gets how often a finished test was retried
+     *
+     * @param result Test result
+     * @return Retries, 0 if the test has no RetryAnalyzer
+     */
+    public static int getRetries(ITestResult result) {
+        IRetryAnalyzer analyzer = result.getMethod().getRetryAnalyzer(result);
+        return analyzer instanceof RetryAnalyzer ? ((RetryAnalyzer) analyzer).getRetries() : 0;
+    }
+}
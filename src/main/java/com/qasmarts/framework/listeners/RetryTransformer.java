@@ -0,0 +1,32 @@
+package com.qasmarts.framework.listeners;
+
+import com.qasmarts.framework.config.ConfigManager;
+import org.testng.IAnnotationTransformer;
+import org.testng.annotations.ITestAnnotation;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+
+/**
+ * TestNG annotation transformer that attaches {@link RetryAnalyzer} to every test method that
+ * has no retry analyzer of its own, when test.retryCount is above 0
+ *
+ * @author Abhinav Gupta
+ */
+public class RetryTransformer implements IAnnotationTransformer {
+
+    /** Placeholder TestNG reports for tests without a retry analyzer; matched by name, it is internal API */
+    private static final String DISABLED_RETRY_ANALYZER = "org.testng.internal.annotations.DisabledRetryAnalyzer";
+
+    @Override
+    @SuppressWarnings("rawtypes") // the signature is fixed by IAnnotationTransformer
+    public void transform(ITestAnnotation annotation, Class testClass, Constructor testConstructor, Method testMethod) {
+        if (ConfigManager.getInstance().getIntProperty("test.retryCount", 0) <= 0) {
+            return;
+        }
+        Class<?> analyzer = annotation.getRetryAnalyzerClass();
+        if (analyzer == null || DISABLED_RETRY_ANALYZER.equals(analyzer.getName())) {
+            annotation.setRetryAnalyzer(RetryAnalyzer.class);
+        }
+    }
+}
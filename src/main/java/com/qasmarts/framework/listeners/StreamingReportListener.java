@@ -0,0 +1,248 @@
+package com.qasmarts.framework.listeners;
+
+import com.qasmarts.framework.config.ConfigManager;
+import com.qasmarts.framework.utils.ReportRenderer;
+import com.qasmarts.framework.utils.ScreenshotUtils;
+import com.qasmarts.framework.utils.ScreenshotWriter;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestContext;
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * TestNG listener that appends one JSON line per test event to an events file as the suite runs.
+ * Nothing is kept in memory between events, and every line is flushed, so a crashed run still
+ * leaves a readable partial report. HTML is produced from the file by {@link ReportRenderer},
+ * at the end of the suite (report.renderOnFinish) or as a separate step.
+ * Active when report.mode is streaming or both.
+ * <p>
+ * Each JVM writes its own file, named after the host and process, which makes it a shard that
+ * {@link com.qasmarts.framework.utils.ReportMerger} can combine with the shards of other runs.
+ *
+ * @author Abhinav Gupta
+ */
+public class StreamingReportListener implements ITestListener, ISuiteListener {
+    private static final Logger logger = LogManager.getLogger(StreamingReportListener.class);
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss");
+    private static final int MAX_STACK_TRACE_CHARS = 8000;
+
+    private static BufferedWriter writer;
+    private static Path eventsFile;
+
+    /**
+     * Checks if streaming reports are enabled (report.mode)
+     *
+     * @return true if the mode is streaming or both
+     */
+    public static boolean isEnabled() {
+        String mode = ConfigManager.getInstance().getProperty("report.mode", "extent").trim().toLowerCase();
+        return "streaming".equals(mode) || "both".equals(mode);
+    }
+
+    /**
+     * Gets the events file of this JVM
+     *
+     * @return Events file, or null if nothing has been written yet
+     */
+    public static synchronized Path getEventsFile() {
+        return eventsFile;
+    }
+
+    @Override
+    public void onStart(ISuite suite) {
+        if (isEnabled()) {
+            append(event("suiteStart").put("suite", suite.getName()));
+        }
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        if (!isEnabled()) {
+            return;
+        }
+        // Screenshot attachments are written as their files land
+        ScreenshotWriter.awaitPending(30_000);
+        append(event("suiteEnd").put("suite", suite.getName()));
+
+        Path events = getEventsFile();
+        if (events != null && ConfigManager.getInstance().getBooleanProperty("report.renderOnFinish", true)) {
+            Path html = Paths.get(events.toString().replaceAll("\\.jsonl$", "") + ".html");
+            try {
+                ReportRenderer.render(events, html);
+                logger.info("Streaming report rendered to: {}", html);
+            } catch (IOException e) {
+                logger.error("Failed to render streaming report: {}", e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void onTestStart(ITestResult result) {
+        if (isEnabled()) {
+            append(testEvent("testStart", result)
+                    .put("description", result.getMethod().getDescription())
+                    .put("params", toParams(result.getParameters())));
+        }
+    }
+
+    @Override
+    public void onTestSuccess(ITestResult result) {
+        testFinished(result, "PASS");
+    }
+
+    @Override
+    public void onTestFailure(ITestResult result) {
+        testFinished(result, "FAIL");
+    }
+
+    @Override
+    public void onTestFailedButWithinSuccessPercentage(ITestResult result) {
+        testFinished(result, "FAIL");
+    }
+
+    @Override
+    public void onTestSkipped(ITestResult result) {
+        testFinished(result, "SKIP");
+    }
+
+    @Override
+    public void onStart(ITestContext context) {
+        if (isEnabled()) {
+            append(event("contextStart").put("context", context.getName()));
+        }
+    }
+
+    @Override
+    public void onFinish(ITestContext context) {
+        if (isEnabled()) {
+            append(event("contextEnd").put("context", context.getName()));
+        }
+    }
+
+    private void testFinished(ITestResult result, String status) {
+        if (!isEnabled()) {
+            return;
+        }
+        JSONObject event = testEvent("testEnd", result)
+                .put("status", status)
+                .put("start", result.getStartMillis())
+                .put("end", result.getEndMillis())
+                .put("retried", result.wasRetried())
+                .put("params", toParams(result.getParameters()));
+        Throwable error = result.getThrowable();
+        if (error != null) {
+            event.put("error", String.valueOf(error.getMessage()));
+            StringWriter stackTrace = new StringWriter();
+            error.printStackTrace(new PrintWriter(stackTrace));
+            String trace = stackTrace.toString();
+            event.put("stackTrace", trace.length() > MAX_STACK_TRACE_CHARS ? trace.substring(0, MAX_STACK_TRACE_CHARS) : trace);
+        }
+        append(event);
+
+        Object saved = result.getAttribute(ScreenshotUtils.RESULT_ATTRIBUTE);
+        if (saved instanceof CompletableFuture) {
+            ((CompletableFuture<?>) saved).thenAccept(image -> append(event("attachment")
+                    .put("id", result.id())
+                    .put("path", ((Path) image).toAbsolutePath().toString())));
+        }
+    }
+
+    /**
+     * Gets the name of this JVM's shard: report.shardId if set, else host and process id
+     *
+     * @return Shard id
+     */
+    private static String getShardId() {
+        String configured = ConfigManager.getInstance().getProperty("report.shardId", "").trim();
+        return configured.isEmpty() ? getHostName() + "-" + ProcessHandle.current().pid() : configured;
+    }
+
+    private static String getHostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "localhost";
+        }
+    }
+
+    private static JSONObject event(String type) {
+        return new JSONObject()
+                .put("event", type)
+                .put("time", System.currentTimeMillis());
+    }
+
+    private static JSONObject testEvent(String type, ITestResult result) {
+        return event(type)
+                .put("id", result.id())
+                .put("context", result.getTestContext().getName())
+                .put("class", result.getTestClass().getName())
+                .put("method", result.getMethod().getMethodName())
+                .put("thread", Thread.currentThread().getName());
+    }
+
+    private static JSONArray toParams(Object[] parameters) {
+        JSONArray params = new JSONArray();
+        for (Object parameter : parameters) {
+            params.put(String.valueOf(parameter));
+        }
+        return params;
+    }
+
+    /**
+     * Appends one event and flushes it, so the file is always complete up to the last event
+     *
+     * @param event Event to write
+     */
+    private static synchronized void append(JSONObject event) {
+        try {
+            if (writer == null) {
+                open();
+            }
+            writer.write(event.toString());
+            writer.newLine();
+            writer.flush();
+        } catch (IOException e) {
+            logger.error("Failed to write report event: {}", e.getMessage());
+        }
+    }
+
+    private static void open() throws IOException {
+        Path dir = Paths.get(ConfigManager.getInstance().getProperty("report.streamingPath", "target/reports"));
+        Files.createDirectories(dir);
+        String shardId = getShardId();
+        eventsFile = dir.resolve("events_" + shardId.replaceAll("[^A-Za-z0-9._-]", "_") + "_"
+                + LocalDateTime.now().format(FILE_TIMESTAMP) + ".jsonl");
+        writer = Files.newBufferedWriter(eventsFile, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        logger.info("Streaming test events to: {}", eventsFile);
+
+        JSONObject shardStart = event("shardStart")
+                .put("shard", shardId)
+                .put("host", getHostName())
+                .put("pid", ProcessHandle.current().pid())
+                .put("jvmStart", ManagementFactory.getRuntimeMXBean().getStartTime());
+        writer.write(shardStart.toString());
+        writer.newLine();
+    }
+}
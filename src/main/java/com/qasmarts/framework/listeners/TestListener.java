@@ -1,28 +1,32 @@
 package com.qasmarts.framework.listeners;
 
+import com.qasmarts.framework.WaitStatistics;
+import com.qasmarts.framework.config.ConfigManager;
+import com.qasmarts.framework.utils.ApiConnectionPool;
+import com.qasmarts.framework.utils.FlakeStore;
+import com.qasmarts.framework.utils.ScreenshotUtils;
+import com.qasmarts.framework.utils.ScreenshotWriter;
+import com.qasmarts.framework.utils.TestDurationStore;
+import com.qasmarts.framework.utils.TestDataCache;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.openqa.selenium.OutputType;
-import org.openqa.selenium.TakesScreenshot;
 import org.openqa.selenium.WebDriver;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
 import org.testng.ITestContext;
 import org.testng.ITestListener;
 import org.testng.ITestResult;
 
-import java.io.File;
-import java.io.IOException;
-import java.nio.file.Files;
+import java.lang.reflect.Field;
 import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * TestNG listener to handle test execution events
  * 
  * @author Abhinav Gupta
  */
-public class TestListener implements ITestListener {
+public class TestListener implements ITestListener, ISuiteListener {
     private static final Logger logger = LogManager.getLogger(TestListener.class);
     
     @Override
@@ -35,7 +39,37 @@ public class TestListener implements ITestListener {
         logger.info("========== Finished Test Suite: {} ==========", context.getName());
         logger.info("Passed tests: {}", context.getPassedTests().size());
         logger.info("Failed tests: {}", context.getFailedTests().size());
-        logger.info("Skipped tests: {}", context.getSkippedTests().size());
+        // Attempts that were retried are reported as skipped too; only count real skips
+        long retried = context.getSkippedTests().getAllResults().stream().filter(ITestResult::wasRetried).count();
+        logger.info("Skipped tests: {}", context.getSkippedTests().size() - retried);
+        if (retried > 0) {
+            logger.info("Retried attempts: {}", retried);
+        }
+        
+        // Page methods that spent the most time in explicit waits so far
+        for (WaitStatistics.Entry entry : WaitStatistics.getTopByTotalTime(10)) {
+            logger.info("Wait time: {}", entry);
+        }
+        logger.info("Test data loads: {}", TestDataCache.getStats());
+        logger.info("API connections: {}", ApiConnectionPool.getStats());
+        if (isFlakeStoreEnabled()) {
+            FlakeStore.getDefault().save();
+            for (FlakeStore.Stats stats : FlakeStore.getDefault().getFlakiest(10)) {
+                logger.info("Flaky test: {}", stats);
+            }
+        }
+        
+        // Reports are flushed after this; make sure failure screenshots are on disk by then
+        ScreenshotWriter.awaitPending(30_000);
+        logger.info("Screenshots: {}", ScreenshotWriter.getStats());
+    }
+    
+    @Override
+    public void onFinish(ISuite suite) {
+        // Once per suite, so the moving average gets one update per run rather than one per block
+        if (isDurationStoreEnabled()) {
+            TestDurationStore.getDefault().save();
+        }
     }
     
     @Override
@@ -45,50 +79,86 @@ public class TestListener implements ITestListener {
     
     @Override
     public void onTestSuccess(ITestResult result) {
-        logger.info("Test passed: {}", result.getName());
+        int retries = RetryAnalyzer.getRetries(result);
+        if (retries > 0) {
+            logger.warn("Test passed after {} retries: {}", retries, result.getName());
+        } else {
+            logger.info("Test passed: {}", result.getName());
+        }
+        recordDuration(result);
+        recordOutcome(result, retries, true);
     }
     
     @Override
     public void onTestFailure(ITestResult result) {
         logger.error("Test failed: {}", result.getName());
         logger.error("Exception: {}", result.getThrowable().getMessage());
+        recordDuration(result);
+        recordOutcome(result, RetryAnalyzer.getRetries(result), false);
         
         // Take screenshot on failure
         WebDriver driver = getDriverFromResult(result);
         if (driver != null) {
-            takeScreenshot(driver, result.getName());
+            takeScreenshot(driver, result);
         }
     }
     
     @Override
     public void onTestSkipped(ITestResult result) {
+        if (result.wasRetried()) {
+            logger.warn("Test failed and will be retried: {}", result.getName());
+            return;
+        }
         logger.warn("Test skipped: {}", result.getName());
     }
     
+    /**
+     * Remembers how long a test took, for longest-first scheduling of later runs
+     * 
+     * @param result Finished test
+     */
+    private void recordDuration(ITestResult result) {
+        if (isDurationStoreEnabled()) {
+            TestDurationStore.getDefault().record(LongestFirstScheduler.getBlockName(result.getTestContext().getName()),
+                    result.getTestClass().getName(), result.getMethod().getMethodName(),
+                    result.getEndMillis() - result.getStartMillis());
+        }
+    }
+    
+    /**
+     * Remembers the final outcome of a test, to tell flaky tests from broken ones
+     * 
+     * @param result Finished test
+     * @param retries Number of times the test was retried
+     * @param passed true if the last attempt passed
+     */
+    private void recordOutcome(ITestResult result, int retries, boolean passed) {
+        if (isFlakeStoreEnabled()) {
+            FlakeStore.getDefault().record(result.getTestClass().getName(),
+                    result.getMethod().getMethodName(), retries, passed);
+        }
+    }
+    
+    private static boolean isFlakeStoreEnabled() {
+        return ConfigManager.getInstance().getBooleanProperty("flake.store.enabled", true);
+    }
+    
+    private static boolean isDurationStoreEnabled() {
+        return ConfigManager.getInstance().getBooleanProperty("timing.store.enabled", true);
+    }
+    
     /**
      * Takes screenshot when test fails
      * 
      * @param driver WebDriver instance
-     * @param testName Name of the test
+     * @param result Failed test, receives the pending screenshot for the report
      */
-    private void takeScreenshot(WebDriver driver, String testName) {
-        try {
-            // Create screenshots directory if it doesn't exist
-            Path screenshotsDir = Paths.get("target", "screenshots");
-            if (!Files.exists(screenshotsDir)) {
-                Files.createDirectories(screenshotsDir);
-            }
-            
-            // Take screenshot
-            File screenshot = ((TakesScreenshot) driver).getScreenshotAs(OutputType.FILE);
-            String timestamp = new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date());
-            Path destination = Paths.get(screenshotsDir.toString(), testName + "_" + timestamp + ".png");
-            
-            // Save screenshot
-            Files.copy(screenshot.toPath(), destination);
-            logger.info("Screenshot saved to: {}", destination);
-        } catch (IOException e) {
-            logger.error("Failed to take screenshot: {}", e.getMessage());
+    private void takeScreenshot(WebDriver driver, ITestResult result) {
+        // Captured here, written to disk by the background screenshot writer
+        CompletableFuture<Path> saved = ScreenshotUtils.captureScreenshotAsync(driver,
+                ScreenshotWriter.newPath(result.getName()));
+        if (saved != null) {
+            result.setAttribute(ScreenshotUtils.RESULT_ATTRIBUTE, saved);
         }
     }
     
@@ -101,8 +171,18 @@ public class TestListener implements ITestListener {
     private WebDriver getDriverFromResult(ITestResult result) {
         Object testInstance = result.getInstance();
         try {
-            // Get driver field using reflection
-            return (WebDriver) testInstance.getClass().getDeclaredField("driver").get(testInstance);
+            // Get driver field using reflection; it is usually declared on a base class
+            for (Class<?> type = testInstance.getClass(); type != null; type = type.getSuperclass()) {
+                try {
+                    Field field = type.getDeclaredField("driver");
+                    field.setAccessible(true);
+                    return (WebDriver) field.get(testInstance);
+                } catch (NoSuchFieldException e) {
+                    // Keep looking in the superclass
+                }
+            }
+            logger.error("Failed to get WebDriver instance: no driver field in {}", testInstance.getClass().getName());
+            return null;
         } catch (Exception e) {
             logger.error("Failed to get WebDriver instance: {}", e.getMessage());
             return null;
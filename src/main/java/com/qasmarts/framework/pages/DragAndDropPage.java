@@ -1,5 +1,6 @@
 package com.qasmarts.framework.pages;
 
+import com.qasmarts.framework.BasePage;
 import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
@@ -5,7 +5,6 @@ import org.openqa.selenium.By;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.FindBy;
-import org.openqa.selenium.support.ui.ExpectedConditions;
 
 /**
  * Page Object for Dynamic Loading Page
@@ -86,10 +85,10 @@ public class DynamicLoadingPage extends BasePage {
      */
     public DynamicLoadingPage waitForLoading() {
         // Wait for loading indicator to be visible
-        wait.until(ExpectedConditions.visibilityOf(loadingIndicator));
+        waitUntilVisible("#loading");
         
         // Wait for loading indicator to disappear
-        wait.until(ExpectedConditions.invisibilityOf(loadingIndicator));
+        waitUntilInvisible("#loading");
         
         return this;
     }
@@ -101,7 +100,7 @@ public class DynamicLoadingPage extends BasePage {
      */
     public String getFinishText() {
         // Wait for finish element to be visible
-        wait.until(ExpectedConditions.visibilityOf(finishElement));
+        waitUntilVisible("#finish");
         
         return getText(finishElement);
     }
@@ -123,11 +122,6 @@ public class DynamicLoadingPage extends BasePage {
      * @return true if finish element is displayed, false otherwise
      */
     public boolean isFinishElementDisplayed() {
-        try {
-            wait.until(ExpectedConditions.visibilityOf(finishElement));
-            return true;
-        } catch (Exception e) {
-            return false;
-        }
+        return isDisplayedWithin(finishElement);
     }
 } 
\ No newline at end of file
@@ -140,7 +140,7 @@ public class JavaScriptAlertsPage extends BasePage {
      * @return The JavaScript alerts page instance
      */
     public JavaScriptAlertsPage waitForResult(String expectedText) {
-        wait.until(ExpectedConditions.textToBePresentInElement(resultText, expectedText));
+        waitUntilTextPresent("#result", expectedText);
         return this;
     }
 } 
\ No newline at end of file
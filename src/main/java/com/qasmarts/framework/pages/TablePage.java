@@ -1,11 +1,13 @@
 package com.qasmarts.framework.pages;
 
+import com.qasmarts.framework.BasePage;
+import com.qasmarts.framework.config.ConfigManager;
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.FindBy;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -16,6 +18,34 @@ import java.util.Map;
  * @author Abhinav Gupta
  */
 public class TablePage extends BasePage {
+    public static final String TABLE_1 = "table1";
+    public static final String TABLE_2 = "table2";
+    
+    /**
+     * Reads every requested table into {headers, cells, columns}, cells flattened row by row.
+     * Text is whitespace-normalised textContent, which avoids a layout pass per cell.
+     */
+    private static final String READ_TABLES_SCRIPT =
+            "var norm = function(n) { return n.textContent.replace(/\\s+/g, ' ').trim(); };"
+            + "var result = {};"
+            + "arguments[0].forEach(function(id) {"
+            + "  var table = document.getElementById(id);"
+            + "  if (!table) { return; }"
+            + "  var headers = Array.prototype.map.call(table.querySelectorAll('" + TableSnapshot.HEADER_SELECTOR + "'), norm);"
+            + "  var rows = table.querySelectorAll('tbody tr');"
+            + "  var columns = headers.length;"
+            + "  for (var i = 0; i < rows.length; i++) { columns = Math.max(columns, rows[i].cells.length); }"
+            + "  var cells = new Array(rows.length * columns);"
+            + "  for (var r = 0; r < rows.length; r++) {"
+            + "    var rowCells = rows[r].cells;"
+            + "    for (var c = 0; c < columns; c++) {"
+            + "      cells[r * columns + c] = c < rowCells.length ? norm(rowCells[c]) : '';"
+            + "    }"
+            + "  }"
+            + "  result[id] = {headers: headers, cells: cells, columns: columns};"
+            + "});"
+            + "return result;";
+    
     
     @FindBy(css = "div.example h3")
     private WebElement pageHeading;
@@ -29,8 +59,7 @@ public class TablePage extends BasePage {
     @FindBy(css = "#table1 th")
     private List<WebElement> table1Headers;
     
-    @FindBy(css = "#table1 tbody tr")
-    private List<WebElement> table1Rows;
+    private Map<String, TableSnapshot> tableSnapshots;
     
     /**
      * Constructor
@@ -47,6 +76,7 @@ public class TablePage extends BasePage {
      * @param baseUrl Base URL of the application
      */
     public void open(String baseUrl) {
+        invalidateTableSnapshots();
         driver.get(baseUrl + "/tables");
         waitForPageToLoad();
     }
@@ -76,11 +106,7 @@ public class TablePage extends BasePage {
      * @return List of header texts
      */
     public List<String> getTable1Headers() {
-        List<String> headers = new ArrayList<>();
-        for (WebElement header : table1Headers) {
-            headers.add(header.getText());
-        }
-        return headers;
+        return getTableSnapshot(TABLE_1).getHeaders();
     }
     
     /**
@@ -89,7 +115,7 @@ public class TablePage extends BasePage {
      * @return Number of rows
      */
     public int getTable1RowCount() {
-        return table1Rows.size();
+        return getTableSnapshot(TABLE_1).getRowCount();
     }
     
     /**
@@ -100,17 +126,7 @@ public class TablePage extends BasePage {
      * @return Cell text
      */
     public String getTable1CellData(int rowIndex, int columnIndex) {
-        if (rowIndex < 0 || rowIndex >= table1Rows.size()) {
-            throw new IndexOutOfBoundsException("Invalid row index: " + rowIndex);
-        }
-        
-        List<WebElement> cells = table1Rows.get(rowIndex).findElements(By.tagName("td"));
-        
-        if (columnIndex < 0 || columnIndex >= cells.size()) {
-            throw new IndexOutOfBoundsException("Invalid column index: " + columnIndex);
-        }
-        
-        return cells.get(columnIndex).getText();
+        return getTableSnapshot(TABLE_1).getCell(rowIndex, columnIndex);
     }
     
     /**
@@ -120,21 +136,7 @@ public class TablePage extends BasePage {
      * @return List of maps containing table data
      */
     public List<Map<String, String>> getTable1Data() {
-        List<Map<String, String>> tableData = new ArrayList<>();
-        List<String> headers = getTable1Headers();
-        
-        for (int i = 0; i < table1Rows.size(); i++) {
-            Map<String, String> rowData = new HashMap<>();
-            List<WebElement> cells = table1Rows.get(i).findElements(By.tagName("td"));
-            
-            for (int j = 0; j < headers.size() && j < cells.size(); j++) {
-                rowData.put(headers.get(j), cells.get(j).getText());
-            }
-            
-            tableData.add(rowData);
-        }
-        
-        return tableData;
+        return getTableSnapshot(TABLE_1).toMaps();
     }
     
     /**
@@ -145,15 +147,15 @@ public class TablePage extends BasePage {
     public void sortTable1ByColumn(String columnName) {
         logger.info("Sorting table by column: {}", columnName);
         
-        for (WebElement header : table1Headers) {
-            if (header.getText().equals(columnName)) {
-                header.click();
-                waitForPageToLoad();
-                return;
-            }
+        int columnIndex = getColumnIndexByName(columnName);
+        if (columnIndex == -1) {
+            throw new IllegalArgumentException("Column not found: " + columnName);
         }
         
-        throw new IllegalArgumentException("Column not found: " + columnName);
+        table1Headers.get(columnIndex).click();
+        // The rows were reordered in the browser, so the snapshot is stale
+        invalidateTableSnapshots();
+        waitForPageToLoad();
     }
     
     /**
@@ -163,19 +165,7 @@ public class TablePage extends BasePage {
      * @return List of cell values in the column
      */
     public List<String> getTable1ColumnData(int columnIndex) {
-        List<String> columnData = new ArrayList<>();
-        
-        for (WebElement row : table1Rows) {
-            List<WebElement> cells = row.findElements(By.tagName("td"));
-            
-            if (columnIndex < 0 || columnIndex >= cells.size()) {
-                throw new IndexOutOfBoundsException("Invalid column index: " + columnIndex);
-            }
-            
-            columnData.add(cells.get(columnIndex).getText());
-        }
-        
-        return columnData;
+        return getTableSnapshot(TABLE_1).getColumn(columnIndex);
     }
     
     /**
@@ -185,15 +175,7 @@ public class TablePage extends BasePage {
      * @return Column index (0-based), or -1 if not found
      */
     public int getColumnIndexByName(String columnName) {
-        List<String> headers = getTable1Headers();
-        
-        for (int i = 0; i < headers.size(); i++) {
-            if (headers.get(i).equals(columnName)) {
-                return i;
-            }
-        }
-        
-        return -1;
+        return getTableSnapshot(TABLE_1).getColumnIndex(columnName);
     }
     
     /**
@@ -211,4 +193,84 @@ public class TablePage extends BasePage {
         
         return getTable1ColumnData(columnIndex);
     }
-} 
\ No newline at end of file
+    
+    /**
+     * Gets all data from table 2 as a list of maps
+     * Each map represents a row with column headers as keys
+     * 
+     * @return List of maps containing table data
+     */
+    public List<Map<String, String>> getTable2Data() {
+        return getTableSnapshot(TABLE_2).toMaps();
+    }
+    
+    /**
+     * Gets a snapshot of a table on the page.
+     * Both tables are read together in a single JavaScript call and cached
+     * until the page is reopened or a table is sorted.
+     * 
+     * @param tableId Table id (table1 or table2)
+     * @return Table snapshot
+     * @throws IllegalArgumentException if the table is not on the page
+     */
+    public TableSnapshot getTableSnapshot(String tableId) {
+        if (tableSnapshots == null) {
+            tableSnapshots = readTables(TABLE_1, TABLE_2);
+        }
+        TableSnapshot snapshot = tableSnapshots.get(tableId);
+        if (snapshot == null) {
+            throw new IllegalArgumentException("Table not found: " + tableId);
+        }
+        return snapshot;
+    }
+    
+    /**
+     * Streams the rows of a table in chunks of table.chunkSize rows.
+     * Use this instead of the snapshot methods for tables too large to hold in memory.
+     * 
+     * @param tableId Table id
+     * @return Reader over the table rows
+     */
+    public TableRowReader readTableRows(String tableId) {
+        return readTableRows(tableId, ConfigManager.getInstance().getIntProperty("table.chunkSize", 500));
+    }
+    
+    /**
+     * Streams the rows of a table in chunks of the given size
+     * 
+     * @param tableId Table id
+     * @param chunkSize Number of rows fetched per browser call
+     * @return Reader over the table rows
+     */
+    public TableRowReader readTableRows(String tableId, int chunkSize) {
+        return new TableRowReader(jsExecutor, "#" + tableId, chunkSize);
+    }
+    
+    /**
+     * Drops cached table snapshots so the next read goes to the browser
+     */
+    public void invalidateTableSnapshots() {
+        tableSnapshots = null;
+    }
+    
+    /**
+     * Reads headers and cells of the given tables in one round trip
+     * 
+     * @param tableIds Table ids
+     * @return Snapshots keyed by table id
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, TableSnapshot> readTables(String... tableIds) {
+        Map<String, Object> raw = (Map<String, Object>) jsExecutor.executeScript(READ_TABLES_SCRIPT,
+                Arrays.asList(tableIds));
+        Map<String, TableSnapshot> snapshots = new HashMap<>();
+        for (Map.Entry<String, Object> entry : raw.entrySet()) {
+            Map<String, Object> table = (Map<String, Object>) entry.getValue();
+            List<String> headers = (List<String>) table.get("headers");
+            List<String> cells = (List<String>) table.get("cells");
+            int columnCount = ((Number) table.get("columns")).intValue();
+            snapshots.put(entry.getKey(), new TableSnapshot(headers, cells.toArray(new String[0]), columnCount));
+        }
+        return snapshots;
+    }
+}
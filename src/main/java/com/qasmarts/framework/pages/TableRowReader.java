@@ -0,0 +1,219 @@
+package com.qasmarts.framework.pages;
+
+import org.openqa.selenium.JavascriptExecutor;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Streams the rows of an HTML table from the browser in fixed-size chunks.
+ * Only the current chunk is held in memory, stored column by column, and each row is
+ * a lightweight view into it that resolves column names through a shared header index.
+ * Memory use is bounded by the chunk size, not by the size of the table.
+ * <p>
+ * The table should not change while it is being read; rows added or removed in the
+ * browser between chunks can be skipped or read twice.
+ *
+ * @author Abhinav Gupta
+ */
+public class TableRowReader implements Iterator<TableRowReader.Row> {
+
+    /**
+     * Returns {total, columns, headers (first call only), cells} for rows [offset, offset + limit).
+     * Rows are addressed through tBodies so each chunk costs O(limit), not O(table size).
+     */
+    private static final String READ_CHUNK_SCRIPT =
+            "var table = document.querySelector(arguments[0]);"
+            + "if (!table) { return null; }"
+            + "var offset = arguments[1], limit = arguments[2], includeHeaders = arguments[3];"
+            + "var norm = function(n) { return n.textContent.replace(/\\s+/g, ' ').trim(); };"
+            + "var bodies = table.tBodies, total = 0;"
+            + "for (var b = 0; b < bodies.length; b++) { total += bodies[b].rows.length; }"
+            + "var headers = Array.prototype.map.call(table.querySelectorAll('" + TableSnapshot.HEADER_SELECTOR + "'), norm);"
+            + "var columns = headers.length;"
+            + "if (columns === 0 && total > 0) { columns = bodies[0].rows.length ? bodies[0].rows[0].cells.length : 0; }"
+            + "var end = Math.min(total, offset + limit), cells = [];"
+            + "var body = 0, base = 0;"
+            + "for (var i = offset; i < end; i++) {"
+            + "  while (i - base >= bodies[body].rows.length) { base += bodies[body].rows.length; body++; }"
+            + "  var rowCells = bodies[body].rows[i - base].cells;"
+            + "  for (var c = 0; c < columns; c++) { cells.push(c < rowCells.length ? norm(rowCells[c]) : ''); }"
+            + "}"
+            + "return {total: total, columns: columns, headers: includeHeaders ? headers : null, cells: cells};";
+
+    private final JavascriptExecutor jsExecutor;
+    private final String tableSelector;
+    private final int chunkSize;
+
+    private List<String> headers;
+    private Map<String, Integer> headerIndex;
+    private int columnCount;
+    private int nextOffset;
+    private boolean exhausted;
+
+    private Chunk chunk;
+    private int positionInChunk;
+
+    /**
+     * Constructor
+     *
+     * @param jsExecutor Driver used to read the table
+     * @param tableSelector CSS selector of the table
+     * @param chunkSize Number of rows fetched per browser call
+     */
+    public TableRowReader(JavascriptExecutor jsExecutor, String tableSelector, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        this.jsExecutor = jsExecutor;
+        this.tableSelector = tableSelector;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Gets the table headers, reading the first chunk if needed
+     *
+     * @return Header texts
+     */
+    public List<String> getHeaders() {
+        if (headers == null) {
+            hasNext();
+        }
+        return headers;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (chunk != null && positionInChunk < chunk.rowCount) {
+            return true;
+        }
+        if (exhausted) {
+            return false;
+        }
+        fetchNextChunk();
+        return chunk != null && positionInChunk < chunk.rowCount;
+    }
+
+    @Override
+    public Row next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return new Row(chunk, positionInChunk++);
+    }
+
+    /**
+     * Gets the remaining rows as a sequential stream
+     *
+     * @return Stream of row views
+     */
+    public Stream<Row> stream() {
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void fetchNextChunk() {
+        Map<String, Object> result = (Map<String, Object>) jsExecutor.executeScript(READ_CHUNK_SCRIPT,
+                tableSelector, nextOffset, chunkSize, headers == null);
+        if (result == null) {
+            throw new IllegalArgumentException("Table not found: " + tableSelector);
+        }
+        if (headers == null) {
+            headers = Collections.unmodifiableList((List<String>) result.get("headers"));
+            columnCount = ((Number) result.get("columns")).intValue();
+            Map<String, Integer> index = new HashMap<>();
+            for (int i = 0; i < headers.size(); i++) {
+                index.putIfAbsent(headers.get(i), i);
+            }
+            headerIndex = index;
+        }
+
+        List<String> cells = (List<String>) result.get("cells");
+        int rows = columnCount == 0 ? 0 : cells.size() / columnCount;
+        int total = ((Number) result.get("total")).intValue();
+
+        chunk = new Chunk(this, cells, rows, columnCount);
+        positionInChunk = 0;
+        nextOffset += rows;
+        exhausted = rows == 0 || nextOffset >= total;
+    }
+
+    /**
+     * Rows of one chunk, stored as one array per column
+     */
+    private static class Chunk {
+        private final TableRowReader reader;
+        private final String[][] columns;
+        private final int rowCount;
+
+        Chunk(TableRowReader reader, List<String> rowMajorCells, int rowCount, int columnCount) {
+            this.reader = reader;
+            this.rowCount = rowCount;
+            this.columns = new String[columnCount][rowCount];
+            for (int row = 0; row < rowCount; row++) {
+                for (int col = 0; col < columnCount; col++) {
+                    columns[col][row] = rowMajorCells.get(row * columnCount + col);
+                }
+            }
+        }
+    }
+
+    /**
+     * View of a single row. Holds no data of its own.
+     */
+    public static class Row {
+        private final Chunk chunk;
+        private final int index;
+
+        Row(Chunk chunk, int index) {
+            this.chunk = chunk;
+            this.index = index;
+        }
+
+        /**
+         * Gets a cell by column index
+         *
+         * @param columnIndex Column index (0-based)
+         * @return Cell text
+         */
+        public String get(int columnIndex) {
+            if (columnIndex < 0 || columnIndex >= chunk.columns.length) {
+                throw new IndexOutOfBoundsException("Invalid column index: " + columnIndex);
+            }
+            return chunk.columns[columnIndex][index];
+        }
+
+        /**
+         * Gets a cell by column name
+         *
+         * @param columnName Column name
+         * @return Cell text
+         * @throws IllegalArgumentException if the column does not exist
+         */
+        public String get(String columnName) {
+            Integer columnIndex = chunk.reader.headerIndex.get(columnName);
+            if (columnIndex == null) {
+                throw new IllegalArgumentException("Column not found: " + columnName);
+            }
+            return get(columnIndex);
+        }
+
+        /**
+         * Gets the number of columns
+         *
+         * @return Column count
+         */
+        public int size() {
+            return chunk.columns.length;
+        }
+    }
+}
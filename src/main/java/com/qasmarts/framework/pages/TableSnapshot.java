@@ -0,0 +1,139 @@
+package com.qasmarts.framework.pages;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable copy of an HTML table's headers and cell texts, taken in a single browser call.
+ * Cells are kept in one flat row-major array so large tables cost one object per cell
+ * rather than a map per row.
+ *
+ * @author Abhinav Gupta
+ */
+public class TableSnapshot {
+
+    /**
+     * CSS selector for header cells within a table, shared by every table reader so they agree on the columns
+     */
+    public static final String HEADER_SELECTOR = "th";
+
+    private final List<String> headers;
+    private final Map<String, Integer> headerIndex;
+    private final String[] cells;
+    private final int columnCount;
+    private final int rowCount;
+
+    /**
+     * Constructor
+     *
+     * @param headers Header texts
+     * @param cells Cell texts in row-major order, columnCount per row
+     * @param columnCount Number of columns per row
+     */
+    public TableSnapshot(List<String> headers, String[] cells, int columnCount) {
+        this.headers = Collections.unmodifiableList(new ArrayList<>(headers));
+        this.cells = cells;
+        this.columnCount = columnCount;
+        this.rowCount = columnCount == 0 ? 0 : cells.length / columnCount;
+
+        Map<String, Integer> index = new HashMap<>();
+        for (int i = 0; i < headers.size(); i++) {
+            // First occurrence wins, as with a linear search
+            index.putIfAbsent(headers.get(i), i);
+        }
+        this.headerIndex = index;
+    }
+
+    public List<String> getHeaders() {
+        return headers;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    /**
+     * Gets the column index by header name
+     *
+     * @param columnName Column name
+     * @return Column index (0-based), or -1 if not found
+     */
+    public int getColumnIndex(String columnName) {
+        Integer index = headerIndex.get(columnName);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Gets a single cell
+     *
+     * @param rowIndex Row index (0-based, excluding header)
+     * @param columnIndex Column index (0-based)
+     * @return Cell text
+     */
+    public String getCell(int rowIndex, int columnIndex) {
+        if (rowIndex < 0 || rowIndex >= rowCount) {
+            throw new IndexOutOfBoundsException("Invalid row index: " + rowIndex);
+        }
+        if (columnIndex < 0 || columnIndex >= columnCount) {
+            throw new IndexOutOfBoundsException("Invalid column index: " + columnIndex);
+        }
+        return cells[rowIndex * columnCount + columnIndex];
+    }
+
+    /**
+     * Gets all values of one column
+     *
+     * @param columnIndex Column index (0-based)
+     * @return List of cell values in the column
+     */
+    public List<String> getColumn(int columnIndex) {
+        if (columnIndex < 0 || columnIndex >= columnCount) {
+            throw new IndexOutOfBoundsException("Invalid column index: " + columnIndex);
+        }
+        List<String> column = new ArrayList<>(rowCount);
+        for (int row = 0; row < rowCount; row++) {
+            column.add(cells[row * columnCount + columnIndex]);
+        }
+        return column;
+    }
+
+    /**
+     * Gets one row
+     *
+     * @param rowIndex Row index (0-based, excluding header)
+     * @return List of cell values in the row
+     */
+    public List<String> getRow(int rowIndex) {
+        if (rowIndex < 0 || rowIndex >= rowCount) {
+            throw new IndexOutOfBoundsException("Invalid row index: " + rowIndex);
+        }
+        int start = rowIndex * columnCount;
+        return Collections.unmodifiableList(Arrays.asList(cells).subList(start, start + columnCount));
+    }
+
+    /**
+     * Gets all rows as maps keyed by header name
+     *
+     * @return List of maps containing table data
+     */
+    public List<Map<String, String>> toMaps() {
+        List<Map<String, String>> rows = new ArrayList<>(rowCount);
+        int width = Math.min(headers.size(), columnCount);
+        for (int row = 0; row < rowCount; row++) {
+            Map<String, String> rowData = new HashMap<>();
+            for (int col = 0; col < width; col++) {
+                rowData.put(headers.get(col), cells[row * columnCount + col]);
+            }
+            rows.add(rowData);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,104 @@
+package com.qasmarts.framework.utils;
+
+import io.restassured.response.Response;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Responses of a batch sent with ApiUtils.sendBatch, in the order the requests were given.
+ * A request failed if it threw (connection refused, timeout) or answered with a status of
+ * 400 or above; all failures are collected so a test can check them in one place.
+ *
+ * @author Abhinav Gupta
+ */
+public class ApiBatchResult {
+    private final List<ApiRequest> requests;
+    private final Response[] responses;
+    private final Throwable[] errors;
+
+    ApiBatchResult(List<ApiRequest> requests, Response[] responses, Throwable[] errors) {
+        this.requests = Collections.unmodifiableList(new ArrayList<>(requests));
+        this.responses = responses;
+        this.errors = errors;
+    }
+
+    /**
+     * Gets the number of requests in the batch
+     *
+     * @return Batch size
+     */
+    public int size() {
+        return requests.size();
+    }
+
+    /**
+     * Gets the response to one request
+     *
+     * @param index Position of the request in the batch
+     * @return Response, or null if the request threw
+     */
+    public Response getResponse(int index) {
+        return responses[index];
+    }
+
+    /**
+     * Gets all responses in request order
+     *
+     * @return Responses; null where a request threw
+     */
+    public List<Response> getResponses() {
+        return Collections.unmodifiableList(Arrays.asList(responses));
+    }
+
+    /**
+     * Gets the exception of one request
+     *
+     * @param index Position of the request in the batch
+     * @return Exception, or null if a response was received
+     */
+    public Throwable getError(int index) {
+        return errors[index];
+    }
+
+    /**
+     * Describes every failed request
+     *
+     * @return One line per failure, e.g. "#3 POST /users: status 500", in request order
+     */
+    public List<String> getFailures() {
+        List<String> failures = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            if (errors[i] != null) {
+                failures.add("#" + i + " " + requests.get(i) + ": " + errors[i]);
+            } else if (responses[i].getStatusCode() >= 400) {
+                failures.add("#" + i + " " + requests.get(i) + ": status " + responses[i].getStatusCode());
+            }
+        }
+        return failures;
+    }
+
+    /**
+     * Checks whether every request succeeded
+     *
+     * @return true if no request threw or answered with an error status
+     */
+    public boolean isSuccessful() {
+        return getFailures().isEmpty();
+    }
+
+    /**
+     * Fails the test with all failed requests listed if any request failed
+     *
+     * @throws AssertionError if a request failed
+     */
+    public void assertAllSucceeded() {
+        List<String> failures = getFailures();
+        if (!failures.isEmpty()) {
+            throw new AssertionError(failures.size() + " of " + size() + " requests failed:"
+                    + System.lineSeparator() + String.join(System.lineSeparator(), failures));
+        }
+    }
+}
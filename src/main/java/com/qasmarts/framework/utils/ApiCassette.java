@@ -0,0 +1,358 @@
+package com.qasmarts.framework.utils;
+
+import com.qasmarts.framework.config.ConfigManager;
+import io.restassured.filter.Filter;
+import io.restassured.http.Header;
+import io.restassured.response.Response;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Recorded API interactions (a cassette), stored as one JSON line per request and response.
+ * <p>
+ * In record mode ApiUtils adds {@link #recordingFilter()}, which appends every exchange to the
+ * cassette file as it happens. For replay the file is loaded once into a hash index keyed by
+ * method, path with query and a hash of the request body, so finding a response is a single
+ * map lookup. When the same request was recorded several times the answers are replayed in
+ * recorded order and the last one is repeated.
+ *
+ * @author Abhinav Gupta
+ */
+public class ApiCassette {
+    private static final Logger logger = LogManager.getLogger(ApiCassette.class);
+    private static final Set<String> SKIPPED_HEADERS = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+
+    static {
+        // RestAssured has already decoded compressed bodies, so Content-Encoding no longer applies
+        Collections.addAll(SKIPPED_HEADERS, "Content-Length", "Content-Encoding", "Transfer-Encoding", "Connection",
+                "Keep-Alive", "Date");
+    }
+
+    /**
+     * How ApiUtils uses a cassette (api.cassette.mode)
+     */
+    public enum Mode {
+        /** Requests go to the real service */
+        OFF,
+        /** Requests go to the real service and are written to the cassette */
+        RECORD,
+        /** Requests are answered from the cassette by a local server */
+        REPLAY
+    }
+
+    private static final Map<Path, ApiCassette> cassettes = new ConcurrentHashMap<>();
+
+    private final Path file;
+    private final Map<String, List<Interaction>> index = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> replayCounts = new ConcurrentHashMap<>();
+    private BufferedWriter writer;
+
+    /**
+     * Constructor with the cassette file
+     *
+     * @param file Cassette file; loaded if it exists
+     * @throws IOException if the file exists but cannot be read
+     */
+    public ApiCassette(Path file) throws IOException {
+        this.file = file;
+        if (Files.exists(file)) {
+            JsonLines.forEach(file, json -> addToIndex(Interaction.fromJson(json)));
+            logger.info("Loaded {} recorded requests from cassette {}", index.size(), file);
+        }
+    }
+
+    /**
+     * Gets the cassette for a file, loading it on first use. ApiUtils instances sharing a
+     * cassette file share one cassette, so recordings are not interleaved or truncated.
+     *
+     * @param file Cassette file
+     * @return Shared cassette
+     */
+    public static ApiCassette forFile(Path file) {
+        return cassettes.computeIfAbsent(file.toAbsolutePath().normalize(), path -> {
+            try {
+                return new ApiCassette(path);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to load cassette " + path, e);
+            }
+        });
+    }
+
+    /**
+     * Gets the configured mode
+     *
+     * @return Mode from api.cassette.mode, OFF if unset or unknown
+     */
+    public static Mode getConfiguredMode() {
+        String mode = ConfigManager.getInstance().getProperty("api.cassette.mode", "off").trim().toUpperCase();
+        try {
+            return Mode.valueOf(mode);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Unknown api.cassette.mode '{}', requests go to the real service", mode);
+            return Mode.OFF;
+        }
+    }
+
+    /**
+     * Gets the configured cassette file
+     *
+     * @return api.cassette.dir/api.cassette.name.jsonl
+     */
+    public static Path getConfiguredFile() {
+        ConfigManager config = ConfigManager.getInstance();
+        return Paths.get(config.getProperty("api.cassette.dir", "src/test/resources/cassettes"))
+                .resolve(config.getProperty("api.cassette.name", "default") + ".jsonl");
+    }
+
+    /**
+     * Gets the cassette file
+     *
+     * @return Path of the cassette
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Gets the number of distinct recorded requests
+     *
+     * @return Distinct requests
+     */
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * Creates a RestAssured filter that records every exchange into this cassette. The first
+     * recording in a JVM starts the cassette file afresh.
+     *
+     * @return Recording filter
+     */
+    public Filter recordingFilter() {
+        return (request, responseSpec, context) -> {
+            Response response = context.next(request, responseSpec);
+            Object body = request.getBody();
+            byte[] requestBody = body == null ? new byte[0] : String.valueOf(body).getBytes(StandardCharsets.UTF_8);
+            record(request.getMethod(), URI.create(request.getURI()), requestBody, response, response.getTime());
+            return response;
+        };
+    }
+
+    /**
+     * Records one exchange
+     *
+     * @param method HTTP method
+     * @param uri Full request URI
+     * @param requestBody Request body, empty if none
+     * @param response Response; its body is read
+     * @param durationMillis Response time
+     */
+    public void record(String method, URI uri, byte[] requestBody, Response response, long durationMillis) {
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        for (Header header : response.getHeaders()) {
+            if (!SKIPPED_HEADERS.contains(header.getName())) {
+                // Repeated headers such as Set-Cookie keep every value
+                headers.computeIfAbsent(header.getName(), name -> new ArrayList<>()).add(header.getValue());
+            }
+        }
+        record(new Interaction(method, getPathAndQuery(uri), hash(requestBody), response.getStatusCode(), headers,
+                response.getBody().asByteArray(), durationMillis));
+    }
+
+    /**
+     * Adds an interaction and appends it to the cassette file
+     *
+     * @param interaction Recorded exchange
+     */
+    public synchronized void record(Interaction interaction) {
+        try {
+            if (writer == null) {
+                // A new recording replaces what the cassette held before
+                index.clear();
+                replayCounts.clear();
+                if (file.getParent() != null) {
+                    Files.createDirectories(file.getParent());
+                }
+                writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+                logger.info("Recording API interactions to cassette: {}", file);
+            }
+            writer.write(interaction.toJson().toString());
+            writer.newLine();
+            writer.flush();
+        } catch (IOException e) {
+            logger.error("Failed to record API interaction: {}", e.getMessage());
+        }
+        addToIndex(interaction);
+    }
+
+    /**
+     * Finds the recorded answer to a request
+     *
+     * @param method HTTP method
+     * @param pathAndQuery Request path including the query string
+     * @param requestBody Request body, empty if none
+     * @return Recorded interaction, or null if the request was never recorded
+     */
+    public Interaction find(String method, String pathAndQuery, byte[] requestBody) {
+        String key = key(method, pathAndQuery, hash(requestBody));
+        List<Interaction> answers = index.get(key);
+        if (answers == null) {
+            return null;
+        }
+        int replay = replayCounts.computeIfAbsent(key, k -> new AtomicInteger()).getAndIncrement();
+        return answers.get(Math.min(replay, answers.size() - 1));
+    }
+
+    private void addToIndex(Interaction interaction) {
+        index.computeIfAbsent(key(interaction.method, interaction.pathAndQuery, interaction.requestHash),
+                k -> Collections.synchronizedList(new ArrayList<>())).add(interaction);
+    }
+
+    static String getPathAndQuery(URI uri) {
+        String path = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+        return uri.getRawQuery() == null ? path : path + "?" + uri.getRawQuery();
+    }
+
+    private static String key(String method, String pathAndQuery, String requestHash) {
+        return method.toUpperCase() + " " + pathAndQuery + " " + requestHash;
+    }
+
+    private static String hash(byte[] body) {
+        if (body.length == 0) {
+            return "";
+        }
+        try {
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(MessageDigest.getInstance("SHA-256").digest(body));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * One recorded request and its response
+     */
+    public static class Interaction {
+        private final String method;
+        private final String pathAndQuery;
+        private final String requestHash;
+        private final int status;
+        private final Map<String, List<String>> headers;
+        private final byte[] body;
+        private final long durationMillis;
+
+        Interaction(String method, String pathAndQuery, String requestHash, int status,
+                    Map<String, List<String>> headers, byte[] body, long durationMillis) {
+            this.method = method;
+            this.pathAndQuery = pathAndQuery;
+            this.requestHash = requestHash;
+            this.status = status;
+            this.headers = headers;
+            this.body = body;
+            this.durationMillis = durationMillis;
+        }
+
+        /**
+         * Gets the recorded status code
+         *
+         * @return Status code
+         */
+        public int getStatus() {
+            return status;
+        }
+
+        /**
+         * Gets the recorded response headers, without hop-by-hop, length and encoding headers
+         *
+         * @return Header names and their values, in the order received
+         */
+        public Map<String, List<String>> getHeaders() {
+            return headers;
+        }
+
+        /**
+         * Gets the recorded response body
+         *
+         * @return Body bytes, empty if none
+         */
+        public byte[] getBody() {
+            return body;
+        }
+
+        /**
+         * Gets how long the real service took to answer
+         *
+         * @return Recorded response time in milliseconds
+         */
+        public long getDurationMillis() {
+            return durationMillis;
+        }
+
+        JSONObject toJson() {
+            JSONObject json = new JSONObject()
+                    .put("method", method)
+                    .put("path", pathAndQuery)
+                    .put("requestHash", requestHash)
+                    .put("status", status)
+                    .put("headers", headers)
+                    .put("durationMillis", durationMillis);
+            // Text stays readable in the cassette; anything else is stored as Base64
+            try {
+                json.put("body", StandardCharsets.UTF_8.newDecoder()
+                        .onMalformedInput(CodingErrorAction.REPORT)
+                        .decode(ByteBuffer.wrap(body)).toString());
+            } catch (CharacterCodingException e) {
+                json.put("bodyBase64", Base64.getEncoder().encodeToString(body));
+            }
+            return json;
+        }
+
+        static Interaction fromJson(JSONObject json) {
+            Map<String, List<String>> headers = new LinkedHashMap<>();
+            JSONObject recordedHeaders = json.optJSONObject("headers");
+            if (recordedHeaders != null) {
+                for (String name : recordedHeaders.keySet()) {
+                    List<String> values = new ArrayList<>();
+                    JSONArray recordedValues = recordedHeaders.getJSONArray(name);
+                    for (int i = 0; i < recordedValues.length(); i++) {
+                        values.add(recordedValues.getString(i));
+                    }
+                    headers.put(name, values);
+                }
+            }
+            return new Interaction(json.getString("method"), json.getString("path"), json.optString("requestHash"),
+                    json.getInt("status"), headers, json.has("bodyBase64")
+                            ? Base64.getDecoder().decode(json.getString("bodyBase64"))
+                            : json.optString("body").getBytes(StandardCharsets.UTF_8),
+                    json.optLong("durationMillis"));
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.qasmarts.framework.utils;
+
+import com.qasmarts.framework.config.ConfigManager;
+import io.restassured.config.HttpClientConfig;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHost;
+import org.apache.http.client.params.ClientPNames;
+import org.apache.http.conn.ClientConnectionOperator;
+import org.apache.http.conn.OperatedClientConnection;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.scheme.SchemeRegistry;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.DefaultClientConnectionOperator;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.impl.conn.SchemeRegistryFactory;
+import org.apache.http.params.HttpParams;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HttpContext;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process-wide pool of keep-alive HTTP connections shared by every ApiUtils instance.
+ * <p>
+ * RestAssured normally creates an HTTP client per request and shuts its connection manager
+ * down afterwards, so each call pays for a new TCP (and TLS) handshake. This pool hands
+ * RestAssured one client backed by a pooling connection manager instead; connections are
+ * returned to the pool once a response has been read and reused by the next call to the
+ * same host. Limits come from api.pool.maxPerRoute, api.pool.maxTotal,
+ * api.pool.timeToLiveSeconds and api.pool.acquireTimeoutSeconds (how long a request may wait
+ * for a free connection). Asynchronous requests use a separate java.net.http client, see
+ * {@link #getAsyncClient()}.
+ *
+ * @author Abhinav Gupta
+ */
+public class ApiConnectionPool {
+    private static final Logger logger = LogManager.getLogger(ApiConnectionPool.class);
+    private static final AtomicLong created = new AtomicLong();
+    private static final Map<String, AtomicLong> createdPerHost = new ConcurrentHashMap<>();
+
+    // RestAssured's httpClientFactory only accepts the deprecated AbstractHttpClient API of HttpClient 4
+    @SuppressWarnings("deprecation")
+    private static PoolingClientConnectionManager connectionManager;
+    @SuppressWarnings("deprecation")
+    private static DefaultHttpClient httpClient;
+    private static HttpClient asyncClient;
+
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private ApiConnectionPool() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Gets a RestAssured client configuration that reuses the pooled client
+     *
+     * @return HttpClientConfig backed by the shared pool
+     */
+    public static HttpClientConfig getHttpClientConfig() {
+        return HttpClientConfig.httpClientConfig()
+                .httpClientFactory(ApiConnectionPool::getHttpClient)
+                .reuseHttpClientInstance();
+    }
+
+    /**
+     * Gets the shared client, creating it and its connection pool on first use
+     *
+     * @return Pooled HTTP client
+     */
+    @SuppressWarnings("deprecation") // RestAssured's client factory still needs DefaultHttpClient
+    public static synchronized DefaultHttpClient getHttpClient() {
+        if (httpClient == null) {
+            ConfigManager config = ConfigManager.getInstance();
+            int maxPerRoute = Math.max(1, config.getIntProperty("api.pool.maxPerRoute", 20));
+            int maxTotal = Math.max(maxPerRoute, config.getIntProperty("api.pool.maxTotal", 100));
+            int timeToLive = config.getIntProperty("api.pool.timeToLiveSeconds", 60);
+            int acquireTimeout = config.getIntProperty("api.pool.acquireTimeoutSeconds", 60);
+
+            connectionManager = new CountingConnectionManager(SchemeRegistryFactory.createSystemDefault(),
+                    timeToLive > 0 ? timeToLive : -1, TimeUnit.SECONDS);
+            connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+            connectionManager.setMaxTotal(maxTotal);
+            httpClient = new DefaultHttpClient(connectionManager);
+            httpClient.getParams().setLongParameter(ClientPNames.CONN_MANAGER_TIMEOUT,
+                    TimeUnit.SECONDS.toMillis(Math.max(1, acquireTimeout)));
+            // RestAssured never consumes an empty error body (e.g. a bare 404), which would keep its
+            // connection leased forever. Without an entity the connection is released right away.
+            httpClient.addResponseInterceptor((response, context) -> {
+                HttpEntity entity = response.getEntity();
+                if (entity != null && entity.getContentLength() == 0) {
+                    response.setEntity(null);
+                }
+            });
+            logger.info("Created pooled HTTP client (max {} connections per route, {} in total)", maxPerRoute, maxTotal);
+        }
+        return httpClient;
+    }
+
+    /**
+     * Gets the shared non-blocking client used for asynchronous and batch requests. It prefers
+     * HTTP/2, so concurrent requests to a server that supports it share one connection; other
+     * servers are spoken to over HTTP/1.1 keep-alive connections.
+     *
+     * @return HTTP client
+     */
+    public static synchronized HttpClient getAsyncClient() {
+        if (asyncClient == null) {
+            int connectTimeout = ConfigManager.getInstance().getIntProperty("api.async.connectTimeoutSeconds", 10);
+            asyncClient = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_2)
+                    .connectTimeout(Duration.ofSeconds(Math.max(1, connectTimeout)))
+                    .followRedirects(HttpClient.Redirect.NORMAL)
+                    .build();
+            logger.info("Created asynchronous HTTP/2 client");
+        }
+        return asyncClient;
+    }
+
+    /**
+     * Gets the number of connections currently handed out to requests
+     *
+     * @return Leased connections
+     */
+    public static int getLeased() {
+        return getTotalStats().getLeased();
+    }
+
+    /**
+     * Gets the number of connections to one host currently handed out to requests
+     *
+     * @param baseUrl URL of the host, e.g. the base URL of an ApiUtils instance
+     * @return Leased connections to that host
+     */
+    public static synchronized int getLeased(String baseUrl) {
+        if (connectionManager == null) {
+            return 0;
+        }
+        URI uri = URI.create(baseUrl);
+        HttpHost host = new HttpHost(uri.getHost(), uri.getPort(), uri.getScheme());
+        return connectionManager.getStats(new HttpRoute(host, null, "https".equalsIgnoreCase(uri.getScheme())))
+                .getLeased();
+    }
+
+    /**
+     * Gets the number of idle connections kept open for reuse
+     *
+     * @return Available connections
+     */
+    public static int getAvailable() {
+        return getTotalStats().getAvailable();
+    }
+
+    /**
+     * Gets the number of connections opened since the pool was created
+     *
+     * @return Created connections
+     */
+    public static long getCreated() {
+        return created.get();
+    }
+
+    /**
+     * Gets the number of connections to one host opened since the pool was created
+     *
+     * @param baseUrl URL of the host, e.g. the base URL of an ApiUtils instance
+     * @return Created connections to that host
+     */
+    public static long getCreated(String baseUrl) {
+        URI uri = URI.create(baseUrl);
+        AtomicLong count = createdPerHost.get(hostKey(uri.getScheme(), uri.getHost(), uri.getPort()));
+        return count == null ? 0 : count.get();
+    }
+
+    /**
+     * Gets pool statistics for logging
+     *
+     * @return Leased, available, pending and created connections
+     */
+    public static String getStats() {
+        PoolStats stats = getTotalStats();
+        return String.format("leased=%d, available=%d, pending=%d, created=%d (max %d)",
+                stats.getLeased(), stats.getAvailable(), stats.getPending(), created.get(), stats.getMax());
+    }
+
+    private static String hostKey(String scheme, String host, int port) {
+        int effectivePort = port >= 0 ? port : "https".equalsIgnoreCase(scheme) ? 443 : 80;
+        return scheme.toLowerCase() + "://" + host.toLowerCase() + ":" + effectivePort;
+    }
+
+    private static synchronized PoolStats getTotalStats() {
+        return connectionManager == null ? new PoolStats(0, 0, 0, 0) : connectionManager.getTotalStats();
+    }
+
+    /**
+     * Connection manager that counts every socket it opens
+     */
+    @SuppressWarnings("deprecation") // the pool type DefaultHttpClient accepts
+    private static class CountingConnectionManager extends PoolingClientConnectionManager {
+
+        CountingConnectionManager(SchemeRegistry schemes, long timeToLive, TimeUnit unit) {
+            super(schemes, timeToLive, unit);
+        }
+
+        @Override
+        protected ClientConnectionOperator createConnectionOperator(SchemeRegistry schemes) {
+            return new DefaultClientConnectionOperator(schemes) {
+                @Override
+                public void openConnection(OperatedClientConnection connection, HttpHost target, InetAddress local,
+                                           HttpContext context, HttpParams params) throws IOException {
+                    super.openConnection(connection, target, local, context, params);
+                    created.incrementAndGet();
+                    createdPerHost.computeIfAbsent(hostKey(target.getSchemeName(), target.getHostName(), target.getPort()),
+                            key -> new AtomicLong()).incrementAndGet();
+                }
+            };
+        }
+    }
+}
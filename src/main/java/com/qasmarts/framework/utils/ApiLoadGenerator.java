@@ -0,0 +1,354 @@
+package com.qasmarts.framework.utils;
+
+import com.qasmarts.framework.config.ConfigManager;
+import io.restassured.response.Response;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Drives a scenario of ApiUtils calls under load and measures how the endpoints behave.
+ * <p>
+ * A scenario is an ordered list of named steps, each one ApiUtils call. Two load models are
+ * supported:
+ * <ul>
+ *     <li>Closed (ratePerSecond = 0): concurrency workers run the scenario back to back for the
+ *     whole duration, so throughput is whatever the server sustains.</li>
+ *     <li>Open (ratePerSecond &gt; 0): scenario iterations start on a fixed schedule and run on up
+ *     to concurrency threads. Latency is measured from the scheduled start, so time spent waiting
+ *     for a free thread behind a slow server is counted instead of hidden (coordinated omission).</li>
+ * </ul>
+ * A step fails if it throws or answers with a status of 400 or above; a step that throws ends
+ * its iteration. The scenario runs once before measuring starts, so class loading and the
+ * first connections do not show up as latency. Defaults come from api.load.*.
+ *
+ * @author Abhinav Gupta
+ */
+public class ApiLoadGenerator {
+    private static final Logger logger = LogManager.getLogger(ApiLoadGenerator.class);
+
+    private final ApiUtils apiUtils;
+    private final Map<String, Function<ApiUtils, Response>> steps = new LinkedHashMap<>();
+    private int concurrency;
+    private double ratePerSecond;
+    private Duration duration;
+
+    /**
+     * Constructor with the client the scenario runs against
+     *
+     * @param apiUtils ApiUtils instance used by every step
+     */
+    public ApiLoadGenerator(ApiUtils apiUtils) {
+        ConfigManager config = ConfigManager.getInstance();
+        this.apiUtils = apiUtils;
+        this.concurrency = Math.max(1, config.getIntProperty("api.load.concurrency", 10));
+        this.ratePerSecond = Math.max(0, config.getIntProperty("api.load.ratePerSecond", 0));
+        this.duration = Duration.ofSeconds(Math.max(1, config.getIntProperty("api.load.durationSeconds", 30)));
+    }
+
+    /**
+     * Adds a step to the scenario
+     *
+     * @param name Step name used in the results, e.g. "GET /users"
+     * @param call ApiUtils call to make, e.g. api -&gt; api.sendGetRequest("/users")
+     * @return This generator
+     */
+    public ApiLoadGenerator step(String name, Function<ApiUtils, Response> call) {
+        steps.put(name, call);
+        return this;
+    }
+
+    /**
+     * Sets the number of threads running the scenario
+     *
+     * @param concurrency Worker threads (closed model) or maximum in-flight iterations (open model)
+     * @return This generator
+     */
+    public ApiLoadGenerator concurrency(int concurrency) {
+        this.concurrency = Math.max(1, concurrency);
+        return this;
+    }
+
+    /**
+     * Sets the target rate of scenario iterations
+     *
+     * @param ratePerSecond Iterations started per second, or 0 to run as fast as the workers can
+     * @return This generator
+     */
+    public ApiLoadGenerator ratePerSecond(double ratePerSecond) {
+        this.ratePerSecond = Math.max(0, ratePerSecond);
+        return this;
+    }
+
+    /**
+     * Sets how long new iterations are started for
+     *
+     * @param duration Run time; iterations still in flight at the end are allowed to finish
+     * @return This generator
+     */
+    public ApiLoadGenerator duration(Duration duration) {
+        this.duration = duration;
+        return this;
+    }
+
+    /**
+     * Runs the scenario and blocks until it is done
+     *
+     * @return Throughput, errors and latency percentiles
+     */
+    public Result run() {
+        if (steps.isEmpty()) {
+            throw new IllegalStateException("The load scenario has no steps");
+        }
+        int poolLimit = ConfigManager.getInstance().getIntProperty("api.pool.maxPerRoute", 20);
+        if (concurrency > poolLimit) {
+            logger.warn("Load concurrency {} is above api.pool.maxPerRoute {}; requests will queue for connections",
+                    concurrency, poolLimit);
+        }
+        logger.info("Starting API load: {} steps, concurrency {}, {}, for {} s", steps.size(), concurrency,
+                ratePerSecond > 0 ? ratePerSecond + " iterations/s" : "closed loop", duration.getSeconds());
+
+        runIteration(new Result(steps.keySet()), System.nanoTime());
+
+        Result result = new Result(steps.keySet());
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency, runnable -> {
+            Thread thread = new Thread(runnable, "api-load-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        long start = System.nanoTime();
+        long deadline = start + duration.toNanos();
+        try {
+            if (ratePerSecond > 0) {
+                runOpen(workers, result, start, deadline);
+            } else {
+                runClosed(workers, result, deadline);
+            }
+            workers.shutdown();
+            if (!workers.awaitTermination(Math.max(30, duration.getSeconds()), TimeUnit.SECONDS)) {
+                logger.warn("API load iterations still running after the grace period were abandoned");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            workers.shutdownNow();
+        }
+        result.elapsedNanos = System.nanoTime() - start;
+        logger.info("API load finished: {}", result);
+        return result;
+    }
+
+    private void runClosed(ExecutorService workers, Result result, long deadline) {
+        for (int i = 0; i < concurrency; i++) {
+            workers.execute(() -> {
+                while (System.nanoTime() < deadline && !Thread.currentThread().isInterrupted()) {
+                    runIteration(result, System.nanoTime());
+                }
+            });
+        }
+    }
+
+    private void runOpen(ExecutorService workers, Result result, long start, long deadline)
+            throws InterruptedException {
+        double intervalNanos = TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+        for (long iteration = 0; ; iteration++) {
+            long scheduled = start + (long) (iteration * intervalNanos);
+            if (scheduled >= deadline) {
+                return;
+            }
+            long wait;
+            while ((wait = scheduled - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+            workers.execute(() -> runIteration(result, scheduled));
+        }
+    }
+
+    /**
+     * Runs every step once
+     *
+     * @param result Result to record into
+     * @param scheduled When the iteration should have started; the first step's latency counts from here
+     */
+    private void runIteration(Result result, long scheduled) {
+        long stepStart = scheduled;
+        for (Map.Entry<String, Function<ApiUtils, Response>> step : steps.entrySet()) {
+            boolean failed;
+            boolean aborted = false;
+            try {
+                Response response = step.getValue().apply(apiUtils);
+                failed = response == null || response.getStatusCode() >= 400;
+                if (response != null) {
+                    discardBody(response);
+                }
+            } catch (RuntimeException e) {
+                logger.debug("Load step {} failed: {}", step.getKey(), e.getMessage());
+                failed = true;
+                aborted = true;
+            }
+            long end = System.nanoTime();
+            result.record(step.getKey(), end - stepStart, failed);
+            if (aborted) {
+                break;
+            }
+            stepStart = end;
+        }
+        result.iterations.increment();
+    }
+
+    /**
+     * Reads what is left of a body, e.g. a download ApiUtils did not buffer, so its pooled
+     * connection is released
+     */
+    private static void discardBody(Response response) {
+        try (InputStream body = response.getBody().asInputStream()) {
+            body.transferTo(OutputStream.nullOutputStream());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Outcome of a load run
+     */
+    public static class Result {
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final Map<String, LatencyHistogram> stepLatency;
+        private final Map<String, LongAdder> stepErrors;
+        private final LongAdder iterations = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private volatile long elapsedNanos;
+
+        Result(Iterable<String> stepNames) {
+            Map<String, LatencyHistogram> latencies = new LinkedHashMap<>();
+            Map<String, LongAdder> failures = new LinkedHashMap<>();
+            for (String name : stepNames) {
+                latencies.put(name, new LatencyHistogram());
+                failures.put(name, new LongAdder());
+            }
+            this.stepLatency = Collections.unmodifiableMap(latencies);
+            this.stepErrors = Collections.unmodifiableMap(failures);
+        }
+
+        void record(String step, long nanos, boolean failed) {
+            latency.record(nanos, TimeUnit.NANOSECONDS);
+            stepLatency.get(step).record(nanos, TimeUnit.NANOSECONDS);
+            if (failed) {
+                errors.increment();
+                stepErrors.get(step).increment();
+            }
+        }
+
+        /**
+         * Gets the number of requests made
+         *
+         * @return Requests
+         */
+        public long getRequests() {
+            return latency.getCount();
+        }
+
+        /**
+         * Gets the number of completed scenario iterations
+         *
+         * @return Iterations
+         */
+        public long getIterations() {
+            return iterations.sum();
+        }
+
+        /**
+         * Gets the number of failed requests
+         *
+         * @return Errors
+         */
+        public long getErrors() {
+            return errors.sum();
+        }
+
+        /**
+         * Gets the share of failed requests
+         *
+         * @return Error rate between 0 and 1
+         */
+        public double getErrorRate() {
+            long requests = getRequests();
+            return requests == 0 ? 0 : (double) getErrors() / requests;
+        }
+
+        /**
+         * Gets the achieved request rate
+         *
+         * @return Requests per second over the whole run
+         */
+        public double getThroughput() {
+            return elapsedNanos == 0 ? 0 : getRequests() * 1e9 / elapsedNanos;
+        }
+
+        /**
+         * Gets the latency of all requests
+         *
+         * @return Histogram in microseconds
+         */
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+
+        /**
+         * Gets the latency of one step
+         *
+         * @param step Step name
+         * @return Histogram in microseconds, or null for an unknown step
+         */
+        public LatencyHistogram getLatency(String step) {
+            return stepLatency.get(step);
+        }
+
+        /**
+         * Gets the number of failed requests of one step
+         *
+         * @param step Step name
+         * @return Errors, 0 for an unknown step
+         */
+        public long getErrors(String step) {
+            LongAdder failures = stepErrors.get(step);
+            return failures == null ? 0 : failures.sum();
+        }
+
+        /**
+         * Formats the result, one line per step after the totals
+         *
+         * @return Summary
+         */
+        @Override
+        public String toString() {
+            List<String> lines = new ArrayList<>();
+            lines.add(String.format("%d requests in %.1f s (%.1f/s), errors %d (%.2f%%), latency %s",
+                    getRequests(), elapsedNanos / 1e9, getThroughput(), getErrors(), getErrorRate() * 100, latency));
+            stepLatency.forEach((name, histogram) -> lines.add(String.format("  %s: errors %d, latency %s",
+                    name, getErrors(name), histogram)));
+            return String.join(System.lineSeparator(), lines);
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package com.qasmarts.framework.utils;
+
+import com.qasmarts.framework.config.ConfigManager;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Embedded HTTP server that answers requests from an {@link ApiCassette}, so API tests run
+ * offline and at a speed that does not depend on the real service.
+ * <p>
+ * Answers can be delayed and failed on purpose through a {@link Profile} (api.cassette.replay.*):
+ * a fixed latency plus random jitter, or the latency recorded from the real service, and a share
+ * of requests answered with an error status. The random choices come from a seeded generator,
+ * so the same profile produces the same delays and failures on every run. Delayed answers wait
+ * on a scheduler rather than in a sleeping thread, so many slow requests do not tie up threads.
+ * Requests that were never recorded are answered with 501.
+ *
+ * @author Abhinav Gupta
+ */
+public class ApiReplayServer {
+    private static final Logger logger = LogManager.getLogger(ApiReplayServer.class);
+    private static final Map<Path, ApiReplayServer> servers = new ConcurrentHashMap<>();
+
+    private final ApiCassette cassette;
+    private final Profile profile;
+    private final Random random;
+    private final HttpServer server;
+    private final ScheduledExecutorService scheduler;
+    private final AtomicLong served = new AtomicLong();
+    private final AtomicLong unmatched = new AtomicLong();
+    private final AtomicLong injectedErrors = new AtomicLong();
+
+    /**
+     * Starts a server for a cassette on a free local port
+     *
+     * @param cassette Recorded interactions to serve
+     * @param profile Latency and error injection
+     * @throws IOException if the server cannot be started
+     */
+    public ApiReplayServer(ApiCassette cassette, Profile profile) throws IOException {
+        this.cassette = cassette;
+        this.profile = profile;
+        this.random = new Random(profile.seed);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.scheduler = Executors.newScheduledThreadPool(Math.max(1, profile.threads), runnable -> {
+            Thread thread = new Thread(runnable, "api-replay-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(scheduler);
+        server.start();
+        logger.info("Replaying {} recorded requests from {} at {}", cassette.size(), cassette.getFile(), getBaseUrl());
+    }
+
+    /**
+     * Gets the server for a cassette, starting it with the configured profile on first use
+     *
+     * @param cassette Recorded interactions to serve
+     * @return Shared server for that cassette
+     */
+    public static ApiReplayServer forCassette(ApiCassette cassette) {
+        return servers.computeIfAbsent(cassette.getFile(), file -> {
+            try {
+                ApiReplayServer replayServer = new ApiReplayServer(cassette, Profile.fromConfig());
+                Runtime.getRuntime().addShutdownHook(new Thread(replayServer::stop, "api-replay-shutdown"));
+                return replayServer;
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to start replay server for " + file, e);
+            }
+        });
+    }
+
+    /**
+     * Gets the address of the server
+     *
+     * @return Base URL such as http://127.0.0.1:54321
+     */
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    /**
+     * Gets replay statistics for logging
+     *
+     * @return Served, unmatched and injected error counts
+     */
+    public String getStats() {
+        return String.format("served=%d, unmatched=%d, injectedErrors=%d",
+                served.get(), unmatched.get(), injectedErrors.get());
+    }
+
+    /**
+     * Stops the server
+     */
+    public void stop() {
+        server.stop(0);
+        scheduler.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        byte[] requestBody;
+        try (InputStream body = exchange.getRequestBody()) {
+            requestBody = body.readAllBytes();
+        }
+        URI uri = exchange.getRequestURI();
+        ApiCassette.Interaction interaction =
+                cassette.find(exchange.getRequestMethod(), ApiCassette.getPathAndQuery(uri), requestBody);
+
+        long delay;
+        boolean fail;
+        synchronized (random) {
+            delay = profile.latencyMillis + (profile.jitterMillis > 0 ? random.nextInt(profile.jitterMillis + 1) : 0);
+            fail = profile.errorRate > 0 && random.nextDouble() < profile.errorRate;
+        }
+        if (profile.recordedLatency && interaction != null) {
+            delay += interaction.getDurationMillis();
+        }
+        if (delay <= 0) {
+            respond(exchange, interaction, fail);
+        } else {
+            scheduler.schedule(() -> respond(exchange, interaction, fail), delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void respond(HttpExchange exchange, ApiCassette.Interaction interaction, boolean fail) {
+        try (OutputStream out = exchange.getResponseBody()) {
+            if (fail) {
+                injectedErrors.incrementAndGet();
+                exchange.sendResponseHeaders(profile.errorStatus, -1);
+                return;
+            }
+            if (interaction == null) {
+                unmatched.incrementAndGet();
+                logger.warn("No recorded response for {} {}", exchange.getRequestMethod(), exchange.getRequestURI());
+                byte[] message = ("No recorded response for " + exchange.getRequestMethod() + " "
+                        + exchange.getRequestURI()).getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+                exchange.sendResponseHeaders(501, message.length);
+                out.write(message);
+                return;
+            }
+            served.incrementAndGet();
+            interaction.getHeaders().forEach((name, values) ->
+                    values.forEach(value -> exchange.getResponseHeaders().add(name, value)));
+            byte[] body = interaction.getBody();
+            exchange.sendResponseHeaders(interaction.getStatus(), body.length == 0 ? -1 : body.length);
+            out.write(body);
+        } catch (IOException e) {
+            logger.debug("Failed to send replayed response: {}", e.getMessage());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Latency and error injection for replayed responses
+     */
+    public static class Profile {
+        private int latencyMillis;
+        private int jitterMillis;
+        private boolean recordedLatency;
+        private double errorRate;
+        private int errorStatus = 503;
+        private long seed = 42;
+        private int threads = 4;
+
+        /**
+         * Creates a profile from api.cassette.replay.*
+         *
+         * @return Configured profile
+         */
+        public static Profile fromConfig() {
+            ConfigManager config = ConfigManager.getInstance();
+            return new Profile()
+                    .latencyMillis(config.getIntProperty("api.cassette.replay.latencyMillis", 0))
+                    .jitterMillis(config.getIntProperty("api.cassette.replay.jitterMillis", 0))
+                    .recordedLatency(config.getBooleanProperty("api.cassette.replay.recordedLatency", false))
+                    .errorRate(config.getDoubleProperty("api.cassette.replay.errorRate", 0))
+                    .errorStatus(config.getIntProperty("api.cassette.replay.errorStatus", 503))
+                    .seed(config.getIntProperty("api.cassette.replay.seed", 42))
+                    .threads(config.getIntProperty("api.cassette.replay.threads", 4));
+        }
+
+        /**
+         * Sets a fixed delay added to every answer
+         *
+         * @param latencyMillis Delay in milliseconds
+         * @return This profile
+         */
+        public Profile latencyMillis(int latencyMillis) {
+            this.latencyMillis = Math.max(0, latencyMillis);
+            return this;
+        }
+
+        /**
+         * Sets the maximum random delay added on top of the fixed latency
+         *
+         * @param jitterMillis Maximum extra delay in milliseconds
+         * @return This profile
+         */
+        public Profile jitterMillis(int jitterMillis) {
+            this.jitterMillis = Math.max(0, jitterMillis);
+            return this;
+        }
+
+        /**
+         * Sets whether answers are also delayed by the time the real service took when recorded
+         *
+         * @param recordedLatency true to replay recorded response times
+         * @return This profile
+         */
+        public Profile recordedLatency(boolean recordedLatency) {
+            this.recordedLatency = recordedLatency;
+            return this;
+        }
+
+        /**
+         * Sets the share of requests answered with the error status
+         *
+         * @param errorRate Share between 0 and 1
+         * @return This profile
+         */
+        public Profile errorRate(double errorRate) {
+            this.errorRate = Math.min(1, Math.max(0, errorRate));
+            return this;
+        }
+
+        /**
+         * Sets the status of injected errors
+         *
+         * @param errorStatus Status code, e.g. 503
+         * @return This profile
+         */
+        public Profile errorStatus(int errorStatus) {
+            this.errorStatus = errorStatus;
+            return this;
+        }
+
+        /**
+         * Sets the seed of the random jitter and errors
+         *
+         * @param seed Seed
+         * @return This profile
+         */
+        public Profile seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        /**
+         * Sets the number of threads answering requests
+         *
+         * @param threads Threads
+         * @return This profile
+         */
+        public Profile threads(int threads) {
+            this.threads = Math.max(1, threads);
+            return this;
+        }
+    }
+}
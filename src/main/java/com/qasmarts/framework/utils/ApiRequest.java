@@ -0,0 +1,95 @@
+package com.qasmarts.framework.utils;
+
+/**
+ * One request of an asynchronous or batch call on ApiUtils
+ *
+ * @author Abhinav Gupta
+ */
+public class ApiRequest {
+    private final String method;
+    private final String endpoint;
+    private final String body;
+
+    /**
+     * Constructor with all request parts
+     *
+     * @param method HTTP method
+     * @param endpoint API endpoint, relative to the base URL; may include a query string
+     * @param body Request body as string (JSON), or null for none
+     */
+    public ApiRequest(String method, String endpoint, String body) {
+        this.method = method.toUpperCase();
+        this.endpoint = endpoint;
+        this.body = body;
+    }
+
+    /**
+     * Creates a GET request
+     *
+     * @param endpoint API endpoint
+     * @return Request
+     */
+    public static ApiRequest get(String endpoint) {
+        return new ApiRequest("GET", endpoint, null);
+    }
+
+    /**
+     * Creates a POST request
+     *
+     * @param endpoint API endpoint
+     * @param body Request body as string (JSON)
+     * @return Request
+     */
+    public static ApiRequest post(String endpoint, String body) {
+        return new ApiRequest("POST", endpoint, body);
+    }
+
+    /**
+     * Creates a PUT request
+     *
+     * @param endpoint API endpoint
+     * @param body Request body as string (JSON)
+     * @return Request
+     */
+    public static ApiRequest put(String endpoint, String body) {
+        return new ApiRequest("PUT", endpoint, body);
+    }
+
+    /**
+     * Creates a PATCH request
+     *
+     * @param endpoint API endpoint
+     * @param body Request body as string (JSON)
+     * @return Request
+     */
+    public static ApiRequest patch(String endpoint, String body) {
+        return new ApiRequest("PATCH", endpoint, body);
+    }
+
+    /**
+     * Creates a DELETE request
+     *
+     * @param endpoint API endpoint
+     * @return Request
+     */
+    public static ApiRequest delete(String endpoint) {
+        return new ApiRequest("DELETE", endpoint, null);
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    @Override
+    public String toString() {
+        return method + " " + endpoint;
+    }
+}
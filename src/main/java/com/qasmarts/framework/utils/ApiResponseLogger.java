@@ -0,0 +1,139 @@
+package com.qasmarts.framework.utils;
+
+import com.qasmarts.framework.config.ConfigManager;
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.response.Response;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Logs API response bodies without paying for it when nobody reads the log.
+ * <p>
+ * RestAssured reads a response body only when it is asked for, and the pooled connection is
+ * released once it has been read. Bodies are therefore only read for logging when debug is
+ * enabled and the response is sampled (api.log.sampleEvery: 1 in N successful responses;
+ * failures are always logged). Logged text is cut at api.log.maxBodyChars. Bodies declared
+ * larger than api.log.inlineLimitBytes, or binary ones, are streamed to a file under
+ * api.log.bodyDir instead of the log, and the caller gets a response holding the body.
+ * <p>
+ * When the body is not logged it is still read, so its connection goes back to the pool even
+ * if the caller only checks the status.
+ *
+ * @author Abhinav Gupta
+ */
+public class ApiResponseLogger {
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss_SSS");
+    private static final AtomicLong successes = new AtomicLong();
+    private static final AtomicInteger sequence = new AtomicInteger();
+
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private ApiResponseLogger() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Logs a response
+     *
+     * @param logger Logger of the calling class; the body is only logged at debug level
+     * @param response Response to log
+     * @return The response, or an equivalent one reading its body from the side file
+     */
+    public static Response log(Logger logger, Response response) {
+        int status = response.getStatusCode();
+        logger.info("Response status code: {}", status);
+
+        ConfigManager config = ConfigManager.getInstance();
+        long inlineLimit = config.getIntProperty("api.log.inlineLimitBytes", 65536);
+        long length = getContentLength(response);
+        // Chunked JSON has no length; it is treated as small, like most API payloads
+        boolean inline = length <= inlineLimit && isText(response.getContentType());
+
+        if (!logger.isDebugEnabled() || !isSampled(status, config)) {
+            // Cheaper than decoding, and releases the connection
+            response.getBody().asByteArray();
+            return response;
+        }
+        if (inline) {
+            logger.debug("Response body: {}", abbreviate(response.getBody().asString(),
+                    config.getIntProperty("api.log.maxBodyChars", 2000)));
+            return response;
+        }
+        return writeToSideFile(logger, response, config);
+    }
+
+    /**
+     * Cuts text to the configured size for logging
+     *
+     * @param text Text to log, e.g. a request body
+     * @return Text of at most api.log.maxBodyChars characters, with a note of what was cut
+     */
+    public static String abbreviate(String text) {
+        return abbreviate(text, ConfigManager.getInstance().getIntProperty("api.log.maxBodyChars", 2000));
+    }
+
+    private static String abbreviate(String text, int maxChars) {
+        if (text == null || maxChars <= 0 || text.length() <= maxChars) {
+            return text;
+        }
+        return text.substring(0, maxChars) + "... (" + (text.length() - maxChars) + " more characters)";
+    }
+
+    private static boolean isSampled(int status, ConfigManager config) {
+        if (status >= 400) {
+            return true;
+        }
+        int every = Math.max(1, config.getIntProperty("api.log.sampleEvery", 1));
+        return successes.getAndIncrement() % every == 0;
+    }
+
+    private static Response writeToSideFile(Logger logger, Response response, ConfigManager config) {
+        Path dir = Paths.get(config.getProperty("api.log.bodyDir", "target/api-logs"));
+        Path file = dir.resolve(LocalDateTime.now().format(TIMESTAMP_FORMAT) + "_" + sequence.incrementAndGet()
+                + "_" + response.getStatusCode() + ".body");
+        try {
+            Files.createDirectories(dir);
+            long bytes;
+            try (InputStream body = response.getBody().asInputStream()) {
+                bytes = Files.copy(body, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            logger.debug("Response body ({} bytes, {}) written to: {}", bytes, response.getContentType(), file);
+            return new ResponseBuilder().clone(response).setBody(Files.readAllBytes(file)).build();
+        } catch (IOException e) {
+            logger.warn("Failed to write response body to {}: {}", file, e.getMessage());
+            return response;
+        }
+    }
+
+    private static long getContentLength(Response response) {
+        String header = response.getHeader("Content-Length");
+        if (header == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(header.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static boolean isText(String contentType) {
+        if (contentType == null || contentType.isEmpty()) {
+            return true;
+        }
+        String type = contentType.toLowerCase();
+        return type.startsWith("text/") || type.contains("json") || type.contains("xml")
+                || type.contains("javascript") || type.contains("x-www-form-urlencoded");
+    }
+}
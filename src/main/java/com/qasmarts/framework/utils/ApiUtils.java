@@ -1,32 +1,90 @@
 package com.qasmarts.framework.utils;
 
+import com.qasmarts.framework.config.ConfigManager;
 import io.restassured.RestAssured;
+import io.restassured.builder.RequestSpecBuilder;
+import io.restassured.builder.ResponseBuilder;
 import io.restassured.http.ContentType;
+import io.restassured.http.Header;
+import io.restassured.http.Headers;
 import io.restassured.response.Response;
 import io.restassured.specification.RequestSpecification;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Utility class for handling REST API operations
  * This class uses RestAssured for API testing
+ * <p>
+ * The common request settings are built once per instance, and all instances send their
+ * requests over the keep-alive connections of {@link ApiConnectionPool}.
+ * With api.cassette.mode=record every exchange is saved to an {@link ApiCassette}; with
+ * replay, requests go to a local {@link ApiReplayServer} serving that cassette instead.
+ * <p>
+ * The send*Async methods and {@link #sendBatch(List)} do not block: they go through the
+ * shared java.net.http client, which multiplexes requests over HTTP/2 where the server
+ * supports it, and hand back RestAssured responses so checks look the same as for blocking calls.
  * 
  * @author Abhinav Gupta
  */
 public class ApiUtils {
     private static final Logger logger = LogManager.getLogger(ApiUtils.class);
-    private final String baseUrl;
+    private final String targetUrl;
+    private final ApiCassette recorder;
+    private final RequestSpecification baseSpec;
     
     /**
-     * Constructor with base URL
+     * Constructor with base URL, using the configured cassette mode (api.cassette.*)
      * 
      * @param baseUrl Base URL for all API requests
      */
     public ApiUtils(String baseUrl) {
-        this.baseUrl = baseUrl;
-        logger.info("Initialized ApiUtils with base URL: {}", baseUrl);
+        this(baseUrl, ApiCassette.getConfiguredMode(), ApiCassette.getConfiguredFile());
+    }
+    
+    /**
+     * Constructor with base URL and cassette
+     * 
+     * @param baseUrl Base URL for all API requests
+     * @param cassetteMode Whether requests are recorded to or replayed from the cassette
+     * @param cassetteFile Cassette file, ignored when the mode is OFF
+     */
+    public ApiUtils(String baseUrl, ApiCassette.Mode cassetteMode, Path cassetteFile) {
+        RequestSpecBuilder builder = new RequestSpecBuilder()
+                .setBaseUri(baseUrl)
+                .setContentType(ContentType.JSON)
+                .setAccept(ContentType.JSON)
+                .setConfig(RestAssured.config().httpClient(ApiConnectionPool.getHttpClientConfig()));
+        String target = baseUrl;
+        ApiCassette recording = null;
+        if (cassetteMode == ApiCassette.Mode.RECORD) {
+            recording = ApiCassette.forFile(cassetteFile);
+            builder.addFilter(recording.recordingFilter());
+        } else if (cassetteMode == ApiCassette.Mode.REPLAY) {
+            // Keep the base path so recorded paths match
+            target = ApiReplayServer.forCassette(ApiCassette.forFile(cassetteFile)).getBaseUrl()
+                    + URI.create(baseUrl).getRawPath();
+            builder.setBaseUri(target);
+        }
+        this.targetUrl = target;
+        this.recorder = recording;
+        this.baseSpec = builder.build();
+        logger.info("Initialized ApiUtils with base URL: {} (cassette: {})", baseUrl, cassetteMode);
     }
     
     /**
@@ -35,10 +93,7 @@ public class ApiUtils {
      * @return RequestSpecification with base settings
      */
     private RequestSpecification getBaseRequest() {
-        return RestAssured.given()
-                .baseUri(baseUrl)
-                .contentType(ContentType.JSON)
-                .accept(ContentType.JSON);
+        return RestAssured.given().spec(baseSpec);
     }
     
     /**
@@ -50,8 +105,7 @@ public class ApiUtils {
     public Response sendGetRequest(String endpoint) {
         logger.info("Sending GET request to endpoint: {}", endpoint);
         Response response = getBaseRequest().get(endpoint);
-        logResponse(response);
-        return response;
+        return logResponse(response);
     }
     
     /**
@@ -66,8 +120,7 @@ public class ApiUtils {
         Response response = getBaseRequest()
                 .queryParams(queryParams)
                 .get(endpoint);
-        logResponse(response);
-        return response;
+        return logResponse(response);
     }
     
     /**
@@ -79,12 +132,11 @@ public class ApiUtils {
      */
     public Response sendPostRequest(String endpoint, String requestBody) {
         logger.info("Sending POST request to endpoint: {}", endpoint);
-        logger.debug("Request body: {}", requestBody);
+        logger.debug("Request body: {}", () -> ApiResponseLogger.abbreviate(requestBody));
         Response response = getBaseRequest()
                 .body(requestBody)
                 .post(endpoint);
-        logResponse(response);
-        return response;
+        return logResponse(response);
     }
     
     /**
@@ -96,12 +148,11 @@ public class ApiUtils {
      */
     public Response sendPutRequest(String endpoint, String requestBody) {
         logger.info("Sending PUT request to endpoint: {}", endpoint);
-        logger.debug("Request body: {}", requestBody);
+        logger.debug("Request body: {}", () -> ApiResponseLogger.abbreviate(requestBody));
         Response response = getBaseRequest()
                 .body(requestBody)
                 .put(endpoint);
-        logResponse(response);
-        return response;
+        return logResponse(response);
     }
     
     /**
@@ -113,12 +164,11 @@ public class ApiUtils {
      */
     public Response sendPatchRequest(String endpoint, String requestBody) {
         logger.info("Sending PATCH request to endpoint: {}", endpoint);
-        logger.debug("Request body: {}", requestBody);
+        logger.debug("Request body: {}", () -> ApiResponseLogger.abbreviate(requestBody));
         Response response = getBaseRequest()
                 .body(requestBody)
                 .patch(endpoint);
-        logResponse(response);
-        return response;
+        return logResponse(response);
     }
     
     /**
@@ -131,17 +181,174 @@ public class ApiUtils {
         logger.info("Sending DELETE request to endpoint: {}", endpoint);
         Response response = getBaseRequest()
                 .delete(endpoint);
-        logResponse(response);
-        return response;
+        return logResponse(response);
+    }
+    
+    /**
+     * Send a GET request without waiting for the response
+     * 
+     * @param endpoint API endpoint
+     * @return Future completed with the response, or exceptionally if no response was received
+     */
+    public CompletableFuture<Response> sendGetRequestAsync(String endpoint) {
+        return sendAsync(ApiRequest.get(endpoint));
+    }
+    
+    /**
+     * Send a POST request without waiting for the response
+     * 
+     * @param endpoint API endpoint
+     * @param requestBody Request body as string (JSON)
+     * @return Future completed with the response, or exceptionally if no response was received
+     */
+    public CompletableFuture<Response> sendPostRequestAsync(String endpoint, String requestBody) {
+        return sendAsync(ApiRequest.post(endpoint, requestBody));
+    }
+    
+    /**
+     * Send a request without waiting for the response
+     * 
+     * @param request Request to send
+     * @return Future completed with the response, or exceptionally if no response was received
+     */
+    public CompletableFuture<Response> sendAsync(ApiRequest request) {
+        logger.info("Sending {} request to endpoint: {} (async)", request.getMethod(), request.getEndpoint());
+        String body = request.getBody();
+        if (body != null) {
+            logger.debug("Request body: {}", () -> ApiResponseLogger.abbreviate(body));
+        }
+        byte[] requestBody = body == null ? new byte[0] : body.getBytes(StandardCharsets.UTF_8);
+        URI uri = URI.create(joinUrl(targetUrl, request.getEndpoint()));
+        HttpRequest httpRequest = HttpRequest.newBuilder(uri)
+                .method(request.getMethod(), body == null
+                        ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofByteArray(requestBody))
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json")
+                .timeout(Duration.ofSeconds(ConfigManager.getInstance().getIntProperty("api.async.timeoutSeconds", 60)))
+                .build();
+        long start = System.nanoTime();
+        return ApiConnectionPool.getAsyncClient()
+                .sendAsync(httpRequest, HttpResponse.BodyHandlers.ofByteArray())
+                .thenApply(httpResponse -> {
+                    Response response = toResponse(httpResponse);
+                    if (recorder != null) {
+                        recorder.record(request.getMethod(), uri, requestBody, response,
+                                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                    }
+                    return logResponse(response);
+                });
+    }
+    
+    /**
+     * Send requests concurrently, at most api.async.maxConcurrency at a time, and wait for all of them
+     * 
+     * @param requests Requests to send
+     * @return Responses in request order, with all failures collected
+     */
+    public ApiBatchResult sendBatch(List<ApiRequest> requests) {
+        return sendBatch(requests, ConfigManager.getInstance().getIntProperty("api.async.maxConcurrency", 16));
     }
     
     /**
-     * Log response details for debugging
+     * Send requests concurrently and wait for all of them. A new request is started as soon as
+     * one finishes, so at most maxConcurrency are in flight.
+     * 
+     * @param requests Requests to send
+     * @param maxConcurrency Maximum number of requests in flight
+     * @return Responses in request order, with all failures collected
+     */
+    public ApiBatchResult sendBatch(List<ApiRequest> requests, int maxConcurrency) {
+        int count = requests.size();
+        Response[] responses = new Response[count];
+        Throwable[] errors = new Throwable[count];
+        if (count == 0) {
+            return new ApiBatchResult(requests, responses, errors);
+        }
+        logger.info("Sending batch of {} requests, at most {} at a time", count, maxConcurrency);
+        // The calling thread starts each request once a slot is free; no recursion through
+        // callbacks, so synchronous failures cannot grow the stack however large the batch is
+        Semaphore slots = new Semaphore(Math.max(1, maxConcurrency));
+        CompletableFuture<?>[] finished = new CompletableFuture<?>[count];
+        for (int i = 0; i < count; i++) {
+            int index = i;
+            slots.acquireUninterruptibly();
+            CompletableFuture<Response> future;
+            try {
+                future = sendAsync(requests.get(index));
+            } catch (RuntimeException e) {
+                future = CompletableFuture.failedFuture(e);
+            }
+            finished[index] = future.whenComplete((response, error) -> {
+                try {
+                    if (error != null) {
+                        errors[index] = error instanceof CompletionException && error.getCause() != null
+                                ? error.getCause() : error;
+                    } else {
+                        responses[index] = response;
+                    }
+                } finally {
+                    slots.release();
+                }
+            });
+        }
+        // Failures are collected per request above, so only wait for all of them to finish
+        CompletableFuture.allOf(finished).exceptionally(error -> null).join();
+        ApiBatchResult result = new ApiBatchResult(requests, responses, errors);
+        logger.info("Batch finished: {} of {} requests failed", result.getFailures().size(), count);
+        return result;
+    }
+    
+    /**
+     * Get statistics of the shared connection pool
+     * 
+     * @return Leased, available and created connections
+     */
+    public static String getPoolStats() {
+        return ApiConnectionPool.getStats();
+    }
+    
+    /**
+     * Log response details for debugging; the body is only read when it will be logged
      * 
      * @param response Response object
+     * @return Response to hand to the caller (see {@link ApiResponseLogger#log})
      */
-    private void logResponse(Response response) {
-        logger.info("Response status code: {}", response.getStatusCode());
-        logger.debug("Response body: {}", response.getBody().asString());
+    private Response logResponse(Response response) {
+        return ApiResponseLogger.log(logger, response);
+    }
+    
+    /**
+     * Converts a java.net.http response into a RestAssured one
+     * 
+     * @param httpResponse Response with its body read
+     * @return Equivalent RestAssured response
+     */
+    private static Response toResponse(HttpResponse<byte[]> httpResponse) {
+        List<Header> headers = new ArrayList<>();
+        httpResponse.headers().map().forEach((name, values) -> {
+            // HTTP/2 pseudo-headers such as :status are not real headers
+            if (!name.startsWith(":")) {
+                values.forEach(value -> headers.add(new Header(name, value)));
+            }
+        });
+        String version = httpResponse.version() == HttpClient.Version.HTTP_2 ? "HTTP/2" : "HTTP/1.1";
+        return new ResponseBuilder()
+                .setStatusCode(httpResponse.statusCode())
+                .setStatusLine(version + " " + httpResponse.statusCode())
+                .setHeaders(new Headers(headers))
+                .setContentType(httpResponse.headers().firstValue("Content-Type").orElse(""))
+                .setBody(httpResponse.body())
+                .build();
+    }
+    
+    private static String joinUrl(String base, String endpoint) {
+        if (base.endsWith("/") && endpoint.startsWith("/")) {
+            return base + endpoint.substring(1);
+        }
+        if (!base.endsWith("/") && !endpoint.isEmpty() && !endpoint.startsWith("/") && !endpoint.startsWith("?")) {
+            return base + "/" + endpoint;
+        }
+        return base + endpoint;
     }
 } 
\ No newline at end of file
@@ -0,0 +1,43 @@
+package com.qasmarts.framework.utils;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Points a test method at the Excel sheet that feeds it through {@link ExcelDataProvider}.
+ * Columns are matched to method parameters by header name; use {@link Column} when the
+ * header differs from the parameter name.
+ *
+ * @author Abhinav Gupta
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface ExcelData {
+
+    /**
+     * Excel file name, relative to the test data folder
+     */
+    String file();
+
+    /**
+     * Sheet name
+     */
+    String sheet();
+
+    /**
+     * Row partitioning strategy for parallel providers: contiguous, round_robin or hash:&lt;column&gt;.
+     * Empty uses the dataprovider.partitionStrategy setting.
+     */
+    String partition() default "";
+
+    /**
+     * Maps a method parameter to a differently named column
+     */
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.PARAMETER)
+    @interface Column {
+        String value();
+    }
+}
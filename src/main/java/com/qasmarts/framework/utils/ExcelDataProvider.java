@@ -0,0 +1,263 @@
+package com.qasmarts.framework.utils;
+
+import com.qasmarts.framework.config.ConfigManager;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.testng.ITestContext;
+import org.testng.annotations.DataProvider;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * DataProviders that feed test methods from the Excel sheet named by {@link ExcelData}.
+ * <p>
+ * Columns are mapped to parameters by header name (the project compiles with -parameters),
+ * formula cells are read as their cached results, and every cell is converted to the
+ * parameter's type once, when the provider is called, so test invocations receive ready
+ * values. Use "excelParallel" to spread rows over the suite's data-provider-thread-count
+ * workers in the order chosen by a {@link RowPartitioner}.
+ * <pre>
+ * &#64;ExcelData(file = "loginData.xlsx", sheet = "LoginCredentials")
+ * &#64;Test(dataProvider = "excel", dataProviderClass = ExcelDataProvider.class)
+ * public void testLogin(String username, String password, boolean shouldSucceed)
+ * </pre>
+ *
+ * @author Abhinav Gupta
+ */
+public class ExcelDataProvider {
+    private static final Logger logger = LogManager.getLogger(ExcelDataProvider.class);
+
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private ExcelDataProvider() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Sequential provider
+     *
+     * @param method Test method annotated with {@link ExcelData}
+     * @return Typed rows in sheet order
+     */
+    @DataProvider(name = "excel")
+    public static Object[][] excel(Method method) {
+        return load(method, getAnnotation(method)).typed;
+    }
+
+    /**
+     * Parallel provider. Rows are ordered for dispatch by the method's partition strategy,
+     * falling back to the dataprovider.partitionStrategy setting.
+     *
+     * @param method Test method annotated with {@link ExcelData}
+     * @param context Test context, used for the data provider thread count
+     * @return Typed rows in dispatch order
+     */
+    @DataProvider(name = "excelParallel", parallel = true)
+    public static Object[][] excelParallel(Method method, ITestContext context) {
+        ExcelData excelData = getAnnotation(method);
+        ConfigManager config = ConfigManager.getInstance();
+        String spec = excelData.partition().isEmpty()
+                ? config.getProperty("dataprovider.partitionStrategy", "contiguous")
+                : excelData.partition();
+        int partitions = config.getIntProperty("dataprovider.partitions", 0);
+        if (partitions <= 0) {
+            partitions = context.getSuite().getXmlSuite().getDataProviderThreadCount();
+        }
+
+        LoadedRows loaded = load(method, excelData);
+        RowPartitioner partitioner = RowPartitioner.of(spec);
+        // Partitioning looks at sheet columns, which need not be parameters of the method
+        int[] order = partitioner.order(loaded.raw, loaded.headers, partitions);
+        Object[][] arranged = new Object[order.length][];
+        for (int i = 0; i < order.length; i++) {
+            arranged[i] = loaded.typed[order[i]];
+        }
+        logger.info("Dispatching {} rows of {} over {} workers ({})", arranged.length, method.getName(),
+                partitions, partitioner);
+        return arranged;
+    }
+
+    /**
+     * Reads and converts the rows for a method
+     *
+     * @param method Test method
+     * @param excelData Sheet location
+     * @return Headers, raw and typed rows
+     */
+    private static LoadedRows load(Method method, ExcelData excelData) {
+        long start = System.nanoTime();
+        List<String> headers = new ArrayList<>();
+        Object[][] raw = ExcelUtils.getTestDataValues(excelData.file(), excelData.sheet(), headers);
+
+        Parameter[] parameters = method.getParameters();
+        int[] columns = new int[parameters.length];
+        List<Function<Object, Object>> converters = new ArrayList<>(parameters.length);
+        for (int i = 0; i < parameters.length; i++) {
+            columns[i] = findColumn(parameters[i], i, headers, method);
+            converters.add(converterFor(parameters[i].getType()));
+        }
+
+        Object[][] typed = new Object[raw.length][parameters.length];
+        for (int row = 0; row < raw.length; row++) {
+            for (int i = 0; i < parameters.length; i++) {
+                Object cell = raw[row][columns[i]];
+                try {
+                    typed[row][i] = converters.get(i).apply(cell);
+                } catch (IllegalArgumentException | ArithmeticException e) {
+                    throw new IllegalArgumentException(String.format("Row %d, column '%s': cannot convert '%s' to %s",
+                            row + 2, headers.get(columns[i]), cell, parameters[i].getType().getSimpleName()), e);
+                }
+            }
+        }
+
+        logger.info("Loaded {} typed rows for {} from {} [{}] in {} ms", typed.length, method.getName(),
+                excelData.file(), excelData.sheet(), (System.nanoTime() - start) / 1_000_000);
+        return new LoadedRows(headers, raw, typed);
+    }
+
+    private static ExcelData getAnnotation(Method method) {
+        ExcelData excelData = method.getAnnotation(ExcelData.class);
+        if (excelData == null) {
+            throw new IllegalArgumentException("Test method " + method.getName() + " has no @ExcelData annotation");
+        }
+        return excelData;
+    }
+
+    private static int findColumn(Parameter parameter, int position, List<String> headers, Method method) {
+        ExcelData.Column column = parameter.getAnnotation(ExcelData.Column.class);
+        String name = column != null ? column.value() : parameter.isNamePresent() ? parameter.getName() : null;
+        if (name == null) {
+            // Compiled without -parameters: fall back to column order
+            if (position >= headers.size()) {
+                throw new IllegalArgumentException("Sheet has no column " + (position + 1) + " for " + method.getName());
+            }
+            return position;
+        }
+        int index = headers.indexOf(name);
+        if (index < 0) {
+            throw new IllegalArgumentException(String.format("Column '%s' for %s not found in headers %s",
+                    name, method.getName(), headers));
+        }
+        return index;
+    }
+
+    /**
+     * Gets the conversion from an Excel cell value (String, Double or Boolean) to a parameter type
+     *
+     * @param type Parameter type
+     * @return Converter
+     */
+    private static Function<Object, Object> converterFor(Class<?> type) {
+        if (type == String.class) {
+            return ExcelDataProvider::toText;
+        }
+        if (type == int.class || type == Integer.class) {
+            return nullSafe(type, cell -> toNumber(cell).intValueExact());
+        }
+        if (type == long.class || type == Long.class) {
+            return nullSafe(type, cell -> toNumber(cell).longValueExact());
+        }
+        if (type == double.class || type == Double.class) {
+            return nullSafe(type, cell -> toNumber(cell).doubleValue());
+        }
+        if (type == float.class || type == Float.class) {
+            return nullSafe(type, cell -> toNumber(cell).floatValue());
+        }
+        if (type == BigDecimal.class) {
+            return nullSafe(type, ExcelDataProvider::toNumber);
+        }
+        if (type == boolean.class || type == Boolean.class) {
+            return nullSafe(type, ExcelDataProvider::toBoolean);
+        }
+        if (type.isEnum()) {
+            return nullSafe(type, cell -> toEnum(type, toText(cell)));
+        }
+        return cell -> cell;
+    }
+
+    /**
+     * Empty cells become null for object types and the default value for primitives
+     */
+    private static Function<Object, Object> nullSafe(Class<?> type, Function<Object, Object> converter) {
+        Object empty = !type.isPrimitive() ? null
+                : type == boolean.class ? Boolean.FALSE
+                : type == int.class ? Integer.valueOf(0)
+                : type == long.class ? Long.valueOf(0)
+                : type == float.class ? Float.valueOf(0)
+                : Double.valueOf(0);
+        return cell -> cell == null || "".equals(cell) ? empty : converter.apply(cell);
+    }
+
+    private static String toText(Object cell) {
+        if (cell instanceof Double) {
+            double value = (Double) cell;
+            // Excel stores every number as a double; show whole numbers without ".0"
+            if (value == Math.rint(value) && !Double.isInfinite(value)) {
+                return BigDecimal.valueOf(value).toBigInteger().toString();
+            }
+        }
+        return cell == null ? "" : cell.toString();
+    }
+
+    private static BigDecimal toNumber(Object cell) {
+        try {
+            if (cell instanceof Double) {
+                return BigDecimal.valueOf((Double) cell).stripTrailingZeros();
+            }
+            if (cell instanceof Boolean) {
+                return (Boolean) cell ? BigDecimal.ONE : BigDecimal.ZERO;
+            }
+            return new BigDecimal(cell.toString().trim());
+        } catch (ArithmeticException | NumberFormatException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+    }
+
+    private static Boolean toBoolean(Object cell) {
+        if (cell instanceof Boolean) {
+            return (Boolean) cell;
+        }
+        if (cell instanceof Double) {
+            return (Double) cell != 0;
+        }
+        String text = cell.toString().trim().toLowerCase();
+        if ("true".equals(text) || "yes".equals(text) || "y".equals(text) || "1".equals(text)) {
+            return true;
+        }
+        if ("false".equals(text) || "no".equals(text) || "n".equals(text) || "0".equals(text)) {
+            return false;
+        }
+        throw new IllegalArgumentException("Not a boolean: " + cell);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object toEnum(Class<?> type, String text) {
+        for (Object constant : type.getEnumConstants()) {
+            if (((Enum) constant).name().equalsIgnoreCase(text.trim())) {
+                return constant;
+            }
+        }
+        throw new IllegalArgumentException("Not a " + type.getSimpleName() + ": " + text);
+    }
+
+    /**
+     * Converted rows together with the sheet layout they came from
+     */
+    private static class LoadedRows {
+        private final List<String> headers;
+        private final Object[][] raw;
+        private final Object[][] typed;
+
+        LoadedRows(List<String> headers, Object[][] raw, Object[][] typed) {
+            this.headers = headers;
+            this.raw = raw;
+            this.typed = typed;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.qasmarts.framework.utils;
 
+import com.qasmarts.framework.config.ConfigManager;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.poi.ss.usermodel.Cell;
@@ -10,6 +11,12 @@ import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
 
 /**
  * Utility class for handling Excel data
@@ -28,13 +35,29 @@ public class ExcelUtils {
     }
     
     /**
-     * Gets test data from Excel file
+     * Gets test data from Excel file.
+     * Each sheet is parsed once per JVM (see {@link TestDataCache}); every caller gets its own copy.
      * 
      * @param excelFileName Excel file name
      * @param sheetName Sheet name
      * @return 2D array of objects with test data
      */
     public static Object[][] getTestData(String excelFileName, String sheetName) {
+        return TestDataCache.get(getTestDataPath(excelFileName), sheetName,
+                () -> parseTestData(excelFileName, sheetName));
+    }
+    
+    /**
+     * Parses test data from Excel file, bypassing the cache
+     * 
+     * @param excelFileName Excel file name
+     * @param sheetName Sheet name
+     * @return 2D array of objects with test data
+     */
+    private static Object[][] parseTestData(String excelFileName, String sheetName) {
+        if (ConfigManager.getInstance().getBooleanProperty("excel.streaming", true)) {
+            return getTestDataStreaming(excelFileName, sheetName);
+        }
         Object[][] data = null;
         
         try (FileInputStream fis = new FileInputStream(TEST_DATA_PATH + excelFileName);
@@ -64,6 +87,80 @@ public class ExcelUtils {
         return data;
     }
     
+    /**
+     * Gets test data from Excel file lazily, one row at a time.
+     * Suitable as the return value of a DataProvider declared as Iterator&lt;Object[]&gt;,
+     * so tests can start before the sheet has been read and large sheets are never held in memory.
+     * 
+     * @param excelFileName Excel file name
+     * @param sheetName Sheet name
+     * @return Iterator over data rows (header row excluded)
+     */
+    public static Iterator<Object[]> getTestDataIterator(String excelFileName, String sheetName) {
+        return new StreamingExcelReader(getTestDataPath(excelFileName), sheetName, getBufferRows());
+    }
+    
+    /**
+     * Reads the whole sheet with the streaming reader
+     * 
+     * @param excelFileName Excel file name
+     * @param sheetName Sheet name
+     * @return 2D array of objects with test data, or null if the file cannot be read
+     */
+    private static Object[][] getTestDataStreaming(String excelFileName, String sheetName) {
+        List<Object[]> rows = new ArrayList<>();
+        try (StreamingExcelReader reader = new StreamingExcelReader(getTestDataPath(excelFileName), sheetName, getBufferRows())) {
+            reader.forEachRemaining(rows::add);
+        } catch (IllegalStateException e) {
+            logger.error("Failed to load test data: {}", e.getMessage());
+            return null;
+        }
+        logger.info("Test data streamed successfully from {}, sheet: {} ({} rows)", excelFileName, sheetName, rows.size());
+        return rows.toArray(new Object[0][]);
+    }
+    
+    /**
+     * Gets test data with formula cells read as their cached results rather than formula text.
+     * Shares the process-wide cache with {@link #getTestData}.
+     * 
+     * @param excelFileName Excel file name, relative to the test data folder, or an absolute path
+     * @param sheetName Sheet name
+     * @param headers Receives the header row when non-null
+     * @return 2D array of objects with test data (header row excluded)
+     */
+    public static Object[][] getTestDataValues(String excelFileName, String sheetName, List<String> headers) {
+        Path file = getTestDataPath(excelFileName);
+        Object[][] data = TestDataCache.get(file, sheetName, "values", () -> {
+            List<Object[]> rows = new ArrayList<>();
+            try (StreamingExcelReader reader = new StreamingExcelReader(file, sheetName, getBufferRows(), true)) {
+                // Keep the header row with the data so it is cached and snapshotted too
+                rows.add(reader.getHeaders());
+                reader.forEachRemaining(rows::add);
+            } catch (IllegalStateException e) {
+                logger.error("Failed to load test data: {}", e.getMessage());
+                return null;
+            }
+            return rows.toArray(new Object[0][]);
+        });
+        if (data == null || data.length == 0) {
+            throw new IllegalArgumentException("No test data in " + excelFileName + ", sheet: " + sheetName);
+        }
+        if (headers != null) {
+            for (Object header : data[0]) {
+                headers.add(String.valueOf(header));
+            }
+        }
+        return Arrays.copyOfRange(data, 1, data.length);
+    }
+    
+    private static Path getTestDataPath(String excelFileName) {
+        return Paths.get(TEST_DATA_PATH).resolve(excelFileName);
+    }
+    
+    private static int getBufferRows() {
+        return ConfigManager.getInstance().getIntProperty("excel.bufferRows", 256);
+    }
+    
     /**
      * Gets cell value based on cell type
      * 
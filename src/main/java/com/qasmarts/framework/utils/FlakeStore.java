@@ -0,0 +1,244 @@
+package com.qasmarts.framework.utils;
+
+import com.qasmarts.framework.config.ConfigManager;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Retry outcomes of test methods remembered across runs, to tell flaky tests from broken ones.
+ * <p>
+ * Every finished test counts as a run, per "class#method". A run that passed only after a
+ * retry is flaky, one that still failed after its last retry is a failure. The flake rate of a
+ * test is its flaky runs divided by all its runs. Counts are added to the file on {@link #save()},
+ * which re-reads it first and replaces it atomically, like {@link TestDurationStore}.
+ *
+ * @author Abhinav Gupta
+ */
+public class FlakeStore {
+    private static final Logger logger = LogManager.getLogger(FlakeStore.class);
+    private static FlakeStore defaultStore;
+
+    private final Path file;
+    private final Map<String, Stats> history = new ConcurrentHashMap<>();
+    private final Map<String, Stats> currentRun = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor with the store file
+     *
+     * @param file Properties file holding the counts; loaded if it exists
+     */
+    public FlakeStore(Path file) {
+        this.file = file;
+        history.putAll(load(file));
+    }
+
+    /**
+     * Gets the store configured by flake.store.file, loading it on first use
+     *
+     * @return Shared store
+     */
+    public static synchronized FlakeStore getDefault() {
+        if (defaultStore == null) {
+            String configured = ConfigManager.getInstance().getProperty("flake.store.file", "");
+            defaultStore = new FlakeStore(configured.isEmpty()
+                    ? Paths.get(System.getProperty("user.home"), ".cache", "qasmarts", "flake-stats.properties")
+                    : Paths.get(configured));
+        }
+        return defaultStore;
+    }
+
+    /**
+     * Records the final outcome of a test
+     *
+     * @param className Fully qualified test class name
+     * @param methodName Test method name
+     * @param retries Number of times the test was retried
+     * @param passed true if the last attempt passed
+     */
+    public void record(String className, String methodName, int retries, boolean passed) {
+        Stats stats = currentRun.computeIfAbsent(key(className, methodName), Stats::new);
+        stats.runs.increment();
+        if (!passed) {
+            stats.failures.increment();
+        } else if (retries > 0) {
+            stats.flaky.increment();
+        }
+    }
+
+    /**
+     * Gets the remembered outcomes of a test, including the current run
+     *
+     * @param className Fully qualified test class name
+     * @param methodName Test method name
+     * @return Outcome counts, all 0 if the test never ran
+     */
+    public Stats getStats(String className, String methodName) {
+        String key = key(className, methodName);
+        Stats stats = new Stats(key);
+        add(stats, history.get(key));
+        add(stats, currentRun.get(key));
+        return stats;
+    }
+
+    /**
+     * Gets the tests with the highest flake rate, including the current run
+     *
+     * @param limit Maximum number of entries to return
+     * @return Tests that were flaky at least once, highest flake rate first
+     */
+    public List<Stats> getFlakiest(int limit) {
+        List<Stats> flaky = new ArrayList<>();
+        for (String key : allKeys()) {
+            String[] classAndMethod = key.split("#", 2);
+            Stats stats = getStats(classAndMethod[0], classAndMethod.length > 1 ? classAndMethod[1] : "");
+            if (stats.getFlaky() > 0) {
+                flaky.add(stats);
+            }
+        }
+        flaky.sort(Comparator.comparingDouble(Stats::getFlakeRate).reversed()
+                .thenComparing(Comparator.comparingLong(Stats::getRuns).reversed()));
+        return flaky.subList(0, Math.min(limit, flaky.size()));
+    }
+
+    /**
+     * Adds the outcomes recorded since the last save to the store and writes it
+     */
+    public synchronized void save() {
+        if (currentRun.isEmpty()) {
+            return;
+        }
+        Map<String, Stats> merged = load(file);
+        for (String key : new ArrayList<>(currentRun.keySet())) {
+            Stats run = currentRun.remove(key);
+            Stats total = merged.computeIfAbsent(key, Stats::new);
+            add(total, run);
+        }
+        history.putAll(merged);
+
+        Properties properties = new Properties();
+        merged.forEach((key, stats) -> properties.setProperty(key,
+                stats.getRuns() + "," + stats.getFlaky() + "," + stats.getFailures()));
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            Path tmp = Files.createTempFile(file.toAbsolutePath().getParent(), "flake-stats", ".tmp");
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                properties.store(out, "Test outcomes keyed by class#method: runs,flaky,failures");
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("Failed to write flake statistics {}: {}", file, e.getMessage());
+        }
+    }
+
+    private List<String> allKeys() {
+        List<String> keys = new ArrayList<>(history.keySet());
+        for (String key : currentRun.keySet()) {
+            if (!history.containsKey(key)) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+
+    private static void add(Stats total, Stats stats) {
+        if (stats != null) {
+            total.runs.add(stats.getRuns());
+            total.flaky.add(stats.getFlaky());
+            total.failures.add(stats.getFailures());
+        }
+    }
+
+    private static Map<String, Stats> load(Path file) {
+        Map<String, Stats> counts = new ConcurrentHashMap<>();
+        if (!Files.exists(file)) {
+            return counts;
+        }
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            properties.load(in);
+        } catch (IOException e) {
+            logger.warn("Failed to read flake statistics {}: {}", file, e.getMessage());
+            return counts;
+        }
+        for (String key : properties.stringPropertyNames()) {
+            String[] values = properties.getProperty(key).split(",");
+            try {
+                Stats stats = new Stats(key);
+                stats.runs.add(Long.parseLong(values[0].trim()));
+                stats.flaky.add(Long.parseLong(values[1].trim()));
+                stats.failures.add(Long.parseLong(values[2].trim()));
+                counts.put(key, stats);
+            } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                logger.debug("Ignoring invalid flake statistics for {}", key);
+            }
+        }
+        return counts;
+    }
+
+    private static String key(String className, String methodName) {
+        return className + "#" + methodName;
+    }
+
+    /**
+     * Outcome counts of one test
+     */
+    public static class Stats {
+        private final String test;
+        private final LongAdder runs = new LongAdder();
+        private final LongAdder flaky = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+
+        Stats(String test) {
+            this.test = test;
+        }
+
+        public String getTest() {
+            return test;
+        }
+
+        public long getRuns() {
+            return runs.sum();
+        }
+
+        public long getFlaky() {
+            return flaky.sum();
+        }
+
+        public long getFailures() {
+            return failures.sum();
+        }
+
+        /**
+         * Gets the share of runs that passed only after a retry
+         *
+         * @return Flake rate between 0 and 1
+         */
+        public double getFlakeRate() {
+            long total = getRuns();
+            return total == 0 ? 0 : (double) getFlaky() / total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s flakeRate=%.1f%%, runs=%d, flaky=%d, failures=%d",
+                    test, getFlakeRate() * 100, getRuns(), getFlaky(), getFailures());
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.qasmarts.framework.utils;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+
+/**
+ * Reads JSON-lines files (one JSON object per line), such as report events and API cassettes.
+ *
+ * @author Abhinav Gupta
+ */
+public class JsonLines {
+    private static final Logger logger = LogManager.getLogger(JsonLines.class);
+
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private JsonLines() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Calls the consumer for every object in the file. A truncated last line (crash while
+     * writing) and other unreadable lines are skipped.
+     *
+     * @param file JSON-lines file
+     * @param consumer Receives each object
+     * @throws IOException if the file cannot be read
+     */
+    public static void forEach(Path file, Consumer<JSONObject> consumer) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                try {
+                    consumer.accept(new JSONObject(line));
+                } catch (JSONException e) {
+                    logger.warn("Skipping unreadable line {}:{}", file.getFileName(), lineNumber);
+                }
+            }
+        }
+    }
+}
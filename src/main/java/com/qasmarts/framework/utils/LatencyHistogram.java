@@ -0,0 +1,172 @@
+package com.qasmarts.framework.utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe latency histogram with fixed relative precision, in the style of HdrHistogram.
+ * <p>
+ * Values are recorded in microseconds into log-linear buckets: exact below 128 microseconds, then 64
+ * buckets per power of two, so every percentile is accurate to within about 1.6% while the
+ * histogram itself stays at a fixed 17 KB regardless of how many values are recorded.
+ * Recording is a few atomic increments and never allocates.
+ *
+ * @author Abhinav Gupta
+ */
+public class LatencyHistogram {
+    private static final int LINEAR_BUCKETS = 128;
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // Largest exponent covers values below 2^38 microseconds (about 76 hours); larger values are clamped
+    private static final int MAX_EXPONENT = 31;
+    private static final int BUCKETS = LINEAR_BUCKETS + MAX_EXPONENT * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+    private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+
+    /**
+     * Records one latency
+     *
+     * @param duration Latency
+     * @param unit Unit of the latency
+     */
+    public void record(long duration, TimeUnit unit) {
+        recordMicros(unit.toMicros(duration));
+    }
+
+    /**
+     * Records one latency in microseconds
+     *
+     * @param micros Latency in microseconds; negative values are recorded as 0
+     */
+    public void recordMicros(long micros) {
+        long value = Math.max(0, micros);
+        counts.incrementAndGet(bucketOf(value));
+        count.increment();
+        sum.add(value);
+        max.accumulateAndGet(value, Math::max);
+        min.accumulateAndGet(value, Math::min);
+    }
+
+    /**
+     * Adds all values recorded by another histogram to this one
+     *
+     * @param other Histogram to add
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            long bucketCount = other.counts.get(i);
+            if (bucketCount > 0) {
+                counts.addAndGet(i, bucketCount);
+            }
+        }
+        count.add(other.getCount());
+        sum.add(other.sum.sum());
+        max.accumulateAndGet(other.max.get(), Math::max);
+        min.accumulateAndGet(other.min.get(), Math::min);
+    }
+
+    /**
+     * Gets the number of recorded values
+     *
+     * @return Count
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Gets the largest recorded value
+     *
+     * @return Maximum in microseconds, 0 if empty
+     */
+    public long getMaxMicros() {
+        return max.get();
+    }
+
+    /**
+     * Gets the smallest recorded value
+     *
+     * @return Minimum in microseconds, 0 if empty
+     */
+    public long getMinMicros() {
+        long value = min.get();
+        return value == Long.MAX_VALUE ? 0 : value;
+    }
+
+    /**
+     * Gets the mean of the recorded values
+     *
+     * @return Mean in microseconds, 0 if empty
+     */
+    public double getMeanMicros() {
+        long values = getCount();
+        return values == 0 ? 0 : (double) sum.sum() / values;
+    }
+
+    /**
+     * Gets the value at a percentile. As with HdrHistogram, the result is the highest value
+     * that falls into the same bucket as the percentile, capped at the recorded maximum.
+     *
+     * @param percentile Percentile between 0 and 100
+     * @return Value in microseconds, 0 if empty
+     */
+    public long getValueAtPercentile(double percentile) {
+        long values = getCount();
+        if (values == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100.0 * values));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(highestValueOf(i), getMaxMicros());
+            }
+        }
+        return getMaxMicros();
+    }
+
+    /**
+     * Formats the usual latency percentiles
+     *
+     * @return Summary such as "n=1000, mean=12.3 ms, p50=11.0 ms, ..."
+     */
+    @Override
+    public String toString() {
+        return String.format("n=%d, min=%s, mean=%.2f ms, p50=%s, p90=%s, p99=%s, p99.9=%s, max=%s",
+                getCount(), format(getMinMicros()), getMeanMicros() / 1000.0,
+                format(getValueAtPercentile(50)), format(getValueAtPercentile(90)),
+                format(getValueAtPercentile(99)), format(getValueAtPercentile(99.9)), format(getMaxMicros()));
+    }
+
+    private static String format(long micros) {
+        return String.format("%.2f ms", micros / 1000.0);
+    }
+
+    private static int bucketOf(long value) {
+        if (value < LINEAR_BUCKETS) {
+            return (int) value;
+        }
+        // Shift so the value keeps SUB_BUCKET_BITS + 1 significant bits, i.e. lands in [64, 128)
+        int exponent = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        if (exponent > MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        return LINEAR_BUCKETS + (exponent - 1) * SUB_BUCKETS + (int) ((value >> exponent) - SUB_BUCKETS);
+    }
+
+    private static long highestValueOf(int bucket) {
+        if (bucket < LINEAR_BUCKETS) {
+            return bucket;
+        }
+        int exponent = (bucket - LINEAR_BUCKETS) / SUB_BUCKETS + 1;
+        long subBucket = (bucket - LINEAR_BUCKETS) % SUB_BUCKETS + SUB_BUCKETS;
+        return ((subBucket + 1) << exponent) - 1;
+    }
+}
@@ -0,0 +1,262 @@
+package com.qasmarts.framework.utils;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Merges the events files (shards) written by StreamingReportListener in several JVMs or
+ * machines into one events file and HTML report.
+ * <p>
+ * Shards are streamed twice. The first pass keeps only a small index entry per test to pick
+ * its final result: attempts that TestNG retried are dropped, and when the same test ran in
+ * several shards the attempt that finished last wins. The second pass copies the winning
+ * events to the merged file, followed by a summary of per-shard, per-class and slowest-test timings.
+ * <p>
+ * Usage: ReportMerger &lt;merged.jsonl&gt; &lt;shard.jsonl | directory&gt;...
+ *
+ * @author Abhinav Gupta
+ */
+public class ReportMerger {
+    private static final Logger logger = LogManager.getLogger(ReportMerger.class);
+    private static final int SLOWEST_TESTS = 20;
+
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private ReportMerger() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Command line entry point. Writes the merged events file and an HTML report next to it.
+     *
+     * @param args Output file followed by shard files or folders containing *.jsonl shards
+     * @throws IOException if a file cannot be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: ReportMerger <merged.jsonl> <shard.jsonl | directory>...");
+            System.exit(2);
+        }
+        Path output = Paths.get(args[0]);
+        List<Path> shards = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            shards.addAll(findShards(Paths.get(args[i]), output));
+        }
+        JSONObject summary = merge(shards, output);
+        Path html = Paths.get(args[0].replaceAll("\\.jsonl$", "") + ".html");
+        ReportRenderer.render(output, html);
+        System.out.println("Merged " + shards.size() + " shards: " + summary.getInt("tests") + " tests, report written to " + html);
+    }
+
+    /**
+     * Merges shards into one events file
+     *
+     * @param shards Events files to merge
+     * @param output Merged events file to write
+     * @return Summary event that was appended to the merged file
+     * @throws IOException if a file cannot be read or written
+     */
+    public static JSONObject merge(List<Path> shards, Path output) throws IOException {
+        // Pass 1: pick the final attempt of every test
+        Map<String, Attempt> finalAttempts = new HashMap<>();
+        Map<String, String> startedKeys = new HashMap<>();
+        for (Path shard : shards) {
+            JsonLines.forEach(shard, event -> {
+                String type = event.optString("event");
+                if ("testStart".equals(type)) {
+                    startedKeys.putIfAbsent(getTestKey(event), event.optString("id"));
+                } else if ("testEnd".equals(type) && !event.optBoolean("retried")) {
+                    Attempt attempt = new Attempt(event.optString("id"), event.optLong("end"));
+                    finalAttempts.merge(getTestKey(event), attempt, (previous, next) -> next.end >= previous.end ? next : previous);
+                }
+            });
+        }
+
+        Set<String> winningIds = new HashSet<>();
+        for (Attempt attempt : finalAttempts.values()) {
+            winningIds.add(attempt.id);
+        }
+        // Tests that started somewhere but have no final result anywhere stay visible as incomplete
+        Set<String> incompleteIds = new HashSet<>();
+        for (Map.Entry<String, String> started : startedKeys.entrySet()) {
+            if (!finalAttempts.containsKey(started.getKey())) {
+                incompleteIds.add(started.getValue());
+            }
+        }
+        startedKeys.clear();
+
+        // Pass 2: copy winning events and collect timings
+        Timings timings = new Timings();
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+        try (BufferedWriter out = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+            for (Path shardFile : shards) {
+                timings.startShard(shardFile);
+                try {
+                    JsonLines.forEach(shardFile, event -> {
+                        String type = event.optString("event");
+                        String id = event.optString("id");
+                        boolean keep = "shardStart".equals(type)
+                                || ("testEnd".equals(type) && winningIds.contains(id))
+                                || ("testStart".equals(type) && (incompleteIds.contains(id) || winningIds.contains(id)))
+                                || ("attachment".equals(type) && winningIds.contains(id));
+                        if ("testEnd".equals(type) && keep) {
+                            timings.add(event);
+                        }
+                        if (keep) {
+                            write(out, event.has("shard") ? event : event.put("shard", timings.currentShard));
+                        }
+                    });
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                }
+            }
+            JSONObject summary = timings.toSummary(shards.size(), finalAttempts.size());
+            write(out, summary);
+            logger.info("Merged {} shards into {}: {} tests ({} incomplete)", shards.size(), output,
+                    finalAttempts.size(), incompleteIds.size());
+            return summary;
+        }
+    }
+
+    private static void write(BufferedWriter out, JSONObject event) {
+        try {
+            out.write(event.toString());
+            out.newLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Identifies a test independently of the run it happened in
+     */
+    private static String getTestKey(JSONObject event) {
+        JSONArray params = event.optJSONArray("params");
+        return event.optString("context") + "|" + event.optString("class") + "." + event.optString("method")
+                + (params == null ? "" : params.toString());
+    }
+
+    private static List<Path> findShards(Path path, Path output) throws IOException {
+        if (!Files.isDirectory(path)) {
+            return Collections.singletonList(path);
+        }
+        try (Stream<Path> files = Files.list(path)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".jsonl"))
+                    .filter(file -> !file.toAbsolutePath().equals(output.toAbsolutePath()))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Index entry for the latest final attempt of a test
+     */
+    private static class Attempt {
+        private final String id;
+        private final long end;
+
+        Attempt(String id, long end) {
+            this.id = id;
+            this.end = end;
+        }
+    }
+
+    /**
+     * Aggregate timings over the merged results
+     */
+    private static class Timings {
+        private final Map<String, long[]> shardTimes = new HashMap<>();
+        private final Map<String, long[]> classTimes = new HashMap<>();
+        private final PriorityQueue<JSONObject> slowest =
+                new PriorityQueue<>(Comparator.comparingLong(Timings::duration));
+        private String currentShard;
+        private long testMillis;
+        private long firstStart = Long.MAX_VALUE;
+        private long lastEnd;
+
+        void startShard(Path file) {
+            currentShard = file.getFileName().toString().replaceAll("\\.jsonl$", "");
+        }
+
+        void add(JSONObject event) {
+            long start = event.optLong("start");
+            long end = event.optLong("end");
+            long duration = Math.max(0, end - start);
+            testMillis += duration;
+            firstStart = Math.min(firstStart, start);
+            lastEnd = Math.max(lastEnd, end);
+
+            long[] shard = shardTimes.computeIfAbsent(currentShard, k -> new long[] {Long.MAX_VALUE, 0, 0, 0});
+            shard[0] = Math.min(shard[0], start);
+            shard[1] = Math.max(shard[1], end);
+            shard[2] += duration;
+            shard[3]++;
+            long[] testClass = classTimes.computeIfAbsent(event.optString("class"), k -> new long[2]);
+            testClass[0] += duration;
+            testClass[1]++;
+
+            slowest.add(new JSONObject()
+                    .put("class", event.optString("class"))
+                    .put("method", event.optString("method"))
+                    .put("durationMillis", duration));
+            if (slowest.size() > SLOWEST_TESTS) {
+                slowest.poll();
+            }
+        }
+
+        JSONObject toSummary(int shardCount, int tests) {
+            JSONArray shards = new JSONArray();
+            shardTimes.forEach((name, times) -> shards.put(new JSONObject()
+                    .put("shard", name)
+                    .put("tests", times[3])
+                    .put("wallMillis", times[1] - times[0])
+                    .put("testMillis", times[2])));
+            JSONArray classes = new JSONArray();
+            classTimes.forEach((name, times) -> classes.put(new JSONObject()
+                    .put("class", name)
+                    .put("tests", times[1])
+                    .put("testMillis", times[0])));
+            List<JSONObject> slowestTests = new ArrayList<>(slowest);
+            slowestTests.sort(Comparator.comparingLong(Timings::duration).reversed());
+
+            return new JSONObject()
+                    .put("event", "mergeSummary")
+                    .put("time", System.currentTimeMillis())
+                    .put("shards", shardCount)
+                    .put("tests", tests)
+                    .put("testMillis", testMillis)
+                    .put("wallMillis", lastEnd == 0 ? 0 : lastEnd - firstStart)
+                    .put("shardTimings", shards)
+                    .put("classTimings", classes)
+                    .put("slowestTests", new JSONArray(slowestTests));
+        }
+
+        private static long duration(JSONObject test) {
+            return test.optLong("durationMillis");
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package com.qasmarts.framework.utils;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Renders an HTML report from a JSON-lines events file written by StreamingReportListener.
+ * The file is read twice, once for the summary and once for the rows, and rows are written
+ * as they are read, so memory does not grow with the number of tests. Tests that started
+ * but never finished (e.g. the JVM crashed) are listed as INCOMPLETE. Attempts that TestNG
+ * retried are left out, so each test shows its final result.
+ * <p>
+ * Usage: ReportRenderer &lt;events.jsonl&gt; [report.html]
+ *
+ * @author Abhinav Gupta
+ */
+public class ReportRenderer {
+    private static final DateTimeFormatter TIME_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneId.systemDefault());
+
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private ReportRenderer() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Command line entry point
+     *
+     * @param args Events file and optional output file (default: events file with .html)
+     * @throws IOException if a file cannot be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: ReportRenderer <events.jsonl> [report.html]");
+            System.exit(2);
+        }
+        Path events = Paths.get(args[0]);
+        Path html = args.length > 1 ? Paths.get(args[1]) : Paths.get(args[0].replaceAll("\\.jsonl$", "") + ".html");
+        render(events, html);
+        System.out.println("Report written to " + html);
+    }
+
+    /**
+     * Renders the report
+     *
+     * @param events JSON-lines events file
+     * @param html HTML file to write
+     * @throws IOException if a file cannot be read or written
+     */
+    public static void render(Path events, Path html) throws IOException {
+        Summary summary = new Summary();
+        JsonLines.forEach(events, summary::add);
+
+        if (html.getParent() != null) {
+            Files.createDirectories(html.getParent());
+        }
+        try (BufferedWriter out = Files.newBufferedWriter(html, StandardCharsets.UTF_8)) {
+            writeHeader(out, events, summary);
+            IOException[] failure = new IOException[1];
+            JsonLines.forEach(events, event -> {
+                if (failure[0] != null) {
+                    return;
+                }
+                try {
+                    String type = event.optString("event");
+                    if ("testEnd".equals(type) && !event.optBoolean("retried")) {
+                        writeRow(out, event, event.optString("status"), summary.attachments.get(event.optString("id")));
+                    } else if ("testStart".equals(type) && summary.open.contains(event.optString("id"))) {
+                        writeRow(out, event, "INCOMPLETE", null);
+                    }
+                } catch (IOException e) {
+                    failure[0] = e;
+                }
+            });
+            if (failure[0] != null) {
+                throw failure[0];
+            }
+            out.write("</tbody></table>\n</body>\n</html>\n");
+        }
+    }
+
+    private static void writeHeader(BufferedWriter out, Path events, Summary summary) throws IOException {
+        out.write("<!DOCTYPE html>\n<html>\n<head>\n<meta charset=\"utf-8\">\n<title>Automation Test Report</title>\n");
+        out.write("<style>body{font-family:sans-serif;margin:20px}table{border-collapse:collapse;width:100%}"
+                + "td,th{border:1px solid #ddd;padding:4px 8px;text-align:left;vertical-align:top}"
+                + ".PASS{color:#2e7d32}.FAIL{color:#c62828}.SKIP{color:#ef6c00}.INCOMPLETE{color:#6a1b9a}"
+                + "pre{white-space:pre-wrap;margin:0;font-size:11px}</style>\n</head>\n<body>\n");
+        out.write("<h1>Web Automation Test Results</h1>\n");
+        out.write("<p>Source: " + escape(events.getFileName().toString()) + "</p>\n");
+        out.write(String.format("<p>Total: %d &middot; <span class=\"PASS\">Passed: %d</span> &middot; "
+                        + "<span class=\"FAIL\">Failed: %d</span> &middot; <span class=\"SKIP\">Skipped: %d</span>"
+                        + " &middot; <span class=\"INCOMPLETE\">Incomplete: %d</span></p>\n",
+                summary.total(), summary.passed, summary.failed, summary.skipped, summary.open.size()));
+        if (summary.firstStart > 0) {
+            out.write(String.format("<p>Started %s, wall time %.1f s, test time %.1f s</p>\n",
+                    TIME_FORMAT.format(Instant.ofEpochMilli(summary.firstStart)),
+                    (summary.lastEnd - summary.firstStart) / 1000.0, summary.testMillis / 1000.0));
+        }
+        if (summary.mergeSummary != null) {
+            writeMergeSummary(out, summary.mergeSummary);
+        }
+        out.write("<table><thead><tr><th>Status</th><th>Test</th><th>Class</th><th>Context</th>"
+                + "<th>Duration</th><th>Details</th></tr></thead><tbody>\n");
+    }
+
+    /**
+     * Writes the shard and slowest-test timings added by ReportMerger
+     */
+    private static void writeMergeSummary(BufferedWriter out, JSONObject merge) throws IOException {
+        out.write("<h2>Shards</h2>\n<table><thead><tr><th>Shard</th><th>Tests</th><th>Wall time</th>"
+                + "<th>Test time</th></tr></thead><tbody>\n");
+        JSONArray shards = merge.optJSONArray("shardTimings");
+        for (int i = 0; shards != null && i < shards.length(); i++) {
+            JSONObject shard = shards.getJSONObject(i);
+            out.write(String.format("<tr><td>%s</td><td>%d</td><td>%.1f s</td><td>%.1f s</td></tr>%n",
+                    escape(shard.optString("shard")), shard.optLong("tests"),
+                    shard.optLong("wallMillis") / 1000.0, shard.optLong("testMillis") / 1000.0));
+        }
+        out.write("</tbody></table>\n<h2>Slowest tests</h2>\n<table><thead><tr><th>Test</th><th>Class</th>"
+                + "<th>Duration</th></tr></thead><tbody>\n");
+        JSONArray slowest = merge.optJSONArray("slowestTests");
+        for (int i = 0; slowest != null && i < slowest.length(); i++) {
+            JSONObject test = slowest.getJSONObject(i);
+            out.write("<tr><td>" + escape(test.optString("method")) + "</td><td>" + escape(test.optString("class"))
+                    + "</td><td>" + test.optLong("durationMillis") + " ms</td></tr>\n");
+        }
+        out.write("</tbody></table>\n<h2>Tests</h2>\n");
+    }
+
+    private static void writeRow(BufferedWriter out, JSONObject event, String status, String screenshot)
+            throws IOException {
+        long duration = event.optLong("end") - event.optLong("start");
+        out.write("<tr><td class=\"" + escape(status) + "\">" + escape(status) + "</td>");
+        out.write("<td>" + escape(event.optString("method")) + "</td>");
+        out.write("<td>" + escape(event.optString("class")) + "</td>");
+        out.write("<td>" + escape(event.optString("context")) + "</td>");
+        out.write("<td>" + ("testEnd".equals(event.optString("event")) ? duration + " ms" : "") + "</td><td>");
+        if (event.has("error")) {
+            out.write("<b>" + escape(event.optString("error")) + "</b>");
+            out.write("<details><summary>Stack trace</summary><pre>" + escape(event.optString("stackTrace"))
+                    + "</pre></details>");
+        }
+        if (screenshot != null) {
+            String uri = Paths.get(screenshot).toUri().toString();
+            out.write("<a href=\"" + escape(uri) + "\">Screenshot</a>");
+        }
+        out.write("</td></tr>\n");
+    }
+
+    private static String escape(String text) {
+        StringBuilder escaped = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '<':
+                    escaped.append("&lt;");
+                    break;
+                case '>':
+                    escaped.append("&gt;");
+                    break;
+                case '&':
+                    escaped.append("&amp;");
+                    break;
+                case '"':
+                    escaped.append("&quot;");
+                    break;
+                default:
+                    escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    /**
+     * Totals collected in the first pass. Only tests still running and failure screenshots are
+     * kept per test; both stay small compared to the number of tests.
+     */
+    private static class Summary {
+        private final Set<String> open = new HashSet<>();
+        private final Map<String, String> attachments = new HashMap<>();
+        private long passed;
+        private long failed;
+        private long skipped;
+        private long testMillis;
+        private long firstStart;
+        private long lastEnd;
+        private JSONObject mergeSummary;
+
+        void add(JSONObject event) {
+            String id = event.optString("id");
+            switch (event.optString("event")) {
+                case "testStart":
+                    open.add(id);
+                    break;
+                case "testEnd":
+                    open.remove(id);
+                    // A retried attempt is reported as skipped; only the final attempt counts
+                    if (!event.optBoolean("retried")) {
+                        count(event.optString("status"));
+                    }
+                    long start = event.optLong("start");
+                    long end = event.optLong("end");
+                    testMillis += Math.max(0, end - start);
+                    firstStart = firstStart == 0 ? start : Math.min(firstStart, start);
+                    lastEnd = Math.max(lastEnd, end);
+                    break;
+                case "attachment":
+                    attachments.put(id, event.optString("path"));
+                    break;
+                case "mergeSummary":
+                    mergeSummary = event;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        private void count(String status) {
+            if ("PASS".equals(status)) {
+                passed++;
+            } else if ("FAIL".equals(status)) {
+                failed++;
+            } else {
+                skipped++;
+            }
+        }
+
+        long total() {
+            return passed + failed + skipped + open.size();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.qasmarts.framework.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Decides the order in which data rows are handed to a parallel DataProvider's worker threads.
+ * Rows are split into one partition per worker and the partitions are interleaved, so the rows
+ * running at the same time come from different partitions:
+ * <ul>
+ *   <li>contiguous - each worker walks its own block of adjacent rows</li>
+ *   <li>round_robin - rows keep their sheet order, spread evenly over the workers</li>
+ *   <li>hash:&lt;column&gt; - rows with the same value in the column share a partition, so they
+ *   are spread apart in the dispatch order (e.g. rows using the same account)</li>
+ * </ul>
+ * This only affects ordering. A slow row can still overlap with the next row of its partition,
+ * so rows that must never run side by side need a lock of their own.
+ *
+ * @author Abhinav Gupta
+ */
+public class RowPartitioner {
+    private final String strategy;
+    private final String hashColumn;
+
+    private RowPartitioner(String strategy, String hashColumn) {
+        this.strategy = strategy;
+        this.hashColumn = hashColumn;
+    }
+
+    /**
+     * Parses a strategy name
+     *
+     * @param spec contiguous, round_robin or hash:&lt;column&gt;
+     * @return Partitioner
+     * @throws IllegalArgumentException if the strategy is unknown
+     */
+    public static RowPartitioner of(String spec) {
+        String normalized = spec == null || spec.trim().isEmpty() ? "contiguous" : spec.trim();
+        if (normalized.toLowerCase().startsWith("hash:")) {
+            return new RowPartitioner("hash", normalized.substring("hash:".length()).trim());
+        }
+        normalized = normalized.toLowerCase();
+        if (!"contiguous".equals(normalized) && !"round_robin".equals(normalized)) {
+            throw new IllegalArgumentException("Unknown partition strategy: " + spec);
+        }
+        return new RowPartitioner(normalized, null);
+    }
+
+    /**
+     * Works out the dispatch order of rows for the given number of workers
+     *
+     * @param rows Rows in sheet order
+     * @param headers Header names, used to find the hash column
+     * @param partitions Number of worker threads
+     * @return Row indexes in dispatch order
+     */
+    public int[] order(Object[][] rows, List<String> headers, int partitions) {
+        int[] order = new int[rows.length];
+        if (partitions <= 1 || rows.length <= 1 || "round_robin".equals(strategy)) {
+            for (int i = 0; i < rows.length; i++) {
+                order[i] = i;
+            }
+            return order;
+        }
+        List<List<Integer>> buckets = new ArrayList<>(partitions);
+        for (int i = 0; i < partitions; i++) {
+            buckets.add(new ArrayList<>());
+        }
+
+        if ("hash".equals(strategy)) {
+            int column = headers.indexOf(hashColumn);
+            if (column < 0) {
+                throw new IllegalArgumentException("Partition column not found: " + hashColumn);
+            }
+            for (int i = 0; i < rows.length; i++) {
+                buckets.get(Math.floorMod(String.valueOf(rows[i][column]).hashCode(), partitions)).add(i);
+            }
+        } else {
+            int blockSize = (rows.length + partitions - 1) / partitions;
+            for (int i = 0; i < rows.length; i++) {
+                buckets.get(i / blockSize).add(i);
+            }
+        }
+
+        int next = 0;
+        for (int position = 0; next < rows.length; position++) {
+            for (List<Integer> bucket : buckets) {
+                if (position < bucket.size()) {
+                    order[next++] = bucket.get(position);
+                }
+            }
+        }
+        return order;
+    }
+
+    @Override
+    public String toString() {
+        return hashColumn == null ? strategy : strategy + ":" + hashColumn;
+    }
+}
@@ -0,0 +1,263 @@
+package com.qasmarts.framework.utils;
+
+import com.qasmarts.framework.config.ConfigManager;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed storage for screenshots.
+ * <p>
+ * Each distinct image is stored once under blobs/&lt;sha-256&gt;.&lt;ext&gt;; every capture writes only a
+ * small .ref file naming its blob, so the same error page captured by many tests costs one image.
+ * Images can be re-encoded as JPEG to save space (screenshot.format=jpg, screenshot.jpegQuality),
+ * and when the blobs exceed screenshot.quotaMb the least recently used ones are deleted.
+ * Use {@link #resolve(Path)} to turn a reference into the image file.
+ *
+ * @author Abhinav Gupta
+ */
+public class ScreenshotStore {
+    private static final Logger logger = LogManager.getLogger(ScreenshotStore.class);
+    public static final String REFERENCE_EXTENSION = ".ref";
+    private static final String BLOB_DIR = "blobs";
+
+    /** Blob file name to size, for quota accounting */
+    private static Map<String, Long> blobSizes;
+    private static long totalBytes;
+    private static long duplicates;
+    private static long evicted;
+
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private ScreenshotStore() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Checks if screenshots are stored content-addressed (screenshot.dedupe)
+     *
+     * @return true if enabled
+     */
+    public static boolean isEnabled() {
+        return ConfigManager.getInstance().getBooleanProperty("screenshot.dedupe", true);
+    }
+
+    /**
+     * Stores an image and writes a reference to it
+     *
+     * @param png PNG bytes as captured from the browser
+     * @param reference Reference file to write
+     * @return The stored image file
+     * @throws IOException if the image or reference cannot be written
+     */
+    public static Path store(byte[] png, Path reference) throws IOException {
+        Path blobDir = reference.getParent().resolve(BLOB_DIR);
+        String format = ConfigManager.getInstance().getProperty("screenshot.format", "png").toLowerCase();
+        String blobName = sha256(png) + "." + format;
+        Path blob = blobDir.resolve(blobName);
+
+        synchronized (ScreenshotStore.class) {
+            loadIndex(blobDir);
+            if (blobSizes.containsKey(blobName) && Files.exists(blob)) {
+                duplicates++;
+                // Mark as recently used so eviction keeps it
+                Files.setLastModifiedTime(blob, FileTime.fromMillis(System.currentTimeMillis()));
+                Files.write(reference, toReference(blobName));
+                return blob;
+            }
+        }
+
+        // Encoding is the slow part, keep it outside the lock
+        byte[] encoded = "png".equals(format) ? png : reencode(png, format);
+        Path temp = Files.createTempFile(blobDir, blobName, ".tmp");
+        Files.write(temp, encoded);
+        synchronized (ScreenshotStore.class) {
+            Files.move(temp, blob, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Long previous = blobSizes.put(blobName, (long) encoded.length);
+            totalBytes += encoded.length - (previous == null ? 0 : previous);
+            evictOverQuota(blobDir, blobName);
+        }
+        Files.write(reference, toReference(blobName));
+        return blob;
+    }
+
+    private static byte[] toReference(String blobName) {
+        return (BLOB_DIR + "/" + blobName).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Resolves a screenshot path to the image file. Paths that are not references are returned as is.
+     *
+     * @param path Reference or image path
+     * @return Image file, or null if the referenced image has been evicted
+     */
+    public static Path resolve(Path path) {
+        if (!path.getFileName().toString().endsWith(REFERENCE_EXTENSION)) {
+            return path;
+        }
+        try {
+            String target = new String(Files.readAllBytes(path), StandardCharsets.UTF_8).trim();
+            Path blob = path.getParent().resolve(target);
+            if (Files.exists(blob)) {
+                return blob;
+            }
+            logger.warn("Screenshot {} refers to evicted image {}", path, target);
+        } catch (IOException e) {
+            logger.warn("Cannot read screenshot reference {}: {}", path, e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Gets a one-line summary of the store
+     *
+     * @return Stored size, duplicate and eviction counts
+     */
+    public static synchronized String getStats() {
+        return String.format("images=%d (%.1f MB), duplicates=%d, evicted=%d",
+                blobSizes == null ? 0 : blobSizes.size(), totalBytes / (1024.0 * 1024.0), duplicates, evicted);
+    }
+
+    /**
+     * Reads the sizes of blobs left by earlier runs, once per JVM
+     */
+    private static void loadIndex(Path blobDir) throws IOException {
+        if (blobSizes != null) {
+            return;
+        }
+        Files.createDirectories(blobDir);
+        Map<String, Long> sizes = new HashMap<>();
+        long total = 0;
+        try (Stream<Path> files = Files.list(blobDir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(".tmp")) {
+                    // Left behind by a crashed run; recent ones may belong to another JVM still writing
+                    if (lastModified(file) < System.currentTimeMillis() - 3_600_000L) {
+                        Files.deleteIfExists(file);
+                    }
+                    continue;
+                }
+                long size = Files.size(file);
+                sizes.put(name, size);
+                total += size;
+            }
+        }
+        blobSizes = sizes;
+        totalBytes = total;
+    }
+
+    /**
+     * Deletes least recently used blobs until the store fits the quota
+     *
+     * @param blobDir Blob folder
+     * @param keep Blob that was just written and must stay
+     */
+    private static void evictOverQuota(Path blobDir, String keep) throws IOException {
+        long quotaBytes = ConfigManager.getInstance().getIntProperty("screenshot.quotaMb", 500) * 1024L * 1024L;
+        if (quotaBytes <= 0 || totalBytes <= quotaBytes) {
+            return;
+        }
+        List<Path> blobs = new ArrayList<>();
+        for (String name : blobSizes.keySet()) {
+            if (!name.equals(keep)) {
+                blobs.add(blobDir.resolve(name));
+            }
+        }
+        blobs.sort(Comparator.comparingLong(ScreenshotStore::lastModified));
+        for (Path blob : blobs) {
+            if (totalBytes <= quotaBytes) {
+                break;
+            }
+            Files.deleteIfExists(blob);
+            totalBytes -= blobSizes.remove(blob.getFileName().toString());
+            evicted++;
+            logger.info("Evicted screenshot {} to stay within {} MB", blob.getFileName(), quotaBytes / (1024 * 1024));
+        }
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Re-encodes a PNG, e.g. as JPEG at screenshot.jpegQuality
+     *
+     * @param png PNG bytes
+     * @param format Image format understood by ImageIO
+     * @return Encoded bytes, or the PNG bytes if the format is not supported
+     */
+    private static byte[] reencode(byte[] png, String format) throws IOException {
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+        List<ImageWriter> writers = new ArrayList<>();
+        ImageIO.getImageWritersByFormatName(format).forEachRemaining(writers::add);
+        if (image == null || writers.isEmpty()) {
+            logger.warn("Cannot re-encode screenshot as {}, keeping PNG", format);
+            return png;
+        }
+        if ("jpg".equals(format) || "jpeg".equals(format)) {
+            // JPEG has no alpha channel
+            BufferedImage rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+            rgb.createGraphics().drawImage(image, 0, 0, null);
+            image = rgb;
+        }
+
+        ImageWriter writer = writers.get(0);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(png.length / 2);
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(stream);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if (param.canWriteCompressed()) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                if (param.getCompressionTypes() != null && param.getCompressionType() == null) {
+                    param.setCompressionType(param.getCompressionTypes()[0]);
+                }
+                String quality = ConfigManager.getInstance().getProperty("screenshot.jpegQuality", "0.8");
+                param.setCompressionQuality(Float.parseFloat(quality));
+            }
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            StringBuilder hex = new StringBuilder(64);
+            for (byte b : MessageDigest.getInstance("SHA-256").digest(bytes)) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
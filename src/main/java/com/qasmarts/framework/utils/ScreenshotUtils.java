@@ -5,14 +5,10 @@ import org.apache.logging.log4j.Logger;
 import org.openqa.selenium.OutputType;
 import org.openqa.selenium.TakesScreenshot;
 import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
 
-import java.io.File;
-import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Utility class for capturing screenshots
@@ -21,7 +17,9 @@ import java.util.Date;
  */
 public class ScreenshotUtils {
     private static final Logger logger = LogManager.getLogger(ScreenshotUtils.class);
-    private static final String SCREENSHOT_DIR = "target/screenshots/";
+    
+    /** ITestResult attribute holding the CompletableFuture of a failure screenshot's image file */
+    public static final String RESULT_ATTRIBUTE = "screenshot";
     
     /**
      * Private constructor to prevent instantiation
@@ -31,53 +29,52 @@ public class ScreenshotUtils {
     }
     
     /**
-     * Captures a screenshot and saves it to the specified directory
+     * Captures a screenshot and saves it to the screenshot directory.
+     * Only the capture runs on the calling thread; the file is written in the background
+     * by {@link ScreenshotWriter}, so it may not exist yet when this method returns.
      * 
      * @param driver WebDriver instance
      * @param name Screenshot name
-     * @return Path to the saved screenshot or null if failed
+     * @return Path the screenshot is saved to or null if the capture failed.
+     *         This is a reference when content-addressed storage is enabled, see {@link ScreenshotStore#resolve}
      */
     public static String captureScreenshot(WebDriver driver, String name) {
+        Path destination = ScreenshotWriter.newPath(name);
+        return captureScreenshotAsync(driver, destination) == null ? null : destination.toString();
+    }
+    
+    /**
+     * Captures a screenshot and saves it with the current timestamp
+     * 
+     * @param driver WebDriver instance
+     * @return Path the screenshot is saved to or null if the capture failed
+     */
+    public static String captureScreenshot(WebDriver driver) {
+        return captureScreenshot(driver, "screenshot");
+    }
+    
+    /**
+     * Captures a screenshot and queues it for writing
+     * 
+     * @param driver WebDriver instance
+     * @param destination File to write
+     * @return Future completing with the image file once written, or null if the capture failed
+     */
+    public static CompletableFuture<Path> captureScreenshotAsync(WebDriver driver, Path destination) {
         if (driver == null) {
             logger.error("WebDriver is null, cannot capture screenshot");
             return null;
         }
         
         try {
-            // Create screenshots directory if it doesn't exist
-            Path screenshotsDir = Paths.get(SCREENSHOT_DIR);
-            if (!Files.exists(screenshotsDir)) {
-                Files.createDirectories(screenshotsDir);
-            }
-            
-            // Take screenshot
-            File screenshot = ((TakesScreenshot) driver).getScreenshotAs(OutputType.FILE);
-            String timestamp = new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date());
-            String fileName = name + "_" + timestamp + ".png";
-            Path destination = Paths.get(screenshotsDir.toString(), fileName);
-            
-            // Save screenshot
-            Files.copy(screenshot.toPath(), destination);
-            logger.info("Screenshot saved to: {}", destination);
-            
-            return destination.toString();
-        } catch (IOException e) {
+            byte[] png = ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES);
+            return ScreenshotWriter.write(png, destination);
+        } catch (WebDriverException e) {
             logger.error("Failed to capture screenshot: {}", e.getMessage());
             return null;
         }
     }
     
-    /**
-     * Captures a screenshot and saves it with the current timestamp
-     * 
-     * @param driver WebDriver instance
-     * @return Path to the saved screenshot or null if failed
-     */
-    public static String captureScreenshot(WebDriver driver) {
-        String timestamp = new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date());
-        return captureScreenshot(driver, "screenshot_" + timestamp);
-    }
-    
     /**
      * Captures a screenshot and returns it as Base64 string
      * 
@@ -0,0 +1,164 @@
+package com.qasmarts.framework.utils;
+
+import com.qasmarts.framework.config.ConfigManager;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes captured screenshots to disk on a small background pool, so test threads only
+ * pay for the browser capture. The queue is bounded: when it is full the capturing thread
+ * writes the file itself, which slows producers down instead of buffering without limit.
+ * <p>
+ * Settings: screenshot.dir, screenshot.writerThreads, screenshot.queueSize.
+ *
+ * @author Abhinav Gupta
+ */
+public class ScreenshotWriter {
+    private static final Logger logger = LogManager.getLogger(ScreenshotWriter.class);
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss_SSS");
+    private static final AtomicInteger sequence = new AtomicInteger();
+    private static final AtomicLong written = new AtomicLong();
+    private static final AtomicLong writtenInline = new AtomicLong();
+    private static final AtomicLong failed = new AtomicLong();
+    private static final AtomicInteger pending = new AtomicInteger();
+    private static ThreadPoolExecutor executor;
+
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private ScreenshotWriter() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Queues screenshot bytes to be written
+     *
+     * @param png PNG bytes as captured from the browser
+     * @param destination File to write, usually from {@link #newPath(String)}; a reference
+     *                    when content-addressed storage is enabled
+     * @return Future completing with the image file, or exceptionally if the write failed
+     */
+    public static CompletableFuture<Path> write(byte[] png, Path destination) {
+        CompletableFuture<Path> result = new CompletableFuture<>();
+        pending.incrementAndGet();
+        Runnable task = () -> {
+            try {
+                Files.createDirectories(destination.getParent());
+                Path image;
+                if (destination.getFileName().toString().endsWith(ScreenshotStore.REFERENCE_EXTENSION)) {
+                    image = ScreenshotStore.store(png, destination);
+                } else {
+                    Files.write(destination, png);
+                    image = destination;
+                }
+                written.incrementAndGet();
+                logger.info("Screenshot saved to: {}", destination);
+                result.complete(image);
+            } catch (IOException | RuntimeException e) {
+                // Anything thrown here, e.g. a bad compression setting, must still complete the future
+                failed.incrementAndGet();
+                logger.error("Failed to save screenshot {}: {}", destination, e.getMessage());
+                result.completeExceptionally(e);
+            } finally {
+                pending.decrementAndGet();
+            }
+        };
+        getExecutor().execute(task);
+        return result;
+    }
+
+    /**
+     * Builds a unique screenshot path: name, millisecond timestamp and a per-JVM sequence number,
+     * so parallel captures in the same second never collide
+     *
+     * @param name Screenshot name
+     * @return Path of a .png file, or of a reference when content-addressed storage is enabled
+     */
+    public static Path newPath(String name) {
+        String safeName = name.replaceAll("[^A-Za-z0-9._-]", "_");
+        String extension = ScreenshotStore.isEnabled() ? ScreenshotStore.REFERENCE_EXTENSION : ".png";
+        String fileName = String.format("%s_%s_%03d%s", safeName, LocalDateTime.now().format(TIMESTAMP_FORMAT),
+                sequence.incrementAndGet() % 1000, extension);
+        return getScreenshotDir().resolve(fileName);
+    }
+
+    /**
+     * Gets the screenshot folder
+     *
+     * @return Screenshot folder
+     */
+    public static Path getScreenshotDir() {
+        return Paths.get(ConfigManager.getInstance().getProperty("screenshot.dir", "target/screenshots"));
+    }
+
+    /**
+     * Waits until all queued screenshots are on disk, e.g. before a report is flushed
+     *
+     * @param timeoutMillis Maximum time to wait
+     * @return true if the queue was drained in time
+     */
+    public static boolean awaitPending(long timeoutMillis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (pending.get() > 0) {
+            if (System.nanoTime() >= deadline) {
+                logger.warn("{} screenshots still pending after {} ms", pending.get(), timeoutMillis);
+                return false;
+            }
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets a one-line summary of screenshot writes
+     *
+     * @return Written, written-by-caller and failed counts
+     */
+    public static String getStats() {
+        return String.format("written=%d (by caller under back-pressure: %d), failed=%d, store: %s",
+                written.get(), writtenInline.get(), failed.get(), ScreenshotStore.getStats());
+    }
+
+    private static synchronized ThreadPoolExecutor getExecutor() {
+        if (executor == null) {
+            ConfigManager config = ConfigManager.getInstance();
+            int threads = Math.max(1, config.getIntProperty("screenshot.writerThreads", 2));
+            int queueSize = Math.max(1, config.getIntProperty("screenshot.queueSize", 32));
+            AtomicInteger threadNumber = new AtomicInteger();
+            executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(queueSize),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, "screenshot-writer-" + threadNumber.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    },
+                    (runnable, pool) -> {
+                        // Queue full: write on the capturing thread
+                        writtenInline.incrementAndGet();
+                        runnable.run();
+                    });
+            executor.allowCoreThreadTimeOut(true);
+            // Daemon threads would otherwise be killed with screenshots still queued
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> awaitPending(10_000), "screenshot-writer-drain"));
+        }
+        return executor;
+    }
+}
@@ -0,0 +1,318 @@
+package com.qasmarts.framework.utils;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.SharedStrings;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Reads the data rows of one sheet of an .xlsx file with POI's SAX event model.
+ * Parsing runs on a background thread into a small bounded buffer, so rows can be
+ * consumed (e.g. by a TestNG DataProvider) before the sheet has been fully read and
+ * memory stays proportional to the buffer, not to the workbook.
+ * <p>
+ * The first row is treated as the header and defines the number of columns.
+ * Cell values follow {@link ExcelUtils#getTestData}: strings, doubles, booleans,
+ * formula text for formula cells and "" for empty cells. Optionally formula cells are read
+ * as the result Excel cached when the file was saved.
+ *
+ * @author Abhinav Gupta
+ */
+public class StreamingExcelReader implements Iterator<Object[]>, AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(StreamingExcelReader.class);
+    private static final Object[] END_OF_SHEET = new Object[0];
+
+    private final BlockingQueue<Object[]> buffer;
+    private final Thread parserThread;
+    private final boolean formulaValues;
+    private volatile Exception failure;
+    private volatile String[] headers;
+    private Object[] nextRow;
+    private boolean finished;
+
+    /**
+     * Starts reading the sheet in the background
+     *
+     * @param file Path to the .xlsx file
+     * @param sheetName Sheet name
+     * @param bufferRows Number of parsed rows that may wait for the consumer
+     */
+    public StreamingExcelReader(Path file, String sheetName, int bufferRows) {
+        this(file, sheetName, bufferRows, false);
+    }
+
+    /**
+     * Starts reading the sheet in the background
+     *
+     * @param file Path to the .xlsx file
+     * @param sheetName Sheet name
+     * @param bufferRows Number of parsed rows that may wait for the consumer
+     * @param formulaValues true to read formula cells as their cached result instead of the formula text
+     */
+    public StreamingExcelReader(Path file, String sheetName, int bufferRows, boolean formulaValues) {
+        this.formulaValues = formulaValues;
+        this.buffer = new ArrayBlockingQueue<>(Math.max(1, bufferRows));
+        this.parserThread = new Thread(() -> parse(file, sheetName), "excel-reader-" + file.getFileName());
+        this.parserThread.setDaemon(true);
+        this.parserThread.start();
+    }
+
+    /**
+     * Gets the header row, waiting for it to be parsed if needed
+     *
+     * @return Header cell texts
+     */
+    public String[] getHeaders() {
+        hasNext();
+        return headers == null ? new String[0] : headers;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (nextRow != null) {
+            return true;
+        }
+        if (finished) {
+            return false;
+        }
+        try {
+            Object[] row = buffer.take();
+            if (row == END_OF_SHEET) {
+                finished = true;
+                if (failure != null) {
+                    throw new IllegalStateException("Failed to read Excel data: " + failure.getMessage(), failure);
+                }
+                return false;
+            }
+            nextRow = row;
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while reading Excel data", e);
+        }
+    }
+
+    @Override
+    public Object[] next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Object[] row = nextRow;
+        nextRow = null;
+        return row;
+    }
+
+    /**
+     * Stops the background parser if the consumer gives up early
+     */
+    @Override
+    public void close() {
+        finished = true;
+        parserThread.interrupt();
+        buffer.clear();
+    }
+
+    private void parse(Path file, String sheetName) {
+        try (OPCPackage pkg = OPCPackage.open(file.toFile(), PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            SharedStrings strings = new ReadOnlySharedStringsTable(pkg);
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+            boolean found = false;
+            while (sheets.hasNext() && !found) {
+                try (InputStream sheet = sheets.next()) {
+                    if (sheetName.equals(sheets.getSheetName())) {
+                        found = true;
+                        XMLReader xmlReader = XMLHelper.newXMLReader();
+                        xmlReader.setContentHandler(new SheetHandler(strings));
+                        xmlReader.parse(new InputSource(sheet));
+                    }
+                }
+            }
+            if (!found) {
+                throw new IllegalArgumentException("Sheet not found: " + sheetName);
+            }
+        } catch (Exception e) {
+            if (!Thread.currentThread().isInterrupted()) {
+                logger.error("Failed to stream {} sheet {}: {}", file, sheetName, e.getMessage());
+                failure = e;
+            }
+        }
+        try {
+            buffer.put(END_OF_SHEET);
+        } catch (InterruptedException e) {
+            // Closed by the consumer, nobody is waiting for the end marker
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void publish(Object[] row) throws SAXException {
+        try {
+            buffer.put(row);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SAXException("Reading stopped by consumer");
+        }
+    }
+
+    /**
+     * SAX handler for a worksheet part. Only the elements needed for cell values are handled.
+     */
+    private class SheetHandler extends DefaultHandler {
+        private final SharedStrings strings;
+        private final StringBuilder text = new StringBuilder();
+        private int columnCount = -1;
+        private Object[] row;
+        private String[] headerRow;
+
+        private int column;
+        private String cellType;
+        private String value;
+        private String formula;
+        private boolean collecting;
+
+        SheetHandler(SharedStrings strings) {
+            this.strings = strings;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            switch (localName) {
+                case "row":
+                    row = columnCount < 0 ? new Object[16] : new Object[columnCount];
+                    headerRow = columnCount < 0 ? new String[16] : null;
+                    column = -1;
+                    break;
+                case "c":
+                    String ref = attributes.getValue("r");
+                    column = ref == null ? column + 1 : new CellReference(ref).getCol();
+                    cellType = attributes.getValue("t");
+                    value = null;
+                    formula = null;
+                    break;
+                case "v":
+                case "f":
+                case "t":
+                    text.setLength(0);
+                    collecting = true;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (collecting) {
+                text.append(ch, start, length);
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) throws SAXException {
+            switch (localName) {
+                case "v":
+                    value = text.toString();
+                    collecting = false;
+                    break;
+                case "t":
+                    // Inline strings may be split into several runs
+                    value = value == null ? text.toString() : value + text;
+                    collecting = false;
+                    break;
+                case "f":
+                    formula = text.toString();
+                    collecting = false;
+                    break;
+                case "c":
+                    storeCell();
+                    break;
+                case "row":
+                    endRow();
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        private void storeCell() {
+            if (columnCount < 0) {
+                if (column >= headerRow.length) {
+                    headerRow = Arrays.copyOf(headerRow, Math.max(column + 1, headerRow.length * 2));
+                }
+                Object header = toValue();
+                headerRow[column] = header == null ? "" : header.toString();
+                return;
+            }
+            if (column < columnCount) {
+                row[column] = toValue();
+            }
+        }
+
+        private Object toValue() {
+            boolean isFormula = formula != null && !formula.isEmpty();
+            if (isFormula && (!formulaValues || value == null)) {
+                // Without a cached result the formula text is the best we have
+                return formula;
+            }
+            if (value == null) {
+                return "";
+            }
+            if (cellType == null || "n".equals(cellType)) {
+                return Double.parseDouble(value);
+            }
+            switch (cellType) {
+                case "s":
+                    return strings.getItemAt(Integer.parseInt(value)).getString();
+                case "b":
+                    return "1".equals(value);
+                case "str":
+                case "inlineStr":
+                    return value;
+                default:
+                    return "";
+            }
+        }
+
+        private void endRow() throws SAXException {
+            if (columnCount < 0) {
+                int width = headerRow.length;
+                while (width > 0 && headerRow[width - 1] == null) {
+                    width--;
+                }
+                columnCount = width;
+                String[] trimmed = Arrays.copyOf(headerRow, width);
+                for (int i = 0; i < width; i++) {
+                    if (trimmed[i] == null) {
+                        trimmed[i] = "";
+                    }
+                }
+                headers = trimmed;
+                return;
+            }
+            for (int i = 0; i < columnCount; i++) {
+                if (row[i] == null) {
+                    row[i] = "";
+                }
+            }
+            publish(row);
+        }
+    }
+}
@@ -0,0 +1,351 @@
+package com.qasmarts.framework.utils;
+
+import com.qasmarts.framework.config.ConfigManager;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Process-wide cache of parsed test data.
+ * <p>
+ * Each file and sheet is parsed at most once per JVM while the file's modification time and
+ * size stay the same; concurrent callers asking for the same sheet wait for the single parse.
+ * Parsed sheets are also written to a compact binary snapshot next to the build output,
+ * tagged with the SHA-256 of the source file, so later runs memory-map the snapshot instead
+ * of parsing the workbook again. Callers always get their own copy of the rows.
+ *
+ * @author Abhinav Gupta
+ */
+public class TestDataCache {
+    private static final Logger logger = LogManager.getLogger(TestDataCache.class);
+    private static final int SNAPSHOT_MAGIC = 0x51444331; // "QDC1"
+    private static final byte TYPE_STRING = 0;
+    private static final byte TYPE_DOUBLE = 1;
+    private static final byte TYPE_BOOLEAN = 2;
+
+    private static final Map<String, Entry> cache = new ConcurrentHashMap<>();
+    private static final AtomicLong parses = new AtomicLong();
+    private static final AtomicLong parseNanos = new AtomicLong();
+    private static final AtomicLong snapshotLoads = new AtomicLong();
+    private static final AtomicLong snapshotNanos = new AtomicLong();
+    private static final AtomicLong memoryHits = new AtomicLong();
+    private static final AtomicLong memoryHitNanos = new AtomicLong();
+
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private TestDataCache() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Gets the rows of a sheet, parsing the file only if neither the in-memory cache
+     * nor an up-to-date snapshot has them
+     *
+     * @param file Path to the data file
+     * @param sheetName Sheet name
+     * @param parser Parses the sheet; may return null on failure, which is not cached
+     * @return Copy of the rows, or null if parsing failed
+     */
+    public static Object[][] get(Path file, String sheetName, Supplier<Object[][]> parser) {
+        return get(file, sheetName, "", parser);
+    }
+
+    /**
+     * Gets the rows of a sheet as read by one particular parser configuration
+     *
+     * @param file Path to the data file
+     * @param sheetName Sheet name
+     * @param variant Distinguishes differently parsed copies of the same sheet, e.g. "values"
+     * @param parser Parses the sheet; may return null on failure, which is not cached
+     * @return Copy of the rows, or null if parsing failed
+     */
+    public static Object[][] get(Path file, String sheetName, String variant, Supplier<Object[][]> parser) {
+        long start = System.nanoTime();
+        long modified;
+        long size;
+        try {
+            modified = Files.getLastModifiedTime(file).toMillis();
+            size = Files.size(file);
+        } catch (IOException e) {
+            // Let the parser report the missing file the way it always has
+            return parser.get();
+        }
+
+        String key = file.toAbsolutePath().normalize() + "#" + sheetName + (variant.isEmpty() ? "" : "#" + variant);
+        while (true) {
+            Entry cached = cache.get(key);
+            if (cached != null && cached.modified == modified && cached.size == size) {
+                boolean parsed = cached.rows.isDone();
+                Object[][] rows = await(cached.rows);
+                if (parsed) {
+                    memoryHits.incrementAndGet();
+                    memoryHitNanos.addAndGet(System.nanoTime() - start);
+                }
+                return rows == null ? null : copy(rows);
+            }
+
+            // Claim the key with a pending entry, then parse outside the map so no bin stays locked;
+            // parallel callers find the pending entry and wait for this one parse
+            Entry pending = new Entry(modified, size, new CompletableFuture<>());
+            boolean claimed = cached == null
+                    ? cache.putIfAbsent(key, pending) == null
+                    : cache.replace(key, cached, pending);
+            if (!claimed) {
+                continue;
+            }
+            Object[][] rows;
+            try {
+                rows = load(file, sheetName, variant, parser);
+            } catch (RuntimeException | Error e) {
+                cache.remove(key, pending);
+                pending.rows.completeExceptionally(e);
+                throw e;
+            }
+            if (rows == null) {
+                cache.remove(key, pending);
+            }
+            pending.rows.complete(rows);
+            return rows == null ? null : copy(rows);
+        }
+    }
+
+    /**
+     * Drops all in-memory entries. Snapshots on disk are kept.
+     */
+    public static void clear() {
+        cache.clear();
+    }
+
+    /**
+     * Gets a one-line summary of where test data came from and how long it took
+     *
+     * @return Summary of parse, snapshot and memory hit counts and timings
+     */
+    public static String getStats() {
+        return String.format("parsed=%d (%.1f ms), snapshot=%d (%.1f ms), memory=%d (%.3f ms)",
+                parses.get(), parseNanos.get() / 1e6,
+                snapshotLoads.get(), snapshotNanos.get() / 1e6,
+                memoryHits.get(), memoryHitNanos.get() / 1e6);
+    }
+
+    public static long getParseCount() {
+        return parses.get();
+    }
+
+    public static long getSnapshotLoadCount() {
+        return snapshotLoads.get();
+    }
+
+    public static long getMemoryHitCount() {
+        return memoryHits.get();
+    }
+
+    private static Object[][] load(Path file, String sheetName, String variant, Supplier<Object[][]> parser) {
+        boolean snapshotsEnabled = ConfigManager.getInstance().getBooleanProperty("testdata.snapshot.enabled", true);
+        byte[] hash = null;
+        Path snapshot = null;
+
+        if (snapshotsEnabled) {
+            long start = System.nanoTime();
+            try {
+                hash = sha256(file);
+                snapshot = getSnapshotPath(file, sheetName, variant);
+                Object[][] rows = readSnapshot(snapshot, hash);
+                if (rows != null) {
+                    long elapsed = System.nanoTime() - start;
+                    snapshotLoads.incrementAndGet();
+                    snapshotNanos.addAndGet(elapsed);
+                    logger.info("Test data {} [{}] loaded from snapshot in {} ms", file.getFileName(), sheetName,
+                            elapsed / 1_000_000);
+                    return rows;
+                }
+            } catch (IOException e) {
+                logger.warn("Ignoring unreadable snapshot for {} [{}]: {}", file.getFileName(), sheetName, e.getMessage());
+            }
+        }
+
+        long start = System.nanoTime();
+        Object[][] rows = parser.get();
+        long elapsed = System.nanoTime() - start;
+        if (rows == null) {
+            return null;
+        }
+        parses.incrementAndGet();
+        parseNanos.addAndGet(elapsed);
+        logger.info("Test data {} [{}] parsed in {} ms", file.getFileName(), sheetName, elapsed / 1_000_000);
+
+        if (snapshot != null) {
+            try {
+                writeSnapshot(snapshot, hash, rows);
+            } catch (IOException | IllegalArgumentException e) {
+                logger.warn("Could not write snapshot for {} [{}]: {}", file.getFileName(), sheetName, e.getMessage());
+            }
+        }
+        return rows;
+    }
+
+    private static Path getSnapshotPath(Path file, String sheetName, String variant) {
+        String dir = ConfigManager.getInstance().getProperty("testdata.snapshot.dir", "target/testdata-cache");
+        String name = (file.getFileName() + "__" + sheetName + (variant.isEmpty() ? "" : "__" + variant)).replaceAll("[^A-Za-z0-9._-]", "_") + ".bin";
+        return Paths.get(dir, name);
+    }
+
+    /**
+     * Snapshot layout: magic, hash length, source hash, rows, columns, then per cell a type tag
+     * followed by a length-prefixed UTF-8 string, a double or a boolean byte.
+     */
+    private static void writeSnapshot(Path snapshot, byte[] hash, Object[][] rows) throws IOException {
+        Files.createDirectories(snapshot.getParent());
+        Path temp = Files.createTempFile(snapshot.getParent(), snapshot.getFileName().toString(), ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            int columns = rows.length == 0 ? 0 : rows[0].length;
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(hash.length);
+            out.write(hash);
+            out.writeInt(rows.length);
+            out.writeInt(columns);
+            for (Object[] row : rows) {
+                if (row.length != columns) {
+                    throw new IllegalArgumentException("Rows have different lengths");
+                }
+                for (Object cell : row) {
+                    writeCell(out, cell);
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        // Readers in other JVMs never see a half-written snapshot
+        Files.move(temp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void writeCell(DataOutputStream out, Object cell) throws IOException {
+        if (cell instanceof Double) {
+            out.writeByte(TYPE_DOUBLE);
+            out.writeDouble((Double) cell);
+        } else if (cell instanceof Boolean) {
+            out.writeByte(TYPE_BOOLEAN);
+            out.writeBoolean((Boolean) cell);
+        } else {
+            byte[] bytes = String.valueOf(cell == null ? "" : cell).getBytes(StandardCharsets.UTF_8);
+            out.writeByte(TYPE_STRING);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static Object[][] readSnapshot(Path snapshot, byte[] hash) throws IOException {
+        if (!Files.isRegularFile(snapshot)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 8 || buffer.getInt() != SNAPSHOT_MAGIC) {
+                return null;
+            }
+            byte[] storedHash = new byte[buffer.getInt()];
+            buffer.get(storedHash);
+            if (!Arrays.equals(storedHash, hash)) {
+                return null;
+            }
+            Object[][] rows = new Object[buffer.getInt()][buffer.getInt()];
+            for (Object[] row : rows) {
+                for (int col = 0; col < row.length; col++) {
+                    row[col] = readCell(buffer);
+                }
+            }
+            return rows;
+        } catch (RuntimeException e) {
+            // Truncated or corrupt file: treat as a miss and rewrite it
+            throw new IOException("Corrupt snapshot " + snapshot, e);
+        }
+    }
+
+    private static Object readCell(ByteBuffer buffer) {
+        byte type = buffer.get();
+        switch (type) {
+            case TYPE_DOUBLE:
+                return buffer.getDouble();
+            case TYPE_BOOLEAN:
+                return buffer.get() != 0;
+            case TYPE_STRING:
+                byte[] bytes = new byte[buffer.getInt()];
+                buffer.get(bytes);
+                return new String(bytes, StandardCharsets.UTF_8);
+            default:
+                throw new IllegalStateException("Unknown cell type " + type);
+        }
+    }
+
+    private static byte[] sha256(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] chunk = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(chunk)) != -1) {
+                digest.update(chunk, 0, read);
+            }
+            return digest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static Object[][] await(CompletableFuture<Object[][]> rows) {
+        try {
+            return rows.join();
+        } catch (CompletionException e) {
+            // Waiters see the parser's own exception, as the parsing caller does
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static Object[][] copy(Object[][] rows) {
+        Object[][] copy = new Object[rows.length][];
+        for (int i = 0; i < rows.length; i++) {
+            copy[i] = rows[i].clone();
+        }
+        return copy;
+    }
+
+    /**
+     * Parsed rows of one sheet, valid for one version of the file; pending while it is parsed
+     */
+    private static class Entry {
+        private final long modified;
+        private final long size;
+        private final CompletableFuture<Object[][]> rows;
+
+        Entry(long modified, long size, CompletableFuture<Object[][]> rows) {
+            this.modified = modified;
+            this.size = size;
+            this.rows = rows;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.qasmarts.framework.utils;
+
+import com.qasmarts.framework.config.ConfigManager;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Test method durations remembered across runs, used to schedule the longest work first.
+ * <p>
+ * Durations are kept per &lt;test&gt; block and "class#method", since a class listed in several
+ * blocks (e.g. one per browser) runs once in each. A method not yet timed in a block falls back
+ * to its average over the other blocks, so moving a class keeps its history. All invocations of
+ * a method in one block and run (data provider rows) are added up, and on
+ * {@link #save()} the run total is blended into the stored value as an exponential moving
+ * average (timing.store.smoothing), so one slow run does not reorder the next suite on its own.
+ * The file is re-read before saving and replaced atomically, so JVMs sharing it only lose
+ * updates to the same method, never the whole file.
+ *
+ * @author Abhinav Gupta
+ */
+public class TestDurationStore {
+    private static final Logger logger = LogManager.getLogger(TestDurationStore.class);
+    private static final String BLOCK_SEPARATOR = "|";
+    private static TestDurationStore defaultStore;
+
+    private final Path file;
+    private final double smoothing;
+    private final Map<String, Long> history = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> currentRun = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor with the store file
+     *
+     * @param file Properties file holding the durations; loaded if it exists
+     * @param smoothing Weight of a new run between 0 (ignore it) and 1 (replace the history)
+     */
+    public TestDurationStore(Path file, double smoothing) {
+        this.file = file;
+        this.smoothing = Math.min(1, Math.max(0, smoothing));
+        history.putAll(load(file));
+    }
+
+    /**
+     * Gets the store configured by timing.store.*, loading it on first use
+     *
+     * @return Shared store
+     */
+    public static synchronized TestDurationStore getDefault() {
+        if (defaultStore == null) {
+            ConfigManager config = ConfigManager.getInstance();
+            String configured = config.getProperty("timing.store.file", "");
+            Path file = configured.isEmpty()
+                    ? Paths.get(System.getProperty("user.home"), ".cache", "qasmarts", "test-durations.properties")
+                    : Paths.get(configured);
+            defaultStore = new TestDurationStore(file, config.getDoubleProperty("timing.store.smoothing", 0.5));
+        }
+        return defaultStore;
+    }
+
+    /**
+     * Adds the duration of one invocation to the current run
+     *
+     * @param block Name of the &lt;test&gt; block that ran the method
+     * @param className Fully qualified test class name
+     * @param methodName Test method name
+     * @param millis Time the invocation took
+     */
+    public void record(String block, String className, String methodName, long millis) {
+        currentRun.computeIfAbsent(key(block, className, methodName), k -> new LongAdder()).add(Math.max(0, millis));
+    }
+
+    /**
+     * Gets the remembered duration of a method in a block
+     *
+     * @param block Name of the &lt;test&gt; block
+     * @param className Fully qualified test class name
+     * @param methodName Test method name
+     * @return Duration per run in milliseconds, or -1 if the method has never been timed
+     */
+    public long getDuration(String block, String className, String methodName) {
+        Long millis = getDurations(block, className).get(methodName);
+        return millis == null ? -1 : millis;
+    }
+
+    /**
+     * Gets the remembered durations of every timed method of a class in a block. Methods never
+     * timed in this block get their average over the blocks that ran them.
+     *
+     * @param block Name of the &lt;test&gt; block
+     * @param className Fully qualified test class name
+     * @return Duration per run in milliseconds by method name, empty if none was timed
+     */
+    public Map<String, Long> getDurations(String block, String className) {
+        String suffix = BLOCK_SEPARATOR + className + "#";
+        String blockPrefix = block + suffix;
+        Map<String, Long> durations = new TreeMap<>();
+        Map<String, long[]> otherBlocks = new TreeMap<>();
+        history.forEach((key, millis) -> {
+            int classStart = key.indexOf(suffix);
+            if (classStart < 0 || key.indexOf(BLOCK_SEPARATOR) != classStart) {
+                return;
+            }
+            if (key.startsWith(blockPrefix)) {
+                durations.put(key.substring(blockPrefix.length()), millis);
+            } else {
+                long[] sumAndCount = otherBlocks.computeIfAbsent(key.substring(classStart + suffix.length()),
+                        k -> new long[2]);
+                sumAndCount[0] += millis;
+                sumAndCount[1]++;
+            }
+        });
+        otherBlocks.forEach((method, sumAndCount) -> durations.putIfAbsent(method, sumAndCount[0] / sumAndCount[1]));
+        return durations;
+    }
+
+    /**
+     * Gets the average remembered duration, used for methods that were never timed
+     *
+     * @return Average duration per method in milliseconds, 0 if none was timed
+     */
+    public long getAverageDuration() {
+        return (long) history.values().stream().mapToLong(Long::longValue).average().orElse(0);
+    }
+
+    /**
+     * Checks whether any duration is remembered
+     *
+     * @return true if no method has been timed yet
+     */
+    public boolean isEmpty() {
+        return history.isEmpty();
+    }
+
+    /**
+     * Blends the durations recorded since the last save into the store and writes it
+     */
+    public synchronized void save() {
+        if (currentRun.isEmpty()) {
+            return;
+        }
+        Map<String, Long> merged = load(file);
+        for (String key : currentRun.keySet()) {
+            long run = currentRun.remove(key).sum();
+            Long previous = merged.get(key);
+            merged.put(key, previous == null ? run : Math.round(smoothing * run + (1 - smoothing) * previous));
+        }
+        history.putAll(merged);
+
+        Properties properties = new Properties();
+        merged.forEach((key, millis) -> properties.setProperty(key, String.valueOf(millis)));
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            Path tmp = Files.createTempFile(file.toAbsolutePath().getParent(), "test-durations", ".tmp");
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                properties.store(out, "Test method durations in milliseconds per run, keyed by block|class#method");
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("Failed to write test durations {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static Map<String, Long> load(Path file) {
+        Map<String, Long> durations = new ConcurrentHashMap<>();
+        if (!Files.exists(file)) {
+            return durations;
+        }
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            properties.load(in);
+        } catch (IOException e) {
+            logger.warn("Failed to read test durations {}: {}", file, e.getMessage());
+            return durations;
+        }
+        for (String key : properties.stringPropertyNames()) {
+            try {
+                durations.put(key, Long.parseLong(properties.getProperty(key).trim()));
+            } catch (NumberFormatException e) {
+                logger.debug("Ignoring invalid duration for {}", key);
+            }
+        }
+        return durations;
+    }
+
+    private static String key(String block, String className, String methodName) {
+        return block + BLOCK_SEPARATOR + className + "#" + methodName;
+    }
+}
@@ -0,0 +1,169 @@
+package com.qasmarts.tests;
+
+import com.qasmarts.framework.utils.ApiCassette;
+import com.qasmarts.framework.utils.ApiReplayServer;
+import com.qasmarts.framework.utils.ApiUtils;
+import com.sun.net.httpserver.HttpServer;
+import io.restassured.response.Response;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Test class for recording API calls to a cassette and replaying them offline.
+ * Records against an HTTP server started by the test.
+ *
+ * @author Abhinav Gupta
+ */
+public class ApiCassetteTest {
+
+    private HttpServer server;
+    private String baseUrl;
+    private Path cassetteFile;
+    private final AtomicInteger serviceCalls = new AtomicInteger();
+
+    /**
+     * Starts a local service that numbers its answers and echoes request bodies
+     */
+    @BeforeClass
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/users", exchange -> {
+            byte[] request;
+            try (InputStream in = exchange.getRequestBody()) {
+                request = in.readAllBytes();
+            }
+            String body = "{\"call\":" + serviceCalls.incrementAndGet() + ",\"method\":\"" + exchange.getRequestMethod()
+                    + "\",\"received\":" + (request.length == 0 ? "null" : new String(request, StandardCharsets.UTF_8)) + "}";
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.getResponseHeaders().add("Set-Cookie", "session=" + serviceCalls.get());
+            exchange.getResponseHeaders().add("Set-Cookie", "theme=dark");
+            exchange.sendResponseHeaders("POST".equals(exchange.getRequestMethod()) ? 201 : 200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        server.createContext("/api/reports", exchange -> {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write("{\"report\":\"weekly\"}".getBytes(StandardCharsets.UTF_8));
+            }
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+            exchange.sendResponseHeaders(200, compressed.size());
+            try (OutputStream out = exchange.getResponseBody()) {
+                compressed.writeTo(out);
+            }
+        });
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/api";
+        cassetteFile = Files.createTempDirectory("cassettes").resolve("users.jsonl");
+    }
+
+    /**
+     * Stops the local service
+     */
+    @AfterClass(alwaysRun = true)
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    /**
+     * Verifies recorded exchanges are replayed without calling the service
+     */
+    @Test(description = "Verify recorded API calls replay offline")
+    public void testRecordAndReplay() {
+        ApiUtils recorder = new ApiUtils(baseUrl, ApiCassette.Mode.RECORD, cassetteFile);
+        Response first = recorder.sendGetRequest("/users?page=2");
+        Response second = recorder.sendGetRequest("/users?page=2");
+        Response created = recorder.sendPostRequest("/users", "{\"name\":\"morpheus\"}");
+        int firstCall = first.jsonPath().getInt("call");
+        int secondCall = second.jsonPath().getInt("call");
+        Assert.assertEquals(secondCall, firstCall + 1);
+        Assert.assertEquals(created.getStatusCode(), 201);
+        Assert.assertTrue(Files.exists(cassetteFile), "Cassette should be written while recording");
+
+        int callsBeforeReplay = serviceCalls.get();
+        ApiUtils replayer = new ApiUtils(baseUrl, ApiCassette.Mode.REPLAY, cassetteFile);
+        Response replayedFirst = replayer.sendGetRequest("/users?page=2");
+        Assert.assertEquals(replayedFirst.jsonPath().getInt("call"), firstCall,
+                "Repeated requests should replay in recorded order");
+        Assert.assertEquals(replayedFirst.getHeaders().getValues("Set-Cookie"),
+                Arrays.asList("session=" + firstCall, "theme=dark"), "Repeated headers should keep every value");
+        Assert.assertEquals(replayer.sendGetRequest("/users?page=2").jsonPath().getInt("call"), secondCall);
+        Assert.assertEquals(replayer.sendGetRequest("/users?page=2").jsonPath().getInt("call"), secondCall,
+                "The last recording should repeat");
+        Response replayedPost = replayer.sendPostRequest("/users", "{\"name\":\"morpheus\"}");
+        Assert.assertEquals(replayedPost.getStatusCode(), 201);
+        Assert.assertEquals(replayedPost.jsonPath().getString("received.name"), "morpheus");
+        Assert.assertEquals(replayer.sendPostRequest("/users", "{\"name\":\"neo\"}").getStatusCode(), 501,
+                "A different body should not match the recording");
+        Assert.assertEquals(serviceCalls.get(), callsBeforeReplay, "Replay should not call the service");
+    }
+
+    /**
+     * Verifies compressed responses replay; the cassette holds them already decoded
+     */
+    @Test(description = "Verify gzip-encoded API calls replay offline")
+    public void testGzipResponseReplays() {
+        Path file = cassetteFile.resolveSibling("gzip.jsonl");
+        Response recorded = new ApiUtils(baseUrl, ApiCassette.Mode.RECORD, file).sendGetRequest("/reports");
+        Assert.assertEquals(recorded.jsonPath().getString("report"), "weekly");
+
+        Response replayed = new ApiUtils(baseUrl, ApiCassette.Mode.REPLAY, file).sendGetRequest("/reports");
+        Assert.assertEquals(replayed.getStatusCode(), 200);
+        Assert.assertNull(replayed.getHeader("Content-Encoding"), "The replayed body is not compressed");
+        Assert.assertEquals(replayed.jsonPath().getString("report"), "weekly");
+    }
+
+    /**
+     * Verifies injected latency and errors follow the profile and repeat for the same seed
+     */
+    @Test(description = "Verify replay injects repeatable latency and errors")
+    public void testLatencyAndErrorInjection() throws IOException {
+        ApiCassette cassette = new ApiCassette(cassetteFile.resolveSibling("profile.jsonl"));
+        new ApiUtils(baseUrl, ApiCassette.Mode.RECORD, cassette.getFile()).sendGetRequest("/users");
+        cassette = new ApiCassette(cassette.getFile());
+
+        List<Integer> firstRun = replayStatuses(cassette);
+        List<Integer> secondRun = replayStatuses(cassette);
+
+        Assert.assertEquals(secondRun, firstRun, "The same seed should fail the same requests");
+        long errors = firstRun.stream().filter(status -> status == 503).count();
+        Assert.assertTrue(errors > 0 && errors < firstRun.size(), "About half the requests should fail: " + firstRun);
+        Assert.assertTrue(firstRun.stream().allMatch(status -> status == 200 || status == 503));
+    }
+
+    private List<Integer> replayStatuses(ApiCassette cassette) throws IOException {
+        ApiReplayServer replay = new ApiReplayServer(cassette,
+                new ApiReplayServer.Profile().latencyMillis(20).jitterMillis(10).errorRate(0.5).seed(7));
+        try {
+            ApiUtils client = new ApiUtils(replay.getBaseUrl() + "/api", ApiCassette.Mode.OFF, null);
+            List<Integer> statuses = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                long start = System.nanoTime();
+                statuses.add(client.sendGetRequest("/users").getStatusCode());
+                Assert.assertTrue(System.nanoTime() - start >= 20_000_000L, "Every answer should be delayed");
+            }
+            return statuses;
+        } finally {
+            replay.stop();
+        }
+    }
+}
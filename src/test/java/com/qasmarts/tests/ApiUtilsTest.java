@@ -0,0 +1,285 @@
+package com.qasmarts.tests;
+
+import com.qasmarts.framework.utils.ApiBatchResult;
+import com.qasmarts.framework.utils.ApiConnectionPool;
+import com.qasmarts.framework.utils.ApiLoadGenerator;
+import com.qasmarts.framework.utils.ApiRequest;
+import com.qasmarts.framework.utils.ApiUtils;
+import com.sun.net.httpserver.HttpServer;
+import io.restassured.response.Response;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Test class for ApiUtils against an HTTP server started by the test.
+ * Does not need network access.
+ *
+ * @author Abhinav Gupta
+ */
+public class ApiUtilsTest {
+
+    private HttpServer server;
+    private ExecutorService serverThreads;
+    private ApiUtils apiUtils;
+    private String baseUrl;
+    private final byte[] download = new byte[2_000_000];
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    /**
+     * Starts a local server that echoes the request method as JSON
+     */
+    @BeforeClass
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/echo", exchange -> {
+            byte[] body = ("{\"method\":\"" + exchange.getRequestMethod() + "\"}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.createContext("/slow", exchange -> {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        server.createContext("/missing", exchange -> {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+        });
+        server.createContext("/item", exchange -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            inFlight.decrementAndGet();
+            byte[] body = ("{\"id\":" + exchange.getRequestURI().getQuery().substring("id=".length()) + "}")
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(201, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        Arrays.fill(download, (byte) 7);
+        server.createContext("/download", exchange -> {
+            exchange.getResponseHeaders().set("Content-Type", "application/octet-stream");
+            exchange.sendResponseHeaders(200, download.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(download);
+            }
+        });
+        serverThreads = Executors.newFixedThreadPool(8);
+        server.setExecutor(serverThreads);
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+        apiUtils = new ApiUtils(baseUrl);
+    }
+
+    /**
+     * Stops the local server
+     */
+    @AfterClass(alwaysRun = true)
+    public void tearDown() {
+        server.stop(0);
+        serverThreads.shutdownNow();
+    }
+
+    /**
+     * Verifies sequential requests reuse pooled keep-alive connections
+     */
+    @Test(description = "Verify API requests reuse pooled connections")
+    public void testConnectionsAreReused() {
+        long createdBefore = ApiConnectionPool.getCreated(baseUrl);
+        for (int i = 0; i < 50; i++) {
+            Response response = i % 2 == 0 ? apiUtils.sendGetRequest("/echo") : apiUtils.sendPostRequest("/echo", "{}");
+            Assert.assertEquals(response.getStatusCode(), 200);
+            Assert.assertEquals(response.jsonPath().getString("method"), i % 2 == 0 ? "GET" : "POST");
+        }
+
+        long created = ApiConnectionPool.getCreated(baseUrl) - createdBefore;
+        Assert.assertTrue(created >= 1 && created <= 2, "50 requests should share a connection, created " + created);
+        Assert.assertEquals(ApiConnectionPool.getLeased(baseUrl), 0, "Connections should be returned after each response");
+    }
+
+    /**
+     * Verifies error responses without a body give their connection back to the pool
+     */
+    @Test(description = "Verify empty error responses release their connection", timeOut = 30000)
+    public void testEmptyErrorReleasesConnection() {
+        // More requests than api.pool.maxPerRoute, so a leaked connection would block the pool
+        for (int i = 0; i < 50; i++) {
+            Assert.assertEquals(apiUtils.sendGetRequest("/missing").getStatusCode(), 404);
+        }
+        Assert.assertEquals(ApiConnectionPool.getLeased(baseUrl), 0, "404 responses should not keep their connection leased");
+    }
+
+    /**
+     * Verifies a batch keeps request order and never has more requests in flight than allowed
+     */
+    @Test(description = "Verify batch requests keep their order and concurrency limit")
+    public void testBatchKeepsOrderAndLimit() {
+        List<ApiRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            requests.add(ApiRequest.post("/item?id=" + i, "{\"name\":\"fixture " + i + "\"}"));
+        }
+        maxInFlight.set(0);
+        ApiBatchResult result = apiUtils.sendBatch(requests, 4);
+
+        result.assertAllSucceeded();
+        Assert.assertEquals(result.size(), 200);
+        for (int i = 0; i < 200; i++) {
+            Assert.assertEquals(result.getResponse(i).getStatusCode(), 201);
+            Assert.assertEquals(result.getResponse(i).jsonPath().getInt("id"), i, "Response " + i + " out of order");
+        }
+        Assert.assertTrue(maxInFlight.get() > 1, "Batch requests should overlap");
+        Assert.assertTrue(maxInFlight.get() <= 4, "At most 4 requests should be in flight, saw " + maxInFlight.get());
+    }
+
+    /**
+     * Verifies failed batch requests are collected instead of stopping the batch
+     */
+    @Test(description = "Verify batch failures are aggregated")
+    public void testBatchAggregatesFailures() throws Exception {
+        List<ApiRequest> requests = Arrays.asList(ApiRequest.get("/echo"), ApiRequest.delete("/missing"),
+                ApiRequest.put("/echo", "{}"), ApiRequest.get("/missing"));
+        ApiBatchResult result = apiUtils.sendBatch(requests);
+
+        Assert.assertFalse(result.isSuccessful());
+        Assert.assertEquals(result.getFailures(), Arrays.asList(
+                "#1 DELETE /missing: status 404", "#3 GET /missing: status 404"));
+        Assert.assertEquals(result.getResponse(2).jsonPath().getString("method"), "PUT");
+        try {
+            result.assertAllSucceeded();
+            Assert.fail("Batch with failures should not pass");
+        } catch (AssertionError e) {
+            Assert.assertTrue(e.getMessage().startsWith("2 of 4 requests failed"), e.getMessage());
+        }
+
+        ApiBatchResult unreachable = new ApiUtils("http://127.0.0.1:1").sendBatch(
+                Collections.singletonList(ApiRequest.get("/echo")));
+        Assert.assertNull(unreachable.getResponse(0));
+        Assert.assertNotNull(unreachable.getError(0));
+
+        // Requests that fail before they are sent must not nest their completions on the stack
+        ApiBatchResult invalid = apiUtils.sendBatch(Collections.nCopies(5000, ApiRequest.get("/not a path")), 4);
+        Assert.assertEquals(invalid.getFailures().size(), 5000);
+        Assert.assertTrue(invalid.getError(4999) instanceof IllegalArgumentException, String.valueOf(invalid.getError(4999)));
+        Assert.assertEquals(apiUtils.sendGetRequestAsync("/echo").get(10, TimeUnit.SECONDS).getStatusCode(), 200);
+    }
+
+    /**
+     * Verifies an open-model load run keeps its rate and reports errors and latency per step
+     */
+    @Test(description = "Verify API load runs at the target rate and reports errors and latency")
+    public void testLoadAtTargetRate() {
+        ApiLoadGenerator.Result result = new ApiLoadGenerator(apiUtils)
+                .step("GET /slow", api -> api.sendGetRequest("/slow"))
+                .step("GET /missing", api -> api.sendGetRequest("/missing"))
+                .ratePerSecond(50)
+                .concurrency(4)
+                .duration(Duration.ofSeconds(2))
+                .run();
+
+        Assert.assertEquals(result.getIterations(), 100, "2 s at 50/s should start 100 iterations");
+        Assert.assertEquals(result.getRequests(), 200);
+        Assert.assertEquals(result.getErrors("GET /missing"), 100, "404s should count as errors");
+        Assert.assertEquals(result.getErrors("GET /slow"), 0);
+        Assert.assertEquals(result.getErrorRate(), 0.5, 0.001);
+        Assert.assertTrue(result.getLatency("GET /slow").getValueAtPercentile(50) >= 20_000,
+                "Latency should include the server delay: " + result.getLatency("GET /slow"));
+        Assert.assertTrue(result.getThroughput() > 50, "Throughput should be about 100 requests/s: " + result.getThroughput());
+    }
+
+    /**
+     * Verifies a closed-model load run keeps every worker busy for the duration
+     */
+    @Test(description = "Verify closed-loop API load runs for its duration")
+    public void testClosedLoopLoad() {
+        ApiLoadGenerator.Result result = new ApiLoadGenerator(apiUtils)
+                .step("GET /slow", api -> api.sendGetRequest("/slow"))
+                .concurrency(4)
+                .ratePerSecond(0)
+                .duration(Duration.ofSeconds(1))
+                .run();
+
+        // 4 workers with 20 ms responses manage at most about 200 requests in a second
+        Assert.assertTrue(result.getRequests() >= 40 && result.getRequests() <= 220,
+                "Unexpected request count: " + result.getRequests());
+        Assert.assertEquals(result.getErrors(), 0);
+        Assert.assertTrue(result.getLatency().getMinMicros() >= 20_000);
+    }
+
+    /**
+     * Verifies a download is released to the pool even if the caller only checks the status
+     */
+    @Test(description = "Verify unlogged downloads do not keep their connection leased")
+    public void testDownloadReleasesConnection() throws IOException {
+        Response response = apiUtils.sendGetRequest("/download");
+
+        Assert.assertEquals(response.getStatusCode(), 200);
+        Assert.assertEquals(ApiConnectionPool.getLeased(baseUrl), 0, "The connection should be back in the pool");
+        try (InputStream body = response.getBody().asInputStream()) {
+            Assert.assertEquals(body.readAllBytes(), download, "The caller should still get the body");
+        }
+    }
+
+    /**
+     * Verifies debug logging streams a large body to a side file and still returns it
+     */
+    @Test(description = "Verify large bodies are logged to a side file at debug level")
+    public void testLargeBodyLoggedToSideFile() throws IOException {
+        Path bodyDir = Paths.get("target/api-logs");
+        long filesBefore = countFiles(bodyDir);
+        Configurator.setLevel(ApiUtils.class.getName(), Level.DEBUG);
+        try {
+            Response response = apiUtils.sendGetRequest("/download");
+
+            Assert.assertEquals(ApiConnectionPool.getLeased(baseUrl), 0, "The body should already be on disk");
+            Assert.assertEquals(countFiles(bodyDir), filesBefore + 1, "One side file should be written");
+            Assert.assertEquals(response.getBody().asByteArray(), download, "The caller should still get the body");
+        } finally {
+            Configurator.setLevel(ApiUtils.class.getName(), Level.INFO);
+        }
+    }
+
+    private static long countFiles(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return 0;
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.count();
+        }
+    }
+}
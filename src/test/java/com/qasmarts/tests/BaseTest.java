@@ -3,7 +3,9 @@ package com.qasmarts.tests;
 import com.qasmarts.framework.WebDriverFactory;
 import org.openqa.selenium.WebDriver;
 import org.testng.annotations.AfterMethod;
+import org.testng.annotations.AfterSuite;
 import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Optional;
 import org.testng.annotations.Parameters;
 
 /**
@@ -14,18 +16,23 @@ import org.testng.annotations.Parameters;
  */
 public class BaseTest {
     protected WebDriver driver;
+    protected String browser;
+    protected String profile;
     protected static final String BASE_URL = "https://the-internet.herokuapp.com";
     
     /**
      * Setup method that runs before each test
      * 
      * @param browser Browser name from testng.xml
+     * @param profile Browser profile from testng.xml, empty for the configured default
      */
     @BeforeMethod
-    @Parameters("browser")
-    public void setUp(String browser) {
-        // Initialize WebDriver
-        driver = WebDriverFactory.createDriver(browser);
+    @Parameters({"browser", "profile"})
+    public void setUp(String browser, @Optional("") String profile) {
+        // Initialize WebDriver (a warm pooled session when pooling is enabled)
+        this.browser = browser;
+        this.profile = profile;
+        driver = WebDriverFactory.acquireDriver(browser, profile);
     }
     
     /**
@@ -33,8 +40,25 @@ public class BaseTest {
      */
     @AfterMethod
     public void tearDown() {
-        // Quit WebDriver
-        WebDriverFactory.quitDriver(driver);
+        // Return WebDriver to the pool, or quit it when pooling is disabled
+        WebDriverFactory.releaseDriver(driver);
+        driver = null;
+    }
+    
+    /**
+     * Replaces the current driver with a fresh one, e.g. after a test quits it explicitly
+     */
+    protected void setupDriver() {
+        WebDriverFactory.releaseDriver(driver);
+        driver = WebDriverFactory.acquireDriver(browser, profile);
+    }
+    
+    /**
+     * Quits all pooled browser sessions once the suite is done
+     */
+    @AfterSuite(alwaysRun = true)
+    public void shutdownDriverPool() {
+        WebDriverFactory.shutdownPool();
     }
     
     /**
@@ -0,0 +1,129 @@
+package com.qasmarts.tests;
+
+import com.qasmarts.framework.BasePage;
+import com.qasmarts.framework.CommandStatistics;
+import com.qasmarts.framework.CommandTimingListener;
+import com.qasmarts.framework.WebDriverFactory;
+import org.json.JSONObject;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.events.EventFiringDecorator;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.Proxy;
+
+/**
+ * Test class for WebDriver command timing, using an in-memory driver instead of a browser
+ *
+ * @author Abhinav Gupta
+ */
+public class CommandTimingTest {
+
+    /**
+     * Verifies commands are timed per command name and per calling page method
+     */
+    @Test(description = "Verify WebDriver commands are timed per command and page method")
+    public void testCommandsAreTimed() {
+        WebDriver fake = fakeDriver();
+        WebDriver driver = new EventFiringDecorator<>(new CommandTimingListener()).decorate(fake);
+        FakePage page = new FakePage(driver);
+
+        CommandStatistics.startTest();
+        page.open();
+        page.readHeading();
+        page.readHeading();
+        Assert.assertThrows(NoSuchElementException.class, page::findMissing);
+        driver.getTitle();
+        CommandStatistics.Timings timings = CommandStatistics.finishTest();
+
+        Assert.assertEquals(timings.getCommand("get").getCount(), 1);
+        Assert.assertEquals(timings.getCommand("findElement").getCount(), 3, "Failed lookups should be timed too");
+        Assert.assertEquals(timings.getCommand("getText").getCount(), 2);
+        Assert.assertEquals(timings.getCommand("click").getCount(), 2);
+        Assert.assertEquals(timings.getPageMethod("FakePage.open").getCount(), 1);
+        Assert.assertEquals(timings.getPageMethod("FakePage.readHeading").getCount(), 6);
+        Assert.assertEquals(timings.getPageMethod("unknown").getCount(), 1, "Calls outside page objects");
+        Assert.assertEquals(timings.getTopPageMethods(1).size(), 1);
+
+        JSONObject json = timings.toJson();
+        Assert.assertEquals(json.getJSONObject("commands").getJSONObject("getText").getInt("count"), 2);
+        Assert.assertTrue(json.getJSONObject("pageMethods").getJSONObject("FakePage.readHeading").has("p95Millis"));
+
+        Assert.assertSame(WebDriverFactory.unwrap(driver), fake);
+        Assert.assertTrue(CommandStatistics.finishTest().isEmpty(), "Timings should stop with the test");
+    }
+
+    /**
+     * Creates a driver that answers every command from memory
+     */
+    private static WebDriver fakeDriver() {
+        WebElement element = (WebElement) Proxy.newProxyInstance(CommandTimingTest.class.getClassLoader(),
+                new Class<?>[]{WebElement.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getText":
+                            return "Heading";
+                        case "isDisplayed":
+                        case "isEnabled":
+                            return true;
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        case "toString":
+                            return "FakeElement";
+                        default:
+                            return null;
+                    }
+                });
+        return (WebDriver) Proxy.newProxyInstance(CommandTimingTest.class.getClassLoader(),
+                new Class<?>[]{WebDriver.class, JavascriptExecutor.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "findElement":
+                            if (args[0].toString().contains("missing")) {
+                                throw new NoSuchElementException("No element " + args[0]);
+                            }
+                            return element;
+                        case "getTitle":
+                            return "Fake";
+                        case "executeScript":
+                            return "complete";
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        case "toString":
+                            return "FakeDriver";
+                        default:
+                            return null;
+                    }
+                });
+    }
+
+    /**
+     * Page object issuing a few commands per method
+     */
+    public static class FakePage extends BasePage {
+
+        public FakePage(WebDriver driver) {
+            super(driver);
+        }
+
+        public void open() {
+            driver.get("http://localhost/");
+        }
+
+        public String readHeading() {
+            WebElement heading = driver.findElement(By.tagName("h1"));
+            heading.click();
+            return heading.getText();
+        }
+
+        public void findMissing() {
+            driver.findElement(By.id("missing"));
+        }
+    }
+}
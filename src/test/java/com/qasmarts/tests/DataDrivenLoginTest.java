@@ -1,7 +1,8 @@
 package com.qasmarts.tests;
 
 import com.qasmarts.framework.pages.LoginPage;
-import com.qasmarts.framework.utils.ExcelUtils;
+import com.qasmarts.framework.utils.ExcelData;
+import com.qasmarts.framework.utils.ExcelDataProvider;
 import org.testng.Assert;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.DataProvider;
@@ -42,25 +43,6 @@ public class DataDrivenLoginTest extends BaseTest {
         };
     }
     
-    /**
-     * Data provider that would normally use Excel data
-     * Note: Since actual Excel file might not exist, this is a placeholder
-     * 
-     * @return 2D array of login test data
-     */
-    @DataProvider(name = "excelLoginData")
-    public Object[][] getExcelLoginData() {
-        // In a real implementation, this would use:
-        // return ExcelUtils.getTestData("loginData.xlsx", "LoginCredentials");
-        
-        // For demonstration purposes, return hardcoded data
-        return new Object[][] {
-            // username, password, shouldSucceed
-            { "tomsmith", "SuperSecretPassword!", true },
-            { "invaliduser", "SuperSecretPassword!", false }
-        };
-    }
-    
     /**
      * Data-driven test for login functionality
      * 
@@ -100,7 +82,9 @@ public class DataDrivenLoginTest extends BaseTest {
      * @param password Password to test
      * @param shouldSucceed Expected result (true for successful login, false for failure)
      */
-    @Test(dataProvider = "excelLoginData", description = "Verify login with credentials from Excel")
+    @ExcelData(file = "loginData.xlsx", sheet = "LoginCredentials")
+    @Test(dataProvider = "excel", dataProviderClass = ExcelDataProvider.class,
+            description = "Verify login with credentials from Excel")
     public void testLoginWithExcelData(String username, String password, boolean shouldSucceed) {
         // Open login page
         loginPage.open(getBaseUrl());
@@ -0,0 +1,214 @@
+package com.qasmarts.tests;
+
+import com.qasmarts.framework.utils.ExcelData;
+import com.qasmarts.framework.utils.ExcelDataProvider;
+import com.qasmarts.framework.utils.RowPartitioner;
+import com.qasmarts.framework.utils.StreamingExcelReader;
+import com.qasmarts.framework.utils.TestDataCache;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test class for Excel test data: streaming, caching and typed DataProviders.
+ * Does not need a browser; the workbook is generated on the fly.
+ *
+ * @author Abhinav Gupta
+ */
+public class ExcelUtilsTest {
+    private static final int DATA_ROWS = 1000;
+    private static final AtomicInteger parallelRows = new AtomicInteger();
+    private Path workbookFile;
+
+    /**
+     * Creates a workbook with a header row, mixed cell types and a sparse row
+     */
+    @BeforeClass
+    public void createWorkbook() throws IOException {
+        workbookFile = Files.createTempFile("streaming-excel", ".xlsx");
+        try (XSSFWorkbook workbook = new XSSFWorkbook(); OutputStream out = Files.newOutputStream(workbookFile)) {
+            workbook.createSheet("Other").createRow(0).createCell(0).setCellValue("ignored");
+            Sheet sheet = workbook.createSheet("LoginCredentials");
+            Row header = sheet.createRow(0);
+            header.createCell(0).setCellValue("username");
+            header.createCell(1).setCellValue("password");
+            header.createCell(2).setCellValue("shouldSucceed");
+            header.createCell(3).setCellValue("attempts");
+            for (int i = 1; i <= DATA_ROWS; i++) {
+                Row row = sheet.createRow(i);
+                row.createCell(0).setCellValue("user" + i);
+                if (i % 10 != 0) {
+                    row.createCell(1).setCellValue("secret" + i);
+                }
+                row.createCell(2).setCellValue(i == 1);
+                row.createCell(3).setCellFormula("1+" + i);
+            }
+            workbook.write(out);
+        }
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void deleteWorkbook() throws IOException {
+        Files.deleteIfExists(workbookFile);
+    }
+
+    /**
+     * Verifies all data rows are read with the same values the workbook API would return
+     */
+    @Test(description = "Verify sheet rows are streamed with correct types")
+    public void testStreamingRows() {
+        List<Object[]> rows = new ArrayList<>();
+        try (StreamingExcelReader reader = new StreamingExcelReader(workbookFile, "LoginCredentials", 16)) {
+            Assert.assertEquals(reader.getHeaders(), new String[] {"username", "password", "shouldSucceed", "attempts"});
+            reader.forEachRemaining(rows::add);
+        }
+
+        Assert.assertEquals(rows.size(), DATA_ROWS, "Every data row should be read");
+        Assert.assertEquals(rows.get(0), new Object[] {"user1", "secret1", true, "1+1"});
+        Assert.assertEquals(rows.get(9), new Object[] {"user10", "", false, "1+10"},
+                "Missing cells should be read as empty strings");
+        Assert.assertEquals(rows.get(DATA_ROWS - 1)[0], "user" + DATA_ROWS);
+    }
+
+    /**
+     * Verifies a consumer can stop early without waiting for the whole sheet
+     */
+    @Test(description = "Verify reading can be stopped early")
+    public void testCloseBeforeEnd() {
+        StreamingExcelReader reader = new StreamingExcelReader(workbookFile, "LoginCredentials", 4);
+        Assert.assertTrue(reader.hasNext());
+        Assert.assertEquals(reader.next()[0], "user1");
+        reader.close();
+        Assert.assertFalse(reader.hasNext(), "No rows should be returned after close");
+    }
+
+    /**
+     * Verifies parallel readers share one parse and a cleared cache is refilled from the snapshot
+     */
+    @Test(description = "Verify parsed test data is cached in memory and on disk")
+    public void testTestDataCache() throws Exception {
+        AtomicInteger parses = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<Object[][]>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> TestDataCache.get(workbookFile, "LoginCredentials", () -> {
+                    parses.incrementAndGet();
+                    return readAll();
+                })));
+            }
+            for (Future<Object[][]> result : results) {
+                Assert.assertEquals(result.get().length, DATA_ROWS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Assert.assertEquals(parses.get(), 1, "Sheet should be parsed once for all callers");
+
+        Object[][] first = TestDataCache.get(workbookFile, "LoginCredentials", this::readAll);
+        first[0][0] = "changed";
+        Assert.assertEquals(TestDataCache.get(workbookFile, "LoginCredentials", this::readAll)[0][0], "user1",
+                "Callers should not see each other's changes");
+
+        TestDataCache.clear();
+        Object[][] fromSnapshot = TestDataCache.get(workbookFile, "LoginCredentials", () -> {
+            parses.incrementAndGet();
+            return readAll();
+        });
+        Assert.assertEquals(parses.get(), 1, "Snapshot should be used instead of parsing again");
+        Assert.assertEquals(fromSnapshot[0], new Object[] {"user1", "secret1", true, "1+1"});
+    }
+
+    private Object[][] readAll() {
+        List<Object[]> rows = new ArrayList<>();
+        try (StreamingExcelReader reader = new StreamingExcelReader(workbookFile, "LoginCredentials", 64)) {
+            reader.forEachRemaining(rows::add);
+        }
+        return rows.toArray(new Object[0][]);
+    }
+
+    /**
+     * Role column values in typedData.xlsx
+     */
+    public enum Role { ADMIN, VIEWER }
+
+    /**
+     * Verifies header-mapped, typed rows with formula results
+     */
+    @ExcelData(file = "typedData.xlsx", sheet = "Accounts")
+    @Test(dataProvider = "excel", dataProviderClass = ExcelDataProvider.class,
+            description = "Verify Excel rows are converted to parameter types")
+    public void testTypedRows(String account, Role role, int attempts, @ExcelData.Column("limit") long maxAttempts,
+                              BigDecimal balance, boolean active) {
+        Assert.assertTrue(account.startsWith("user"), "Account should be text: " + account);
+        Assert.assertEquals(role, attempts % 3 == 0 ? Role.ADMIN : Role.VIEWER);
+        Assert.assertEquals(maxAttempts, attempts * 2L, "Formula cells should give their cached result");
+        Assert.assertEquals(balance, new BigDecimal(attempts + ".25"));
+        Assert.assertEquals(active, attempts % 2 == 0, "yes/no should be read as booleans");
+    }
+
+    /**
+     * Runs every row on the parallel provider; the count is checked in testParallelRowsAllRan
+     */
+    @ExcelData(file = "typedData.xlsx", sheet = "Accounts", partition = "hash:account")
+    @Test(dataProvider = "excelParallel", dataProviderClass = ExcelDataProvider.class,
+            description = "Verify Excel rows can run in parallel")
+    public void testParallelRows(int attempts, String account) {
+        Assert.assertEquals(account, "user" + (attempts % 20));
+        parallelRows.incrementAndGet();
+    }
+
+    @Test(dependsOnMethods = "testParallelRows", description = "Verify every row ran on the parallel provider")
+    public void testParallelRowsAllRan() {
+        Assert.assertEquals(parallelRows.get(), 200);
+    }
+
+    /**
+     * Verifies the dispatch order produced by each partition strategy
+     */
+    @Test(description = "Verify row partitioning strategies")
+    public void testRowPartitioner() {
+        Object[][] rows = new Object[6][];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = new Object[] {i % 2 == 0 ? "a" : "b"};
+        }
+        Assert.assertEquals(RowPartitioner.of("contiguous").order(rows, Arrays.asList("key"), 2),
+                new int[] {0, 3, 1, 4, 2, 5});
+        Assert.assertEquals(RowPartitioner.of("round_robin").order(rows, Arrays.asList("key"), 2),
+                new int[] {0, 1, 2, 3, 4, 5});
+
+        int[] hashed = RowPartitioner.of("hash:key").order(rows, Arrays.asList("key"), 2);
+        Assert.assertEquals(hashed.length, 6);
+        // "a" and "b" land in different partitions, so rows alternate between the two keys
+        for (int i = 1; i < hashed.length; i++) {
+            Assert.assertNotEquals(rows[hashed[i]][0], rows[hashed[i - 1]][0]);
+        }
+    }
+
+    /**
+     * Verifies a missing sheet is reported to the consumer
+     */
+    @Test(description = "Verify a missing sheet fails the iteration", expectedExceptions = IllegalStateException.class)
+    public void testMissingSheet() {
+        try (StreamingExcelReader reader = new StreamingExcelReader(workbookFile, "NoSuchSheet", 4)) {
+            reader.hasNext();
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.qasmarts.tests;
 
+import com.qasmarts.framework.pages.HomePage;
 import com.qasmarts.framework.pages.LoginPage;
 import org.testng.Assert;
 import org.testng.annotations.BeforeMethod;
@@ -31,7 +32,7 @@ public class LoginTest extends BaseTest {
         loginPage.open(getBaseUrl());
         
         // Login with valid credentials
-        LoginPage.HomePage homePage = loginPage.login("tomsmith", "SuperSecretPassword!");
+        HomePage homePage = loginPage.login("tomsmith", "SuperSecretPassword!");
         
         // Assert successful login (placeholder assertion for demo)
         Assert.assertTrue(driver.getCurrentUrl().contains("/secure"), 
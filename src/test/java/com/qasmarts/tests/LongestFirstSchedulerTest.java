@@ -0,0 +1,115 @@
+package com.qasmarts.tests;
+
+import com.qasmarts.framework.listeners.LongestFirstScheduler;
+import com.qasmarts.framework.utils.TestDurationStore;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.testng.xml.XmlClass;
+import org.testng.xml.XmlInclude;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Test class for the test duration store and longest-first scheduling of &lt;test&gt; blocks
+ *
+ * @author Abhinav Gupta
+ */
+public class LongestFirstSchedulerTest {
+
+    /**
+     * Verifies durations are summed per block and run, saved, and blended with the history
+     */
+    @Test(description = "Verify test durations are remembered per block as a moving average")
+    public void testDurationStore() throws IOException {
+        Path file = Files.createTempDirectory("timings").resolve("durations.properties");
+        TestDurationStore store = new TestDurationStore(file, 0.5);
+        store.record("Chrome Tests", "com.example.LoginTest", "testLogin", 300);
+        store.record("Chrome Tests", "com.example.LoginTest", "testLogin", 100);
+        store.record("Chrome Tests", "com.example.LoginTest", "testLogout", 50);
+        store.record("Firefox Tests", "com.example.LoginTest", "testLogin", 200);
+        Assert.assertEquals(store.getDuration("Chrome Tests", "com.example.LoginTest", "testLogin"), -1,
+                "Nothing saved yet");
+        store.save();
+        Assert.assertEquals(store.getDuration("Chrome Tests", "com.example.LoginTest", "testLogin"), 400);
+        Assert.assertEquals(store.getDuration("Firefox Tests", "com.example.LoginTest", "testLogin"), 200,
+                "Runs in other blocks should not add up");
+        Assert.assertEquals(store.getDuration("Smoke Tests", "com.example.LoginTest", "testLogin"), 300,
+                "A block that never ran the method should get its average over the others");
+
+        TestDurationStore nextRun = new TestDurationStore(file, 0.5);
+        Assert.assertEquals(nextRun.getDurations("Chrome Tests", "com.example.LoginTest").size(), 2);
+        nextRun.record("Chrome Tests", "com.example.LoginTest", "testLogin", 200);
+        nextRun.save();
+        Assert.assertEquals(new TestDurationStore(file, 0.5)
+                .getDuration("Chrome Tests", "com.example.LoginTest", "testLogin"), 300);
+        Assert.assertEquals(nextRun.getDuration("Chrome Tests", "com.example.LoginTest", "testLogout"), 50);
+        Assert.assertEquals(LongestFirstScheduler.getBlockName("Chrome Tests [2/3]"), "Chrome Tests");
+    }
+
+    /**
+     * Verifies an overlong block is split and blocks are queued longest first
+     */
+    @Test(description = "Verify test blocks are split and ordered longest first")
+    public void testScheduleLongestFirst() throws IOException {
+        TestDurationStore store = new TestDurationStore(
+                Files.createTempDirectory("timings").resolve("durations.properties"), 1);
+        record(store, "A1", 60_000);
+        record(store, "A2", 50_000);
+        record(store, "A3", 40_000);
+        record(store, "B1", 10_000);
+        record(store, "C1", 20_000);
+        store.record("C", "com.example.C1", "excluded", 500_000);
+        // The same class in another block does not make B longer
+        store.record("Other", "com.example.B1", "test", 400_000);
+        store.save();
+
+        XmlSuite suite = new XmlSuite();
+        suite.setParallel(XmlSuite.ParallelMode.TESTS);
+        suite.setThreadCount(3);
+        XmlTest advanced = block(suite, "A", "A1", "A2", "A3");
+        advanced.addParameter("browser", "chrome");
+        block(suite, "B", "B1");
+        block(suite, "C", "C1").getXmlClasses().get(0).setIncludedMethods(
+                new ArrayList<>(Collections.singletonList(new XmlInclude("test"))));
+        block(suite, "D", "D1");
+
+        LongestFirstScheduler.schedule(suite, store, true);
+
+        List<String> names = new ArrayList<>();
+        for (XmlTest test : suite.getTests()) {
+            names.add(test.getName());
+        }
+        // D was never timed and counts as the average class (36 s); only C1.test is included
+        Assert.assertEquals(names, Arrays.asList("A [1/3]", "A [2/3]", "A [3/3]", "D", "C", "B"));
+        for (XmlTest part : suite.getTests().subList(0, 3)) {
+            Assert.assertEquals(part.getXmlClasses().size(), 1);
+            Assert.assertEquals(part.getParameter("browser"), "chrome");
+        }
+        Assert.assertEquals(suite.getTests().get(1).getXmlClasses().get(0).getName(), "com.example.A2");
+        Assert.assertEquals(LongestFirstScheduler.makespan(Arrays.asList(60L, 50L, 40L, 36L, 20L, 10L), 3), 76);
+        Assert.assertEquals(LongestFirstScheduler.makespan(Arrays.asList(150L, 10L, 20L, 36L), 3), 150);
+    }
+
+    private static void record(TestDurationStore store, String className, long millis) {
+        store.record(className.substring(0, 1), "com.example." + className, "test", millis);
+    }
+
+    private static XmlTest block(XmlSuite suite, String name, String... classNames) {
+        XmlTest test = new XmlTest(suite);
+        test.setName(name);
+        List<XmlClass> classes = new ArrayList<>();
+        for (String className : classNames) {
+            classes.add(new XmlClass("com.example." + className, false));
+        }
+        test.setXmlClasses(classes);
+        return test;
+    }
+}
@@ -0,0 +1,113 @@
+package com.qasmarts.tests;
+
+import com.qasmarts.framework.utils.ReportMerger;
+import com.qasmarts.framework.utils.ReportRenderer;
+import org.json.JSONObject;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Test class for rendering and merging HTML reports from streamed test events.
+ * Does not need a browser; the events file is written by the test.
+ *
+ * @author Abhinav Gupta
+ */
+public class ReportRendererTest {
+
+    /**
+     * Verifies a partial events file, as left by a crashed run, still renders
+     */
+    @Test(description = "Verify a report renders from a partial events file")
+    public void testRenderPartialEvents() throws IOException {
+        Path events = Files.createTempFile("events", ".jsonl");
+        Path html = Files.createTempFile("report", ".html");
+        try {
+            Files.write(events, Arrays.asList(
+                    "{\"event\":\"suiteStart\",\"suite\":\"s\",\"time\":1000}",
+                    "{\"event\":\"testStart\",\"id\":\"1\",\"method\":\"testLogin\",\"class\":\"LoginTest\",\"time\":1000}",
+                    "{\"event\":\"testStart\",\"id\":\"2\",\"method\":\"testLogout\",\"class\":\"LoginTest\",\"time\":1000}",
+                    "{\"event\":\"testStart\",\"id\":\"3\",\"method\":\"testHang\",\"class\":\"LoginTest\",\"time\":1000}",
+                    "{\"event\":\"testEnd\",\"id\":\"1\",\"method\":\"testLogin\",\"status\":\"PASS\",\"start\":1000,\"end\":1500}",
+                    "{\"event\":\"testEnd\",\"id\":\"2\",\"method\":\"testLogout\",\"status\":\"FAIL\",\"start\":1000,"
+                            + "\"end\":3000,\"error\":\"expected <true>\"}",
+                    "{\"event\":\"testStart\",\"id\":\"4\",\"method\":\"testFlaky\",\"class\":\"LoginTest\",\"time\":3000}",
+                    "{\"event\":\"testEnd\",\"id\":\"4\",\"method\":\"testFlaky\",\"status\":\"SKIP\",\"retried\":true,"
+                            + "\"start\":3000,\"end\":3100}",
+                    "{\"event\":\"testStart\",\"id\":\"5\",\"method\":\"testFlaky\",\"class\":\"LoginTest\",\"time\":3100}",
+                    "{\"event\":\"testEnd\",\"id\":\"5\",\"method\":\"testFlaky\",\"status\":\"PASS\",\"start\":3100,\"end\":3200}",
+                    "{\"event\":\"testEnd\",\"id\":\"3\",\"meth"), StandardCharsets.UTF_8);
+
+            ReportRenderer.render(events, html);
+            String report = new String(Files.readAllBytes(html), StandardCharsets.UTF_8);
+
+            Assert.assertTrue(report.contains("Total: 4"), "Summary should count every started test once");
+            Assert.assertTrue(report.contains("Passed: 2"));
+            Assert.assertTrue(report.contains("Failed: 1"));
+            Assert.assertTrue(report.contains("Skipped: 0"), "Retried attempts should not count as skipped");
+            Assert.assertEquals(report.split("testFlaky", -1).length - 1, report.split("testLogin", -1).length - 1,
+                    "Retried attempts should not get a row of their own");
+            Assert.assertTrue(report.contains("Incomplete: 1"), "Unfinished tests should be reported");
+            Assert.assertTrue(report.contains("expected &lt;true&gt;"), "Messages should be HTML-escaped");
+            Assert.assertTrue(report.trim().endsWith("</html>"));
+        } finally {
+            Files.deleteIfExists(events);
+            Files.deleteIfExists(html);
+        }
+    }
+
+    /**
+     * Verifies shards are merged with retried and repeated tests counted once
+     */
+    @Test(description = "Verify shards merge with one result per test")
+    public void testMergeShards() throws IOException {
+        Path dir = Files.createTempDirectory("shards");
+        Path first = dir.resolve("events_a.jsonl");
+        Path second = dir.resolve("events_b.jsonl");
+        Path merged = dir.resolve("merged").resolve("events_merged.jsonl");
+        Path html = dir.resolve("merged").resolve("events_merged.html");
+        try {
+            Files.write(first, Arrays.asList(
+                    "{\"event\":\"shardStart\",\"shard\":\"a\",\"time\":1000}",
+                    "{\"event\":\"testStart\",\"id\":\"a1\",\"context\":\"c\",\"class\":\"LoginTest\",\"method\":\"testLogin\"}",
+                    "{\"event\":\"testEnd\",\"id\":\"a1\",\"context\":\"c\",\"class\":\"LoginTest\",\"method\":\"testLogin\","
+                            + "\"status\":\"SKIP\",\"retried\":true,\"start\":1000,\"end\":2000}",
+                    "{\"event\":\"testStart\",\"id\":\"a2\",\"context\":\"c\",\"class\":\"LoginTest\",\"method\":\"testLogin\"}",
+                    "{\"event\":\"testEnd\",\"id\":\"a2\",\"context\":\"c\",\"class\":\"LoginTest\",\"method\":\"testLogin\","
+                            + "\"status\":\"PASS\",\"retried\":false,\"start\":2000,\"end\":2500}",
+                    "{\"event\":\"testStart\",\"id\":\"a3\",\"context\":\"c\",\"class\":\"TableTest\",\"method\":\"testSort\"}",
+                    "{\"event\":\"testEnd\",\"id\":\"a3\",\"context\":\"c\",\"class\":\"TableTest\",\"method\":\"testSort\","
+                            + "\"status\":\"FAIL\",\"start\":1000,\"end\":1100}"), StandardCharsets.UTF_8);
+            Files.write(second, Arrays.asList(
+                    "{\"event\":\"shardStart\",\"shard\":\"b\",\"time\":1000}",
+                    "{\"event\":\"testStart\",\"id\":\"b1\",\"context\":\"c\",\"class\":\"TableTest\",\"method\":\"testSort\"}",
+                    "{\"event\":\"testEnd\",\"id\":\"b1\",\"context\":\"c\",\"class\":\"TableTest\",\"method\":\"testSort\","
+                            + "\"status\":\"PASS\",\"start\":3000,\"end\":6000}",
+                    "{\"event\":\"testStart\",\"id\":\"b2\",\"context\":\"c\",\"class\":\"AlertTest\",\"method\":\"testAlert\"}"),
+                    StandardCharsets.UTF_8);
+
+            JSONObject summary = ReportMerger.merge(List.of(first, second), merged);
+            ReportRenderer.render(merged, html);
+            String report = new String(Files.readAllBytes(html), StandardCharsets.UTF_8);
+
+            Assert.assertEquals(summary.getInt("tests"), 2, "Each finished test should be counted once");
+            Assert.assertEquals(summary.getLong("testMillis"), 3500L, "Only final attempts should be timed");
+            Assert.assertEquals(summary.getJSONArray("slowestTests").getJSONObject(0).getString("method"), "testSort");
+            Assert.assertTrue(report.contains("Total: 3"), "Report should list finished and incomplete tests");
+            Assert.assertTrue(report.contains("Passed: 2"), "Later attempts should replace earlier results");
+            Assert.assertTrue(report.contains("Failed: 0"));
+            Assert.assertTrue(report.contains("Incomplete: 1"));
+            Assert.assertTrue(report.contains("<h2>Shards</h2>"));
+        } finally {
+            for (Path file : Arrays.asList(first, second, merged, html, merged.getParent(), dir)) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.qasmarts.tests;
+
+import com.qasmarts.framework.listeners.RetryAnalyzer;
+import com.qasmarts.framework.listeners.RetryTransformer;
+import com.qasmarts.framework.utils.FlakeStore;
+import org.testng.Assert;
+import org.testng.IRetryAnalyzer;
+import org.testng.ITestResult;
+import org.testng.annotations.Test;
+import org.testng.internal.annotations.TestAnnotation;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Test class for in-place retries (test.retryCount=1) and flake statistics
+ *
+ * @author Abhinav Gupta
+ */
+public class RetryTest {
+
+    /**
+     * Verifies tests get the retry analyzer and a failing test is retried test.retryCount times
+     */
+    @Test(description = "Verify failed tests are retried test.retryCount times")
+    public void testFailedTestIsRetried() {
+        TestAnnotation annotation = new TestAnnotation();
+        new RetryTransformer().transform(annotation, RetryTest.class, null, null);
+        Assert.assertEquals(annotation.getRetryAnalyzerClass(), RetryAnalyzer.class);
+
+        TestAnnotation custom = new TestAnnotation();
+        custom.setRetryAnalyzer(NeverRetry.class);
+        new RetryTransformer().transform(custom, RetryTest.class, null, null);
+        Assert.assertEquals(custom.getRetryAnalyzerClass(), NeverRetry.class, "Own analyzers should be kept");
+
+        ITestResult failed = (ITestResult) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{ITestResult.class}, (proxy, method, args) ->
+                        "getName".equals(method.getName()) ? "testLogin" : null);
+        RetryAnalyzer analyzer = new RetryAnalyzer();
+        Assert.assertTrue(analyzer.retry(failed), "First failure should be retried");
+        Assert.assertFalse(analyzer.retry(failed), "test.retryCount=1 allows a single retry");
+        Assert.assertEquals(analyzer.getRetries(), 1);
+    }
+
+    /**
+     * Verifies flake rates count runs that passed only after a retry, across saves
+     */
+    @Test(description = "Verify flake rates are recorded per test")
+    public void testFlakeStore() throws IOException {
+        Path file = Files.createTempDirectory("flakes").resolve("flake-stats.properties");
+        FlakeStore store = new FlakeStore(file);
+        store.record("com.example.LoginTest", "testLogin", 0, true);
+        store.record("com.example.LoginTest", "testLogin", 1, true);
+        store.record("com.example.LoginTest", "testLogout", 1, false);
+        store.record("com.example.HomeTest", "testHeading", 0, true);
+        store.save();
+
+        FlakeStore nextRun = new FlakeStore(file);
+        nextRun.record("com.example.LoginTest", "testLogin", 0, true);
+        nextRun.record("com.example.HomeTest", "testHeading", 2, true);
+        FlakeStore.Stats login = nextRun.getStats("com.example.LoginTest", "testLogin");
+        Assert.assertEquals(login.getRuns(), 3);
+        Assert.assertEquals(login.getFlaky(), 1);
+        Assert.assertEquals(nextRun.getStats("com.example.LoginTest", "testLogout").getFailures(), 1);
+
+        List<FlakeStore.Stats> flakiest = nextRun.getFlakiest(10);
+        Assert.assertEquals(flakiest.size(), 2, "Tests that never passed on retry are not flaky");
+        Assert.assertEquals(flakiest.get(0).getTest(), "com.example.HomeTest#testHeading");
+        Assert.assertEquals(flakiest.get(0).getFlakeRate(), 0.5, 0.0001);
+
+        nextRun.save();
+        Assert.assertEquals(new FlakeStore(file).getStats("com.example.HomeTest", "testHeading").getRuns(), 2);
+    }
+
+    /**
+     * Retry analyzer declared on a test of its own
+     */
+    public static class NeverRetry implements IRetryAnalyzer {
+        @Override
+        public boolean retry(ITestResult result) {
+            return false;
+        }
+    }
+}
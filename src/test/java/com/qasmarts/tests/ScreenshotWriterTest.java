@@ -0,0 +1,82 @@
+package com.qasmarts.tests;
+
+import com.qasmarts.framework.utils.ScreenshotStore;
+import com.qasmarts.framework.utils.ScreenshotWriter;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Test class for the background screenshot writer and content-addressed store.
+ * Does not need a browser; fake image bytes are written.
+ *
+ * @author Abhinav Gupta
+ */
+public class ScreenshotWriterTest {
+
+    /**
+     * Verifies a burst larger than the queue is fully written under unique names
+     */
+    @Test(description = "Verify queued screenshots are all written with unique names")
+    public void testBurstOfScreenshots() throws Exception {
+        List<CompletableFuture<Path>> writes = new ArrayList<>();
+        Set<Path> paths = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            Path destination = ScreenshotWriter.newPath("burst test");
+            Assert.assertTrue(paths.add(destination), "Names should not collide: " + destination);
+            writes.add(ScreenshotWriter.write(new byte[] {(byte) i, 1, 2, 3}, destination));
+        }
+
+        Assert.assertTrue(ScreenshotWriter.awaitPending(10_000), "Queue should drain");
+        for (CompletableFuture<Path> write : writes) {
+            Path image = write.get(1, TimeUnit.SECONDS);
+            Assert.assertTrue(Files.exists(image), "Screenshot should be on disk: " + image);
+        }
+        for (Path path : paths) {
+            Assert.assertFalse(path.getFileName().toString().contains(" "), "Names should be file-system safe");
+            Assert.assertTrue(Files.exists(ScreenshotStore.resolve(path)), "Path should resolve to an image: " + path);
+        }
+    }
+
+    /**
+     * Verifies identical captures are stored once and resolve to the same image
+     */
+    @Test(description = "Verify duplicate screenshots share one stored image")
+    public void testDuplicateScreenshots() throws Exception {
+        byte[] png = "same error page".getBytes(StandardCharsets.UTF_8);
+        Path first = ScreenshotWriter.newPath("duplicate");
+        Path second = ScreenshotWriter.newPath("duplicate");
+        Path firstImage = ScreenshotWriter.write(png, first).get(5, TimeUnit.SECONDS);
+        Path secondImage = ScreenshotWriter.write(png, second).get(5, TimeUnit.SECONDS);
+
+        Assert.assertEquals(secondImage, firstImage, "Identical bytes should be stored once");
+        Assert.assertEquals(ScreenshotStore.resolve(first), firstImage);
+        Assert.assertEquals(ScreenshotStore.resolve(second), firstImage);
+        Assert.assertTrue(Files.size(second) < 100, "Duplicates should only cost a small reference");
+        Assert.assertEquals(Files.readAllBytes(firstImage), png);
+    }
+
+    /**
+     * Verifies a write that throws a runtime exception still completes its future
+     */
+    @Test(description = "Verify unexpected write errors complete the future exceptionally")
+    public void testFailedScreenshotCompletes() throws Exception {
+        CompletableFuture<Path> write = ScreenshotWriter.write(null, ScreenshotWriter.newPath("no bytes"));
+        try {
+            write.get(5, TimeUnit.SECONDS);
+            Assert.fail("Writing no bytes should fail");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof RuntimeException, "Cause should be kept: " + e.getCause());
+        }
+    }
+}
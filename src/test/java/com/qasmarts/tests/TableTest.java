@@ -1,6 +1,7 @@
 package com.qasmarts.tests;
 
 import com.qasmarts.framework.pages.TablePage;
+import com.qasmarts.framework.pages.TableRowReader;
 import org.testng.Assert;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
@@ -9,6 +10,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * Test class for Table functionality
@@ -186,4 +188,22 @@ public class TableTest extends BaseTest {
         Assert.assertEquals(invalidIndex, -1,
                 "Invalid column name should return index -1");
     }
-} 
\ No newline at end of file
+    
+    /**
+     * Test streaming table rows in small chunks
+     */
+    @Test(description = "Verify streaming table rows in chunks")
+    public void testStreamingTableRows() {
+        // Read table 1 two rows at a time so more than one chunk is needed
+        TableRowReader reader = tablePage.readTableRows(TablePage.TABLE_1, 2);
+        List<String> lastNames = reader.stream()
+                .map(row -> row.get("Last Name"))
+                .collect(Collectors.toList());
+        
+        // Verify streamed rows match the snapshot
+        Assert.assertEquals(reader.getHeaders(), tablePage.getTable1Headers(),
+                "Streamed headers should match table headers");
+        Assert.assertEquals(lastNames, tablePage.getTable1ColumnDataByName("Last Name"),
+                "Streamed 'Last Name' values should match the table");
+    }
+}